@@ -0,0 +1,33 @@
+package com.example.openapitool;
+
+import com.example.openapitool.service.SheetService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// 比較指令列 (不啟動 web、延遲初始化) 與完整 web 服務的啟動時間，每次都重新建立 context 並取得 SheetService
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+public class StartupBenchmark {
+
+    @Param({"CLI", "WEB"})
+    String mode;
+
+    @Benchmark
+    public Object startContext() {
+        var application = "CLI".equals(mode)
+            ? OpenApiToolCli.application()
+            : new SpringApplicationBuilder(OpenApiToolApplication.class)
+                .bannerMode(Banner.Mode.OFF)
+                .properties("server.port=0", "logging.level.root=WARN");
+        try (var context = application.run()) {
+            return context.getBean(SheetService.class);
+        }
+    }
+
+}
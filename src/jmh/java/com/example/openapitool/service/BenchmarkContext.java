@@ -0,0 +1,23 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.OpenApiToolApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// benchmark 使用的 spring context，不啟動 web server，並關閉轉換結果快取以量測實際轉換成本
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(OpenApiToolApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "open-api-tool.cache.enabled=false",
+                "logging.level.root=WARN")
+            .run();
+    }
+
+}
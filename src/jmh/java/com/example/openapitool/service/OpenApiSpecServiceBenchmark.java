@@ -0,0 +1,45 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.constant.ParserEngine;
+import com.example.openapitool.constant.SpecFormat;
+import com.example.openapitool.generator.OpenApiSpecGenerator;
+import com.example.openapitool.model.SpecGeneratorOption;
+import com.example.openapitool.model.open_api.OpenApiDoc;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+@State(Scope.Benchmark)
+public class OpenApiSpecServiceBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    int operationCount;
+
+    @Param({"JSON", "YAML"})
+    SpecFormat format;
+
+    @Param({"JSON_PATH", "STREAMING"})
+    ParserEngine engine;
+
+    private ConfigurableApplicationContext context;
+    private OpenApiSpecService openApiSpecService;
+    private String content;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        openApiSpecService = context.getBean(OpenApiSpecService.class);
+        content = OpenApiSpecGenerator.generate(
+            SpecGeneratorOption.builder().operations(operationCount).build(), format);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public OpenApiDoc getOpenApiDoc() {
+        return openApiSpecService.getOpenApiDoc(content, engine);
+    }
+
+}
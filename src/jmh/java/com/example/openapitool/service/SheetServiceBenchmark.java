@@ -0,0 +1,103 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.constant.SpecFormat;
+import com.example.openapitool.constant.TemplateType;
+import com.example.openapitool.generator.OpenApiSpecGenerator;
+import com.example.openapitool.model.ConvertOption;
+import com.example.openapitool.model.SpecContent;
+import com.example.openapitool.model.SpecGeneratorOption;
+import com.example.openapitool.model.open_api.Api;
+import com.example.openapitool.model.open_api.OpenApiDoc;
+import com.example.openapitool.model.open_api.RequestPayload;
+import com.example.openapitool.model.open_api.ResponsePayload;
+import com.example.openapitool.model.sheet.SheetParameter;
+import com.example.openapitool.util.HashUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+@SuppressWarnings("unchecked")
+@State(Scope.Benchmark)
+public class SheetServiceBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    int operationCount;
+
+    @Param({"JSON", "YAML"})
+    SpecFormat format;
+
+    private ConfigurableApplicationContext context;
+    private SheetService sheetService;
+    private SpecContent spec;
+    private OpenApiDoc openApiDoc;
+    private ComponentIndex componentIndex;
+    private List<String> payloadRefs;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        sheetService = context.getBean(SheetService.class);
+        var option = SpecGeneratorOption.builder().operations(operationCount).build();
+        var content = OpenApiSpecGenerator.generate(option, format).getBytes(StandardCharsets.UTF_8);
+        spec = new SpecContent(content, HashUtils.sha256Normalized(content));
+        openApiDoc = context.getBean(OpenApiSpecService.class).getOpenApiDoc(new String(content, StandardCharsets.UTF_8));
+        componentIndex = ComponentIndex.of((Map<String, ?>) new OpenApiSpecGenerator(option).generate().get("components"));
+        payloadRefs = openApiDoc.getGroups().stream()
+            .flatMap(group -> group.getApis().stream())
+            .flatMap(SheetServiceBenchmark::getPayloadRefs)
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<SheetParameter> convertToSheetParameter() {
+        return sheetService.convertToSheetParameter(openApiDoc);
+    }
+
+    // 每份文件建立一個 ExampleGenerator，包含 $ref 快取的效果
+    @Benchmark
+    public void generateExamples(Blackhole blackhole) {
+        var exampleGenerator = new ExampleGenerator(componentIndex, 16, 2000, 1);
+        for (String ref : payloadRefs) {
+            blackhole.consume(exampleGenerator.getExample(ref));
+        }
+    }
+
+    @Benchmark
+    public void convertOpenApiToSheet(TemplateState templateState) {
+        var option = ConvertOption.builder().templateType(templateState.templateType.name()).build();
+        sheetService.convertOpenApiToSheet(option, spec, OutputStream.nullOutputStream());
+    }
+
+    private static Stream<String> getPayloadRefs(Api api) {
+        var requestRefs = api.getRequestPayloads() == null
+            ? Stream.<String>empty()
+            : api.getRequestPayloads().stream().map(RequestPayload::getRef);
+        var responseRefs = api.getResponsePayloads() == null
+            ? Stream.<String>empty()
+            : api.getResponsePayloads().stream().map(ResponsePayload::getRef);
+        return Stream.concat(requestRefs, responseRefs);
+    }
+
+    // 只有輸出的 benchmark 使用模板參數，其他 benchmark 不需要依模板重複執行
+    @State(Scope.Benchmark)
+    public static class TemplateState {
+
+        @Param({"DEFAULT", "SIMPLE"})
+        TemplateType templateType;
+
+    }
+
+}
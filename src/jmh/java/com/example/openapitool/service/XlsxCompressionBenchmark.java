@@ -0,0 +1,77 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.constant.RenderEngine;
+import com.example.openapitool.constant.SpecFormat;
+import com.example.openapitool.constant.TemplateType;
+import com.example.openapitool.constant.XlsxCompression;
+import com.example.openapitool.generator.OpenApiSpecGenerator;
+import com.example.openapitool.model.ConvertOption;
+import com.example.openapitool.model.SpecContent;
+import com.example.openapitool.model.SpecGeneratorOption;
+import com.example.openapitool.util.HashUtils;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+// 比較各壓縮等級在兩種模板、兩種輸出引擎下的耗時與 xlsx 大小，outputBytes 為每輪累計的輸出位元組數 (除以執行次數即為檔案大小)
+@State(Scope.Benchmark)
+public class XlsxCompressionBenchmark {
+
+    @Param({"STORE", "FAST", "DEFAULT", "MAX"})
+    XlsxCompression compression;
+
+    @Param({"DEFAULT", "SIMPLE"})
+    TemplateType templateType;
+
+    @Param({"JXLS", "STREAMING"})
+    RenderEngine renderEngine;
+
+    @Param({"1000"})
+    int operationCount;
+
+    private ConfigurableApplicationContext context;
+    private SheetService sheetService;
+    private SpecContent spec;
+    private ConvertOption option;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        sheetService = context.getBean(SheetService.class);
+        var generatorOption = SpecGeneratorOption.builder().operations(operationCount).build();
+        var content = OpenApiSpecGenerator.generate(generatorOption, SpecFormat.JSON).getBytes(StandardCharsets.UTF_8);
+        spec = new SpecContent(content, HashUtils.sha256Normalized(content));
+        option = ConvertOption.builder()
+            .templateType(templateType.name())
+            .renderEngine(renderEngine)
+            .compression(compression)
+            .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void convertOpenApiToSheet(OutputSize outputSize) {
+        var outputStream = new CountingOutputStream(OutputStream.nullOutputStream());
+        sheetService.convertOpenApiToSheet(option, spec, outputStream);
+        outputSize.outputBytes += outputStream.getByteCount();
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class OutputSize {
+        public long outputBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            outputBytes = 0;
+        }
+    }
+
+}
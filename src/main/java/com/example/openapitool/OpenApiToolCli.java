@@ -0,0 +1,245 @@
+package com.example.openapitool;
+
+import com.example.openapitool.constant.XlsxCompression;
+import com.example.openapitool.model.ConvertOption;
+import com.example.openapitool.model.SpecContent;
+import com.example.openapitool.service.SheetService;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// 指令列批次轉換，不啟動 web server (也不載入 swagger、controller)，bean 延遲初始化，只建立轉換用到的 service
+// 指令列: specs/*.yaml other.json --template=DEFAULT,SIMPLE --output=build/xlsx --compression=FAST --parallelism=4
+// 其他 --open-api-tool.*、--spring.*、--logging.* 直接作為設定，結束碼: 0 全部成功、1 有檔案失敗、2 參數錯誤
+public final class OpenApiToolCli {
+
+    private static final String GLOB_CHARS = "*?[{";
+
+    private OpenApiToolCli() {
+    }
+
+    // 與 benchmark 共用，未指定時不使用轉換結果快取，並等待記憶體預算而不是逾時失敗
+    static SpringApplicationBuilder application() {
+        return new SpringApplicationBuilder(OpenApiToolApplication.class)
+            .web(WebApplicationType.NONE)
+            .lazyInitialization(true)
+            .bannerMode(Banner.Mode.OFF)
+            .logStartupInfo(false)
+            .properties(
+                "open-api-tool.cache.enabled=false",
+                "open-api-tool.admission.queue-timeout=1h",
+                "open-api-tool.ref.base-dir=.",
+                "logging.level.root=WARN");
+    }
+
+    public static void main(String[] args) {
+        Options options;
+        try {
+            options = Options.parse(args);
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: <spec file or glob>... [--template=DEFAULT,SIMPLE] [--output=dir]"
+                + " [--compression=STORE|FAST|DEFAULT|MAX] [--parallelism=n]");
+            System.exit(2);
+            return;
+        }
+
+        var start = System.nanoTime();
+        boolean succeeded;
+        try (var context = application().run(options.springArgs().toArray(String[]::new))) {
+            System.out.printf("Started in %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            succeeded = convert(context.getBean(SheetService.class), options, System.out);
+        }
+        System.out.printf("Finished in %d ms%n", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        System.exit(succeeded ? 0 : 1);
+    }
+
+    // 每個檔案的結果依輸入順序輸出，單一檔案失敗不影響其他檔案
+    static boolean convert(SheetService sheetService, Options options, PrintStream out) {
+        // 參數都檢查通過後才建立輸出目錄，參數錯誤時不留下空目錄
+        if (options.outputDir() != null) {
+            try {
+                Files.createDirectories(options.outputDir());
+            } catch (IOException e) {
+                out.printf("FAILED cannot create output directory %s: %s%n", options.outputDir(), e.getMessage());
+                return false;
+            }
+        }
+        var executor = Executors.newFixedThreadPool(options.parallelism());
+        try {
+            var results = new ArrayList<Future<String>>();
+            for (Path spec : options.specs()) {
+                results.add(executor.submit(() -> convertFile(sheetService, options, spec)));
+            }
+            boolean succeeded = true;
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    out.println(results.get(i).get());
+                } catch (ExecutionException e) {
+                    succeeded = false;
+                    var cause = e.getCause();
+                    // 每個檔案只輸出一行，例外訊息中的換行 (例如 parser 的錯誤位置) 改為空白
+                    out.printf("FAILED %s: %s%n", options.specs().get(i), cause.getMessage() == null
+                        ? cause.getClass().getSimpleName()
+                        : cause.getMessage().replaceAll("\\s*\\R\\s*", " "));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return succeeded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String convertFile(SheetService sheetService, Options options, Path spec) throws IOException {
+        var start = System.nanoTime();
+        SpecContent content;
+        try (var inputStream = Files.newInputStream(spec)) {
+            content = sheetService.readSpec(inputStream);
+        }
+        // 相對路徑的外部 $ref 依檔案位置解析
+        var located = new SpecContent(content.getContent(), content.getContentHash(), spec.toUri().toString());
+        var outputs = new ArrayList<String>();
+        for (String template : options.templates()) {
+            var output = options.getOutput(spec, template);
+            var option = ConvertOption.builder()
+                .templateType(template)
+                .compression(options.compression())
+                .endpoint("cli")
+                .build();
+            // 每次轉換使用各自的暫存檔，寫入完成才取代輸出檔
+            var tempFile = Files.createTempFile(output.getParent(), "." + output.getFileName(), ".tmp");
+            try {
+                try (var outputStream = Files.newOutputStream(tempFile)) {
+                    sheetService.convertOpenApiToSheet(option, located, outputStream);
+                }
+                Files.move(tempFile, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            outputs.add("%s (%d bytes)".formatted(output, Files.size(output)));
+        }
+        return "OK %s -> %s, %d ms".formatted(
+            spec, String.join(", ", outputs), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    record Options(
+        List<Path> specs,
+        List<String> templates,
+        Path outputDir,
+        XlsxCompression compression,
+        int parallelism,
+        List<String> springArgs) {
+
+        static Options parse(String[] args) throws IOException {
+            var specs = new LinkedHashSet<Path>();
+            List<String> templates = List.of("DEFAULT");
+            Path outputDir = null;
+            XlsxCompression compression = null;
+            var parallelism = Runtime.getRuntime().availableProcessors();
+            var springArgs = new ArrayList<String>();
+            for (String arg : args) {
+                if (!arg.startsWith("--")) {
+                    specs.addAll(expand(arg));
+                    continue;
+                }
+                var pair = arg.substring(2).split("=", 2);
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Invalid argument: " + arg);
+                }
+                var value = pair[1];
+                switch (pair[0]) {
+                    case "template" -> templates = List.of(value.split(","));
+                    case "output" -> outputDir = Path.of(value);
+                    case "compression" -> compression = XlsxCompression.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "parallelism" -> parallelism = Math.max(1, Integer.parseInt(value));
+                    default -> {
+                        if (!pair[0].startsWith("open-api-tool.") && !pair[0].startsWith("spring.")
+                            && !pair[0].startsWith("logging.")) {
+                            throw new IllegalArgumentException("Unknown option: " + pair[0]);
+                        }
+                        springArgs.add(arg);
+                    }
+                }
+            }
+            if (specs.isEmpty()) {
+                throw new IllegalArgumentException("No spec file");
+            }
+            var options = new Options(List.copyOf(specs), templates, outputDir, compression, parallelism, springArgs);
+            options.checkOutputs();
+            return options;
+        }
+
+        // 單一模板時為 <檔名>.xlsx，多個模板時為 <檔名>.<模板>.xlsx，未指定 output 時寫在 spec 旁
+        Path getOutput(Path spec, String template) {
+            var fileName = spec.getFileName().toString();
+            var dotIndex = fileName.lastIndexOf('.');
+            var baseName = dotIndex > 0 ? fileName.substring(0, dotIndex) : fileName;
+            var name = templates.size() > 1 ? "%s.%s.xlsx".formatted(baseName, template) : baseName + ".xlsx";
+            var output = outputDir == null ? spec.resolveSibling(name) : outputDir.resolve(name);
+            return output.toAbsolutePath().normalize();
+        }
+
+        // 不同 spec 輸出到同一個檔案時 (例如 a/pets.json 與 b/pets.yaml 輸出到同一個 output) 不轉換
+        private void checkOutputs() {
+            var outputs = new HashMap<Path, Path>();
+            for (Path spec : specs) {
+                for (String template : templates) {
+                    var existing = outputs.putIfAbsent(getOutput(spec, template), spec);
+                    if (existing != null) {
+                        throw new IllegalArgumentException("Duplicate output %s: %s, %s".formatted(
+                            getOutput(spec, template), existing, spec));
+                    }
+                }
+            }
+        }
+
+        // glob 由第一個含萬用字元的路徑段開始比對，例如 specs/**/*.yaml 由 specs 目錄往下尋找
+        private static List<Path> expand(String pattern) throws IOException {
+            var normalized = pattern.replace('\\', '/');
+            var globIndex = indexOfGlob(normalized);
+            if (globIndex < 0) {
+                var path = Path.of(pattern);
+                if (!Files.isRegularFile(path)) {
+                    throw new IllegalArgumentException("Spec file not found: " + pattern);
+                }
+                return List.of(path);
+            }
+            var slashIndex = normalized.lastIndexOf('/', globIndex);
+            var baseDir = Path.of(slashIndex < 0 ? "." : normalized.substring(0, slashIndex + 1));
+            var matcher = FileSystems.getDefault().getPathMatcher("glob:" + normalized.substring(slashIndex + 1));
+            if (!Files.isDirectory(baseDir)) {
+                return List.of();
+            }
+            try (Stream<Path> stream = Files.walk(baseDir)) {
+                return stream
+                    .filter(Files::isRegularFile)
+                    .filter(path -> matcher.matches(baseDir.relativize(path)))
+                    .sorted()
+                    .toList();
+            }
+        }
+
+        private static int indexOfGlob(String pattern) {
+            for (int i = 0; i < pattern.length(); i++) {
+                if (GLOB_CHARS.indexOf(pattern.charAt(i)) >= 0) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.example.openapitool.config;
+
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class OkHttpConfig {
+
+    // 共用同一個 client，保留連線池與 TLS session；未自行設定 Accept-Encoding 時 OkHttp 會自動處理 gzip
+    @Bean
+    public OkHttpClient okHttpClient(
+        @Value("${open-api-tool.http.connect-timeout:5s}") Duration connectTimeout,
+        @Value("${open-api-tool.http.read-timeout:30s}") Duration readTimeout,
+        @Value("${open-api-tool.http.max-idle-connections:5}") int maxIdleConnections,
+        @Value("${open-api-tool.http.keep-alive:5m}") Duration keepAlive) {
+        return new OkHttpClient.Builder()
+            .connectTimeout(connectTimeout)
+            .readTimeout(readTimeout)
+            .connectionPool(new ConnectionPool(maxIdleConnections, keepAlive.toMillis(), TimeUnit.MILLISECONDS))
+            .build();
+    }
+
+}
@@ -6,4 +6,12 @@ public class ContentType {
 
     public static final String XLSX = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
 
+    public static final String ZIP = "application/zip";
+
+    public static final String CSV = "text/csv;charset=UTF-8";
+
+    public static final String MARKDOWN = "text/markdown;charset=UTF-8";
+
+    public static final String HTML = "text/html;charset=UTF-8";
+
 }
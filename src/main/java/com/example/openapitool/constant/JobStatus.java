@@ -0,0 +1,5 @@
+package com.example.openapitool.constant;
+
+public enum JobStatus {
+    QUEUED, RUNNING, SUCCEEDED, FAILED
+}
@@ -0,0 +1,17 @@
+package com.example.openapitool.constant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// XLSX 使用模板輸出，其他格式直接由 SheetParameter 輸出文字，不經過 workbook
+@Getter
+@AllArgsConstructor
+public enum OutputFormat {
+    XLSX(ContentType.XLSX, ".xlsx"),
+    CSV(ContentType.CSV, ".csv"),
+    MARKDOWN(ContentType.MARKDOWN, ".md"),
+    HTML(ContentType.HTML, ".html");
+
+    private final String contentType;
+    private final String extension;
+}
@@ -0,0 +1,5 @@
+package com.example.openapitool.constant;
+
+public enum ParserEngine {
+    JSON_PATH, STREAMING
+}
@@ -0,0 +1,9 @@
+package com.example.openapitool.constant;
+
+public enum RenderEngine {
+    // 依 API 數量自動選擇
+    AUTO,
+    JXLS,
+    // SXSSF 逐列輸出，記憶體用量固定
+    STREAMING
+}
@@ -1,5 +1,14 @@
 package com.example.openapitool.constant;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 內建模板，其他模板可放在 open-api-tool.template.dir 目錄
+@Getter
+@AllArgsConstructor
 public enum TemplateType {
-    DEFAULT, SIMPLE
+    DEFAULT("templates/api-spec-template.xlsx"),
+    SIMPLE("templates/api-spec-template-simple.xlsx");
+
+    private final String path;
 }
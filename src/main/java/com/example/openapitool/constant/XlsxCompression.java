@@ -0,0 +1,18 @@
+package com.example.openapitool.constant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.zip.Deflater;
+
+// xlsx (zip) 的壓縮等級，STORE 不壓縮 (仍為 deflate 格式)，以檔案大小換取輸出速度
+@Getter
+@AllArgsConstructor
+public enum XlsxCompression {
+    STORE(Deflater.NO_COMPRESSION),
+    FAST(Deflater.BEST_SPEED),
+    DEFAULT(Deflater.DEFAULT_COMPRESSION),
+    MAX(Deflater.BEST_COMPRESSION);
+
+    private final int level;
+}
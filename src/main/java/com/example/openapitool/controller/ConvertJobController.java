@@ -0,0 +1,94 @@
+package com.example.openapitool.controller;
+
+import com.example.openapitool.constant.OutputFormat;
+import com.example.openapitool.constant.RenderEngine;
+import com.example.openapitool.constant.XlsxCompression;
+import com.example.openapitool.model.ConvertJobStatus;
+import com.example.openapitool.model.ConvertOption;
+import com.example.openapitool.model.RefOpenApiDTO;
+import com.example.openapitool.model.SpecContent;
+import com.example.openapitool.service.ConvertJobService;
+import com.example.openapitool.service.SheetService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.servlet.http.HttpServletResponse;
+
+@RequiredArgsConstructor
+@Tag(name = "open api job")
+@RestController
+@RequestMapping("api/open-api/excel/jobs")
+public class ConvertJobController {
+
+    private final SheetService sheetService;
+    private final ConvertJobService convertJobService;
+
+    @SneakyThrows
+    @Operation(summary = "Submit Convert Job (file)")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @PostMapping(value = "file", name = "submit convert open api file job", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ConvertJobStatus submitJob(
+        @Parameter(description = "Template Type (default: DEFAULT, see /templates)")
+        @RequestParam(required = false) String templateType,
+        @Parameter(description = "Render Engine (default: AUTO)")
+        @RequestParam(required = false) RenderEngine renderEngine,
+        @Parameter(description = "Output Format (default: XLSX)")
+        @RequestParam(required = false) OutputFormat outputFormat,
+        @Parameter(description = "Xlsx Compression (default: DEFAULT)")
+        @RequestParam(required = false) XlsxCompression compression,
+        @Parameter(description = "Open Api Spec (support: json, yml)")
+        @RequestPart MultipartFile openApi) {
+        SpecContent spec;
+        try (var inputStream = openApi.getInputStream()) {
+            spec = sheetService.readSpec(inputStream);
+        }
+        var option = ConvertOption.of(templateType, renderEngine, outputFormat, compression, "job-file");
+        return convertJobService.submit(option, spec);
+    }
+
+    @Operation(summary = "Submit Convert Job (url)")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @PostMapping(value = "url", name = "submit convert open api url job")
+    public ConvertJobStatus submitJob(
+        @Parameter(description = "Template Type (default: DEFAULT, see /templates)")
+        @RequestParam(required = false) String templateType,
+        @Parameter(description = "Render Engine (default: AUTO)")
+        @RequestParam(required = false) RenderEngine renderEngine,
+        @Parameter(description = "Output Format (default: XLSX)")
+        @RequestParam(required = false) OutputFormat outputFormat,
+        @Parameter(description = "Xlsx Compression (default: DEFAULT)")
+        @RequestParam(required = false) XlsxCompression compression,
+        @Parameter(description = "Open Api Spec (support: json, yml)")
+        @RequestBody RefOpenApiDTO refOpenApiDTO) {
+        var option = ConvertOption.of(templateType, renderEngine, outputFormat, compression, "job-url");
+        return convertJobService.submit(option, refOpenApiDTO.getUrl());
+    }
+
+    @Operation(summary = "Get Convert Job Status")
+    @GetMapping(value = "{jobId}", name = "get convert job status")
+    public ConvertJobStatus getJobStatus(@PathVariable String jobId) {
+        return convertJobService.getStatus(jobId);
+    }
+
+    @SneakyThrows
+    @Operation(summary = "Download Convert Job Result")
+    @GetMapping(value = "{jobId}/result", name = "download convert job result")
+    public void getJobResult(@PathVariable String jobId, HttpServletResponse response) {
+        // 下載結束前結果不會被清理
+        try (var result = convertJobService.openResult(jobId)) {
+            var outputFormat = result.getOutputFormat();
+            response.setContentType(outputFormat.getContentType());
+            response.setHeader("Content-Disposition", "attachment;filename=export" + outputFormat.getExtension());
+            response.setContentLengthLong(result.getSize());
+            result.getInputStream().transferTo(response.getOutputStream());
+        }
+    }
+
+}
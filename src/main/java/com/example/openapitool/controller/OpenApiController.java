@@ -1,20 +1,35 @@
 package com.example.openapitool.controller;
 
 import com.example.openapitool.constant.ContentType;
-import com.example.openapitool.constant.TemplateType;
+import com.example.openapitool.constant.OutputFormat;
+import com.example.openapitool.constant.RenderEngine;
+import com.example.openapitool.constant.XlsxCompression;
+import com.example.openapitool.model.ConvertOption;
 import com.example.openapitool.model.RefOpenApiDTO;
+import com.example.openapitool.model.SpecContent;
+import com.example.openapitool.model.SpecDiff;
+import com.example.openapitool.service.BatchConvertService;
+import com.example.openapitool.service.ConversionAdmission;
+import com.example.openapitool.service.ConversionCache;
+import com.example.openapitool.service.OpenApiFetchService;
+import com.example.openapitool.service.PreparedSpec;
 import com.example.openapitool.service.SheetService;
-import com.example.openapitool.util.OkHttpUtils;
+import com.example.openapitool.service.SpecDiffService;
+import com.example.openapitool.service.render.TemplateRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 @RequiredArgsConstructor
 @Tag(name = "open api")
@@ -23,34 +38,158 @@ import javax.servlet.http.HttpServletResponse;
 public class OpenApiController {
 
     private final SheetService sheetService;
+    private final TemplateRegistry templateRegistry;
+    private final OpenApiFetchService openApiFetchService;
+    private final ConversionCache conversionCache;
+    private final BatchConvertService batchConvertService;
+    private final ConversionAdmission conversionAdmission;
+    private final SpecDiffService specDiffService;
 
     @SneakyThrows
     @Operation(summary = "Convert Open Api To Excel (file)")
     @PostMapping(value = "file" ,name = "convert open api file to excel", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public void convertOpenApiToExcel(
-        @Parameter(description = "Template Type")
-        @RequestParam(required = false) TemplateType templateType,
+        @Parameter(description = "Template Type (default: DEFAULT, see /templates)")
+        @RequestParam(required = false) String templateType,
+        @Parameter(description = "Render Engine (default: AUTO)")
+        @RequestParam(required = false) RenderEngine renderEngine,
+        @Parameter(description = "Output Format (default: XLSX)")
+        @RequestParam(required = false) OutputFormat outputFormat,
+        @Parameter(description = "Xlsx Compression (default: DEFAULT)")
+        @RequestParam(required = false) XlsxCompression compression,
         @Parameter(description = "Open Api Spec (support: json, yml)")
         @RequestPart MultipartFile openApi,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
         HttpServletResponse response) {
-        response.setContentType(ContentType.XLSX);
-        response.setHeader("Content-Disposition", "attachment;filename=export.xlsx");
-        sheetService.convertOpenApiToSheet(templateType, openApi.getBytes(), response.getOutputStream());
+        SpecContent spec;
+        try (var inputStream = openApi.getInputStream()) {
+            spec = sheetService.readSpec(inputStream);
+        }
+        var option = ConvertOption.of(templateType, renderEngine, outputFormat, compression, "file");
+        writeExcel(spec, option, ifNoneMatch, response);
     }
 
     @SneakyThrows
     @Operation(summary = "Convert Open Api To Excel (url)")
     @PostMapping(value = "url" ,name = "convert open api url to excel")
     public void convertOpenApiToExcel(
-        @Parameter(description = "Template Type")
-        @RequestParam(required = false) TemplateType templateType,
+        @Parameter(description = "Template Type (default: DEFAULT, see /templates)")
+        @RequestParam(required = false) String templateType,
+        @Parameter(description = "Render Engine (default: AUTO)")
+        @RequestParam(required = false) RenderEngine renderEngine,
+        @Parameter(description = "Output Format (default: XLSX)")
+        @RequestParam(required = false) OutputFormat outputFormat,
+        @Parameter(description = "Xlsx Compression (default: DEFAULT)")
+        @RequestParam(required = false) XlsxCompression compression,
         @Parameter(description = "Open Api Spec (support: json, yml)")
         @RequestBody RefOpenApiDTO refOpenApiDTO,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
         HttpServletResponse response) {
-        var content = OkHttpUtils.getRequest(refOpenApiDTO.getUrl());
-        response.setContentType(ContentType.XLSX);
-        response.setHeader("Content-Disposition", "attachment;filename=export.xlsx");
-        sheetService.convertOpenApiToSheet(templateType, content, response.getOutputStream());
+        var spec = openApiFetchService.fetch(refOpenApiDTO.getUrl());
+        var option = ConvertOption.of(templateType, renderEngine, outputFormat, compression, "url");
+        writeExcel(spec, option, ifNoneMatch, response);
     }
 
-}
\ No newline at end of file
+    @SneakyThrows
+    @Operation(summary = "Convert Open Api To Excel (batch)")
+    @PostMapping(value = "batch", name = "convert open api files to excel zip", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public void convertOpenApisToExcel(
+        @Parameter(description = "Template Type (default: DEFAULT, see /templates)")
+        @RequestParam(required = false) String templateType,
+        @Parameter(description = "Render Engine (default: AUTO)")
+        @RequestParam(required = false) RenderEngine renderEngine,
+        @Parameter(description = "Output Format (default: XLSX)")
+        @RequestParam(required = false) OutputFormat outputFormat,
+        @Parameter(description = "Xlsx Compression (default: DEFAULT)")
+        @RequestParam(required = false) XlsxCompression compression,
+        @Parameter(description = "Open Api Specs (support: json, yml, zip of json / yml)")
+        @RequestPart List<MultipartFile> openApis,
+        HttpServletResponse response) {
+        var option = ConvertOption.of(templateType, renderEngine, outputFormat, compression, "batch");
+        var files = new ArrayList<BatchConvertService.BatchFile>();
+        for (int i = 0; i < openApis.size(); i++) {
+            var openApi = openApis.get(i);
+            var name = openApi.getOriginalFilename() == null ? "open-api-%d".formatted(i + 1) : openApi.getOriginalFilename();
+            files.add(new BatchConvertService.BatchFile(name, openApi));
+        }
+        batchConvertService.validate(option, files);
+        response.setContentType(ContentType.ZIP);
+        response.setHeader("Content-Disposition", "attachment;filename=export.zip");
+        batchConvertService.convertToZip(option, files, response.getOutputStream());
+    }
+
+    @SneakyThrows
+    @Operation(summary = "Diff Open Api Operations")
+    @PostMapping(value = "diff", name = "diff open api operations", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public SpecDiff diffOpenApis(
+        @Parameter(description = "Base Open Api Spec (support: json, yml)")
+        @RequestPart MultipartFile base,
+        @Parameter(description = "Target Open Api Spec (support: json, yml)")
+        @RequestPart MultipartFile target) {
+        SpecContent baseSpec;
+        try (var inputStream = base.getInputStream()) {
+            baseSpec = sheetService.readSpec(inputStream);
+        }
+        SpecContent targetSpec;
+        try (var inputStream = target.getInputStream()) {
+            targetSpec = sheetService.readSpec(inputStream);
+        }
+        return specDiffService.diff(baseSpec, targetSpec);
+    }
+
+    @Operation(summary = "List Available Templates")
+    @GetMapping(value = "templates", name = "list available templates")
+    public List<String> getTemplateNames() {
+        return templateRegistry.getTemplateNames();
+    }
+
+    @Operation(summary = "Conversion Cache Statistics")
+    @GetMapping(value = "cache/stats", name = "conversion cache statistics")
+    public ConversionCache.CacheStats getCacheStats() {
+        return conversionCache.getStats();
+    }
+
+    @Operation(summary = "Conversion Admission Statistics")
+    @GetMapping(value = "admission/stats", name = "conversion admission statistics")
+    public ConversionAdmission.AdmissionStats getAdmissionStats() {
+        return conversionAdmission.getStats();
+    }
+
+    private void writeExcel(
+        SpecContent spec,
+        ConvertOption option,
+        String ifNoneMatch,
+        HttpServletResponse response) throws IOException {
+        // ETag 與轉換共用解析結果，外部 $ref 只讀取一次
+        var prepared = new PreparedSpec(spec);
+        var etag = "\"%s\"".formatted(sheetService.getCacheKey(prepared, option));
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (isNotModified(ifNoneMatch, etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        var outputFormat = option.getOutputFormat();
+        response.setContentType(outputFormat.getContentType());
+        response.setHeader("Content-Disposition", "attachment;filename=export" + outputFormat.getExtension());
+        sheetService.convertOpenApiToSheet(option, prepared, response.getOutputStream());
+    }
+
+    // If-None-Match 使用弱比對，可能是以逗號分隔的多個 ETag
+    // 轉換為 POST，If-None-Match: * 表示「沒有目前的結果時才執行」，不視為相符 (RFC 9110 13.1.2)
+    private boolean isNotModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            var value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (etag.equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.example.openapitool.controller;
+
+import com.example.openapitool.constant.OutputFormat;
+import com.example.openapitool.exception.NotFoundException;
+import com.example.openapitool.service.SpecWatchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+
+@RequiredArgsConstructor
+@Tag(name = "open api watch")
+@RestController
+@RequestMapping("api/open-api/excel/watch")
+public class SpecWatchController {
+
+    private final SpecWatchService specWatchService;
+
+    @Operation(summary = "List Rendered Specs")
+    @GetMapping(name = "list rendered specs")
+    public Map<String, Set<String>> getRenderedSpecs() {
+        return specWatchService.getRenderedSpecs();
+    }
+
+    // 以 FileSystemResource 輸出，由 Spring 依 Last-Modified 處理 If-Modified-Since (304) 與 Range
+    @Operation(summary = "Download Rendered Spec")
+    @GetMapping(value = "{name}", name = "download rendered spec")
+    public ResponseEntity<Resource> getRenderedSpec(
+        @Parameter(description = "Spec File Name (extension can be omitted)")
+        @PathVariable String name,
+        @Parameter(description = "Template Type (default: first of open-api-tool.watch.templates)")
+        @RequestParam(required = false) String templateType) {
+        var file = specWatchService.getRenderedFile(name, templateType);
+        var resource = new FileSystemResource(file);
+        return ResponseEntity.ok()
+            .lastModified(lastModified(resource))
+            .contentType(MediaType.parseMediaType(OutputFormat.XLSX.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(file.getFileName().toString(), StandardCharsets.UTF_8)
+                .build()
+                .toString())
+            .body(resource);
+    }
+
+    // 取得檔案後被刪除 (spec 已移除) 時視為找不到
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            throw new NotFoundException("Rendered spec not found: %s".formatted(resource.getFilename()));
+        }
+    }
+
+}
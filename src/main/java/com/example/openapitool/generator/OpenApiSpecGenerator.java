@@ -0,0 +1,399 @@
+package com.example.openapitool.generator;
+
+import com.example.openapitool.constant.SpecFormat;
+import com.example.openapitool.model.SpecGeneratorOption;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+// 依 seed 產生內容固定的 open api 3.0 文件，用於測試、benchmark 與在本機重現大型文件的問題
+// 指令列: --operations=1000 --format=yaml --seed=1 --output=spec.yaml (未指定 output 時輸出至 stdout)
+public class OpenApiSpecGenerator {
+
+    private static final String SCHEMA_REF_PREFIX = "#/components/schemas/";
+    private static final String EDGE_CASE_SCHEMA = "EdgeCases";
+    private static final String[] HTTP_METHODS = {"get", "post", "put", "delete"};
+    private static final ObjectWriter jsonWriter = new ObjectMapper()
+        .writerWithDefaultPrettyPrinter()
+        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    private static final ObjectWriter yamlWriter = new YAMLMapper()
+        .writer()
+        .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final SpecGeneratorOption option;
+    private Random random;
+    private final List<List<String>> schemaLayers = new ArrayList<>();
+    private final List<String> enumNames = new ArrayList<>();
+    private final List<String> cycleNames = new ArrayList<>();
+
+    public OpenApiSpecGenerator(SpecGeneratorOption option) {
+        this.option = option;
+    }
+
+    public static String generate(SpecGeneratorOption option, SpecFormat format) {
+        var outputStream = new ByteArrayOutputStream();
+        try {
+            new OpenApiSpecGenerator(option).write(outputStream, format);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    public void write(OutputStream outputStream, SpecFormat format) throws IOException {
+        var writer = format == SpecFormat.YAML ? yamlWriter : jsonWriter;
+        writer.writeValue(outputStream, generate());
+    }
+
+    // 每次呼叫都從 seed 重新開始，相同的 option 產生相同的內容
+    public Map<String, Object> generate() {
+        random = new Random(option.getSeed());
+        schemaLayers.clear();
+        enumNames.clear();
+        cycleNames.clear();
+
+        var schemas = new LinkedHashMap<String, Object>();
+        createEnums(schemas);
+        createSchemas(schemas);
+        createCycles(schemas);
+        if (option.isEdgeCases()) {
+            createEdgeCaseSchemas(schemas);
+        }
+
+        var root = new LinkedHashMap<String, Object>();
+        root.put("openapi", "3.0.1");
+        root.put("info", map(
+            "title", "Generated API",
+            "description", "Generated with seed %d".formatted(option.getSeed()),
+            "version", "1.0.0"));
+        root.put("paths", createPaths());
+        root.put("components", map("schemas", schemas));
+        return root;
+    }
+
+    private void createEnums(Map<String, Object> schemas) {
+        for (int i = 0; i < option.getEnums(); i++) {
+            var name = "Enum%d".formatted(i);
+            var integer = i % 4 == 3;
+            var values = new ArrayList<>();
+            var valueCount = 2 + random.nextInt(4);
+            for (int v = 0; v < valueCount; v++) {
+                values.add(integer ? v : "%s_%d".formatted(name.toUpperCase(), v));
+            }
+            schemas.put(name, map("type", integer ? "integer" : "string", "enum", values));
+            enumNames.add(name);
+        }
+    }
+
+    private void createSchemas(Map<String, Object> schemas) {
+        var depth = Math.max(1, option.getDepth());
+        var count = Math.max(depth, option.getSchemas());
+        for (int layer = 0; layer < depth; layer++) {
+            var layerSize = count / depth + (layer < count % depth ? 1 : 0);
+            var names = new ArrayList<String>();
+            for (int i = 0; i < layerSize; i++) {
+                names.add("Schema%d_%d".formatted(layer, i));
+            }
+            schemaLayers.add(names);
+        }
+        for (int layer = 0; layer < depth; layer++) {
+            var nextLayer = layer + 1 < depth ? schemaLayers.get(layer + 1) : null;
+            var names = schemaLayers.get(layer);
+            for (int i = 0; i < names.size(); i++) {
+                // 第一層的前 directCycles 個 schema 參照自己
+                var selfReference = layer == 0 && i < option.getDirectCycles();
+                schemas.put(names.get(i), createObjectSchema(names.get(i), nextLayer, selfReference));
+            }
+        }
+    }
+
+    private void createCycles(Map<String, Object> schemas) {
+        for (int i = 0; i < option.getIndirectCycles(); i++) {
+            var first = "CycleA%d".formatted(i);
+            var second = "CycleB%d".formatted(i);
+            schemas.put(first, map("type", "object", "properties", map(
+                "id", map("type", "string"),
+                "next", ref(second))));
+            schemas.put(second, map("type", "object", "properties", map(
+                "id", map("type", "integer", "format", "int64"),
+                "previous", ref(first),
+                "siblings", arrayOf(ref(first)))));
+            cycleNames.add(first);
+        }
+    }
+
+    // 涵蓋 OpenApiSpecService 解析時的特殊分支
+    private void createEdgeCaseSchemas(Map<String, Object> schemas) {
+        schemas.put("StringAlias", map("type", "string", "description", "schema without properties"));
+        var properties = new LinkedHashMap<String, Object>();
+        properties.put("choice", map("oneOf", List.of(map("type", "string"), map("type", "integer"))));
+        properties.put("unresolved", ref("Missing"));
+        properties.put("alias", ref("StringAlias"));
+        properties.put("empty", map("type", "object"));
+        properties.put("self", ref(EDGE_CASE_SCHEMA));
+        properties.put("selfList", arrayOf(ref(EDGE_CASE_SCHEMA)));
+        properties.put("code", map("type", "string", "format", "byte", "example", "c2FtcGxl"));
+        schemas.put(EDGE_CASE_SCHEMA, map(
+            "type", "object",
+            "required", List.of("choice", "code"),
+            "properties", properties));
+    }
+
+    private Map<String, Object> createObjectSchema(String name, List<String> nextLayer, boolean selfReference) {
+        var properties = new LinkedHashMap<String, Object>();
+        var required = new ArrayList<String>();
+        for (int i = 0; i < option.getProperties(); i++) {
+            var fieldName = "field%d".formatted(i);
+            properties.put(fieldName, createProperty(i));
+            if (random.nextInt(3) == 0) {
+                required.add(fieldName);
+            }
+        }
+        if (nextLayer != null) {
+            properties.put("detail", ref(pick(nextLayer)));
+            for (int i = 0; i < option.getFanOut(); i++) {
+                properties.put("list%d".formatted(i), arrayOf(ref(pick(nextLayer))));
+            }
+        }
+        if (selfReference) {
+            properties.put("parent", ref(name));
+            properties.put("children", arrayOf(ref(name)));
+        }
+
+        var schema = map("type", "object", "description", "%s description".formatted(name));
+        if (!required.isEmpty()) {
+            schema.put("required", required);
+        }
+        schema.put("properties", properties);
+        return schema;
+    }
+
+    private Map<String, Object> createProperty(int index) {
+        var property = switch (index % 10) {
+            case 0 -> map("type", "string");
+            case 1 -> map("type", "integer", "format", random.nextBoolean() ? "int32" : "int64");
+            case 2 -> map("type", "number");
+            case 3 -> map("type", "boolean");
+            case 4 -> map("type", "string", "format", random.nextBoolean() ? "date" : "date-time");
+            case 5 -> map("type", "string", "enum", List.of("A", "B", "C"));
+            case 6 -> enumNames.isEmpty() ? map("type", "string") : ref(pick(enumNames));
+            case 7 -> arrayOf(map("type", "string"));
+            case 8 -> enumNames.isEmpty() ? arrayOf(map("type", "integer")) : arrayOf(ref(pick(enumNames)));
+            default -> option.getInlineDepth() > 0
+                ? createInlineObject(option.getInlineDepth())
+                : map("type", "string");
+        };
+        if (!property.containsKey("$ref")) {
+            if (random.nextBoolean()) {
+                property.put("description", "description of field%d".formatted(index));
+            }
+            if (index % 10 == 0 && random.nextDouble() < option.getExampleRatio()) {
+                property.put("example", "example%d".formatted(index));
+            }
+        }
+        return property;
+    }
+
+    private Map<String, Object> createInlineObject(int depth) {
+        var properties = new LinkedHashMap<String, Object>();
+        properties.put("code", map("type", "string"));
+        properties.put("value", map("type", "integer", "format", "int32"));
+        if (depth > 1) {
+            properties.put("nested", createInlineObject(depth - 1));
+        }
+        return map("type", "object", "properties", properties);
+    }
+
+    private Map<String, Object> createPaths() {
+        var paths = new LinkedHashMap<String, Map<String, Object>>();
+        for (int i = 0; i < option.getOperations(); i++) {
+            var method = HTTP_METHODS[i % HTTP_METHODS.length];
+            var itemPath = "put".equals(method) || "delete".equals(method);
+            var resource = "/api/v1/resource%d".formatted(i / HTTP_METHODS.length);
+            var path = itemPath ? resource + "/{id}" : resource;
+            var pathItem = paths.computeIfAbsent(path, key -> new LinkedHashMap<>());
+            if (option.isEdgeCases() && itemPath && !pathItem.containsKey("parameters")) {
+                // path 層級的 parameters 不是 API
+                pathItem.put("parameters", List.of(pathParameter()));
+            }
+            pathItem.put(method, createOperation(i, method, itemPath));
+        }
+        return new LinkedHashMap<>(paths);
+    }
+
+    private Map<String, Object> createOperation(int index, String method, boolean itemPath) {
+        var operation = new LinkedHashMap<String, Object>();
+        operation.put("tags", createTags(index));
+        operation.put("summary", "%s operation %d".formatted(method, index));
+        operation.put("operationId", "%sOperation%d".formatted(method, index));
+        if (option.isEdgeCases() && index % 11 == 5) {
+            operation.put("deprecated", true);
+        }
+        var parameters = createParameters(index, method, itemPath);
+        if (!parameters.isEmpty()) {
+            operation.put("parameters", parameters);
+        }
+        if ("post".equals(method) || "put".equals(method)) {
+            operation.put("requestBody", createRequestBody(index));
+        }
+        operation.put("responses", createResponses(index, method));
+        return operation;
+    }
+
+    private List<String> createTags(int index) {
+        var tagCount = Math.max(1, option.getTags());
+        var tags = new ArrayList<String>();
+        tags.add("tag%d".formatted(index % tagCount));
+        if (option.isEdgeCases() && tagCount > 1 && index % 7 == 6) {
+            tags.add("tag%d".formatted((index + 1) % tagCount));
+        }
+        return tags;
+    }
+
+    private List<Object> createParameters(int index, String method, boolean itemPath) {
+        var parameters = new ArrayList<>();
+        if (itemPath) {
+            parameters.add(pathParameter());
+        }
+        parameters.add(map(
+            "name", "X-Request-Id",
+            "in", "header",
+            "description", "request id",
+            "required", false,
+            "schema", map("type", "string", "format", "uuid")));
+        if ("get".equals(method)) {
+            parameters.add(map("name", "page", "in", "query", "schema", map("type", "integer", "format", "int32")));
+            parameters.add(map("name", "sort", "in", "query", "schema", map("type", "string", "enum", List.of("asc", "desc"))));
+            parameters.add(map("name", "ids", "in", "query", "schema", arrayOf(map("type", "integer"))));
+            parameters.add(map("name", "from", "in", "query", "schema", map("type", "string", "format", "date")));
+            if (!enumNames.isEmpty()) {
+                parameters.add(map("name", "status", "in", "query", "schema", ref(pick(enumNames))));
+                parameters.add(map("name", "statuses", "in", "query", "schema", arrayOf(ref(pick(enumNames)))));
+            }
+        }
+        if (option.isEdgeCases() && index % 13 == 0) {
+            // 不支援的參數位置
+            parameters.add(map("name", "session", "in", "cookie", "schema", map("type", "string")));
+        }
+        return parameters;
+    }
+
+    private Map<String, Object> pathParameter() {
+        return map(
+            "name", "id",
+            "in", "path",
+            "required", true,
+            "schema", map("type", "integer", "format", "int64"));
+    }
+
+    private Map<String, Object> createRequestBody(int index) {
+        Map<String, Object> schema;
+        if (option.isEdgeCases() && index % 17 == 9) {
+            // 沒有 $ref 的 inline schema
+            schema = createInlineObject(1);
+        } else {
+            schema = payloadSchema(index);
+        }
+        var mediaType = map("schema", schema);
+        if (random.nextDouble() < option.getExampleRatio()) {
+            mediaType.put("examples", map("example1", map(
+                "summary", "example of operation %d".formatted(index),
+                "value", map("field0", "example%d".formatted(index), "field1", index))));
+        }
+        return map("required", true, "content", map("application/json", mediaType));
+    }
+
+    private Map<String, Object> createResponses(int index, String method) {
+        var responses = new LinkedHashMap<String, Object>();
+        if ("delete".equals(method)) {
+            responses.put("204", map("description", "No Content"));
+        } else {
+            responses.put("200", map(
+                "description", "OK",
+                "content", map("application/json", map("schema", payloadSchema(index)))));
+        }
+        responses.put("404", map("description", "Not Found"));
+        return responses;
+    }
+
+    private Map<String, Object> payloadSchema(int index) {
+        if (option.isEdgeCases() && index % 10 == 9) {
+            return ref(EDGE_CASE_SCHEMA);
+        }
+        if (!cycleNames.isEmpty() && index % 5 == 3) {
+            return ref(cycleNames.get(index % cycleNames.size()));
+        }
+        return ref(pick(schemaLayers.get(0)));
+    }
+
+    private String pick(List<String> names) {
+        return names.get(random.nextInt(names.size()));
+    }
+
+    private static Map<String, Object> ref(String name) {
+        return map("$ref", SCHEMA_REF_PREFIX + name);
+    }
+
+    private static Map<String, Object> arrayOf(Map<String, Object> items) {
+        return map("type", "array", "items", items);
+    }
+
+    private static Map<String, Object> map(Object... keyValues) {
+        var map = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+
+    public static void main(String[] args) throws IOException {
+        var builder = SpecGeneratorOption.builder();
+        var format = SpecFormat.JSON;
+        Path output = null;
+        for (String arg : args) {
+            var pair = arg.replaceFirst("^--", "").split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid argument: " + arg);
+            }
+            var value = pair[1];
+            switch (pair[0]) {
+                case "seed" -> builder.seed(Long.parseLong(value));
+                case "operations" -> builder.operations(Integer.parseInt(value));
+                case "tags" -> builder.tags(Integer.parseInt(value));
+                case "schemas" -> builder.schemas(Integer.parseInt(value));
+                case "enums" -> builder.enums(Integer.parseInt(value));
+                case "depth" -> builder.depth(Integer.parseInt(value));
+                case "properties" -> builder.properties(Integer.parseInt(value));
+                case "fan-out" -> builder.fanOut(Integer.parseInt(value));
+                case "inline-depth" -> builder.inlineDepth(Integer.parseInt(value));
+                case "example-ratio" -> builder.exampleRatio(Double.parseDouble(value));
+                case "direct-cycles" -> builder.directCycles(Integer.parseInt(value));
+                case "indirect-cycles" -> builder.indirectCycles(Integer.parseInt(value));
+                case "edge-cases" -> builder.edgeCases(Boolean.parseBoolean(value));
+                case "format" -> format = SpecFormat.valueOf(value.toUpperCase());
+                case "output" -> output = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + pair[0]);
+            }
+        }
+
+        var generator = new OpenApiSpecGenerator(builder.build());
+        if (output == null) {
+            generator.write(System.out, format);
+            System.out.flush();
+        } else {
+            try (var outputStream = Files.newOutputStream(output)) {
+                generator.write(outputStream, format);
+            }
+        }
+    }
+
+}
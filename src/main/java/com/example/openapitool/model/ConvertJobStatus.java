@@ -0,0 +1,25 @@
+package com.example.openapitool.model;
+
+import com.example.openapitool.constant.JobStatus;
+import com.example.openapitool.constant.OutputFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+public class ConvertJobStatus {
+    String jobId;
+    JobStatus status;
+    OutputFormat outputFormat;
+    String error;
+    Instant createdTime;
+    Instant finishedTime;
+    // 完成後保留結果至此時間
+    Instant expireTime;
+}
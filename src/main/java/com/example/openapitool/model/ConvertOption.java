@@ -0,0 +1,46 @@
+package com.example.openapitool.model;
+
+import com.example.openapitool.constant.OutputFormat;
+import com.example.openapitool.constant.RenderEngine;
+import com.example.openapitool.constant.XlsxCompression;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+public class ConvertOption {
+    String templateType;
+    RenderEngine renderEngine;
+    OutputFormat outputFormat;
+    // 只影響 xlsx，未指定時使用設定的壓縮等級
+    XlsxCompression compression;
+    // 呼叫的 endpoint，作為指標的 tag
+    String endpoint;
+    // 結果另外保存時 (例如監看目錄的輸出檔) 不放入轉換結果快取，避免重複保存
+    boolean cacheDisabled;
+
+    // 各 endpoint 以請求參數建立，未指定的參數使用設定的預設值
+    public static ConvertOption of(
+        String templateType,
+        RenderEngine renderEngine,
+        OutputFormat outputFormat,
+        XlsxCompression compression,
+        String endpoint) {
+        return ConvertOption.builder()
+            .templateType(templateType)
+            .renderEngine(renderEngine)
+            .outputFormat(outputFormat)
+            .compression(compression)
+            .endpoint(endpoint)
+            .build();
+    }
+
+    // 未指定時輸出 excel
+    public OutputFormat getOutputFormat() {
+        return outputFormat == null ? OutputFormat.XLSX : outputFormat;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.openapitool.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// 已讀入的 open api 原始內容，contentHash 為正規化後內容的 SHA-256
+// location 為文件的 url，用於解析相對路徑的外部 $ref，上傳的文件為 null
+@AllArgsConstructor
+@Data
+public class SpecContent {
+    byte[] content;
+    String contentHash;
+    String location;
+
+    public SpecContent(byte[] content, String contentHash) {
+        this(content, contentHash, null);
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.openapitool.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// API 以 "<HTTP METHOD> <path>" 表示
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Data
+public class SpecDiff {
+    List<String> added;
+    List<String> removed;
+    List<String> changed;
+    int unchanged;
+}
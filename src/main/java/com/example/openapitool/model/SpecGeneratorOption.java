@@ -0,0 +1,44 @@
+package com.example.openapitool.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Builder
+@Getter
+public class SpecGeneratorOption {
+    @Builder.Default
+    long seed = 0;
+    @Builder.Default
+    int operations = 100;
+    @Builder.Default
+    int tags = 10;
+    // 物件 schema 數量，平均分配在 depth 層中，每層只參照下一層
+    @Builder.Default
+    int schemas = 30;
+    @Builder.Default
+    int enums = 10;
+    // $ref 巢狀層數
+    @Builder.Default
+    int depth = 3;
+    // 每個 schema 的基本型別欄位數
+    @Builder.Default
+    int properties = 10;
+    // 每個 schema 參照下一層的 array 欄位數
+    @Builder.Default
+    int fanOut = 2;
+    // inline object 的巢狀層數
+    @Builder.Default
+    int inlineDepth = 2;
+    // 帶有 request example 的比例 (0 ~ 1)
+    @Builder.Default
+    double exampleRatio = 0.3;
+    // 參照自己的 schema 數量 (A -> A)
+    @Builder.Default
+    int directCycles = 0;
+    // 互相參照的 schema 組數 (A -> B -> A)
+    @Builder.Default
+    int indirectCycles = 0;
+    // 加入無法解析的 $ref、oneOf、cookie 參數等特殊情境
+    @Builder.Default
+    boolean edgeCases = true;
+}
@@ -3,6 +3,7 @@ package com.example.openapitool.model.open_api;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
@@ -21,4 +22,7 @@ public class Api {
     List<Parameter> requestsQueryParameters;
     List<RequestPayload> requestPayloads;
     List<ResponsePayload> responsePayloads;
+    // 展開 $ref 前的原始內容的 hash，內容未異動的 API 可以沿用轉換結果 (不影響 API 內容的比較)
+    @EqualsAndHashCode.Exclude
+    String fingerprint;
 }
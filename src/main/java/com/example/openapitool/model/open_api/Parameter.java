@@ -12,7 +12,8 @@ import java.util.List;
 @Builder
 @Data
 public class Parameter {
-    String sequence;
+    // payload 欄位的位置，path、header、query 參數為 null
+    ParameterPath path;
     String name;
     String type;
     String description;
@@ -0,0 +1,54 @@
+package com.example.openapitool.model.open_api;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// 欄位在 payload 中的位置，以父節點串接，同一個父欄位下的子欄位共用父節點
+// depth 由 1 開始，顯示用的序號 (例如 2.1) 只在輸出時才產生
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ParameterPath {
+
+    private final ParameterPath parent;
+    // 在父欄位下的序號，由 1 開始
+    private final int index;
+    private final int depth;
+
+    public static ParameterPath root(int index) {
+        return new ParameterPath(null, index, 1);
+    }
+
+    public ParameterPath child(int index) {
+        return new ParameterPath(this, index, depth + 1);
+    }
+
+    // 由根節點到目前節點的序號
+    @JsonValue
+    public int[] getIndexes() {
+        var indexes = new int[depth];
+        var node = this;
+        for (int i = depth - 1; i >= 0; i--) {
+            indexes[i] = node.index;
+            node = node.parent;
+        }
+        return indexes;
+    }
+
+    @Override
+    public String toString() {
+        var indexes = getIndexes();
+        var builder = new StringBuilder(depth * 3);
+        for (int i = 0; i < indexes.length; i++) {
+            if (i > 0) {
+                builder.append('.');
+            }
+            builder.append(indexes[i]);
+        }
+        return builder.toString();
+    }
+
+}
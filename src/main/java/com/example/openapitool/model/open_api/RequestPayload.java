@@ -15,4 +15,6 @@ public class RequestPayload {
     String ref;
     List<Parameter> parameters;
     List<PayloadExample> payloadExamples;
+    // 由 schema 產生的預設範例 (json)，沒有指定範例時使用
+    String defaultExample;
 }
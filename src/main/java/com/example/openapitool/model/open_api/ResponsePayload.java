@@ -17,4 +17,6 @@ public class ResponsePayload {
     String description;
     List<Parameter> parameters;
     String payloadExample;
+    // 由 schema 產生的預設範例 (json)，沒有指定範例時使用
+    String defaultExample;
 }
@@ -1,5 +1,6 @@
 package com.example.openapitool.model.sheet;
 
+import com.example.openapitool.model.open_api.ParameterPath;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -8,10 +9,15 @@ import java.util.List;
 @NoArgsConstructor
 @Data
 public class PayloadParameter {
-    String sequence;
+    ParameterPath path;
     String name;
     String type;
     Integer maxLength;
     String description;
     List<Object> enumValues;
+
+    // 模板與輸出使用的序號 (例如 2.1)，輸出時才由 path 產生
+    public String getSequence() {
+        return path == null ? null : path.toString();
+    }
 }
@@ -0,0 +1,279 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.constant.OutputFormat;
+import com.example.openapitool.exception.BadRequestException;
+import com.example.openapitool.model.ConvertOption;
+import com.example.openapitool.model.SpecContent;
+import com.example.openapitool.service.render.TemplateRegistry;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+// 批次轉換：以固定大小的 thread pool 平行轉換多個 open api (可包含 zip)，每完成一個就寫入回應的 zip，
+// 記憶體中最多只保留 pool-size 個進行中的轉換，個別檔案失敗時記錄在 manifest.json，不影響其他檔案
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class BatchConvertService {
+
+    private static final String MANIFEST_NAME = "manifest.json";
+    private static final Set<String> SPEC_EXTENSIONS = Set.of("json", "yaml", "yml");
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final SheetService sheetService;
+    private final TemplateRegistry templateRegistry;
+    private final ConversionAdmission conversionAdmission;
+
+    @Value("${open-api-tool.batch.pool-size:4}")
+    int poolSize;
+
+    // 一次批次最多轉換的檔案數 (含 zip 內的檔案)
+    @Value("${open-api-tool.batch.max-files:500}")
+    int maxFiles;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        executor = Executors.newFixedThreadPool(poolSize, new CustomizableThreadFactory("batch-convert-"));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    // 在開始輸出前檢查，錯誤時仍可回應 400
+    public void validate(ConvertOption option, List<BatchFile> files) {
+        if (files.isEmpty()) {
+            throw new BadRequestException("No open api file");
+        }
+        if (files.size() > maxFiles) {
+            throw new BadRequestException("Too many files: %s, max: %s".formatted(files.size(), maxFiles));
+        }
+        templateRegistry.get(option.getTemplateType());
+    }
+
+    @SneakyThrows
+    public void convertToZip(ConvertOption option, List<BatchFile> files, OutputStream outputStream) {
+        validate(option, files);
+        var completionService = new ExecutorCompletionService<Conversion>(executor);
+        var futures = new ArrayList<Future<Conversion>>();
+        var manifest = new ArrayList<ManifestEntry>();
+        var entryNames = new HashSet<String>();
+        try (var reader = new SpecReader(files);
+             var zipOutputStream = new ZipOutputStream(outputStream)) {
+            // 同一批次的檔案不互相搶轉換名額，否則名額少時 (例如單核) 等待中的檔案會排隊逾時
+            var parallelism = Math.min(poolSize, conversionAdmission.getConcurrencyLimit());
+            int inFlight = 0;
+            var input = reader.next();
+            while (input != null || inFlight > 0) {
+                // 同時進行的轉換不超過 parallelism，完成一個才讀取下一個檔案
+                while (input != null && inFlight < parallelism) {
+                    if (input.error() != null) {
+                        manifest.add(ManifestEntry.failed(input.name(), input.error(), 0));
+                    } else {
+                        var specInput = input;
+                        futures.add(completionService.submit(() -> convert(option, specInput)));
+                        inFlight++;
+                    }
+                    input = reader.next();
+                }
+                if (inFlight > 0) {
+                    var conversion = completionService.take().get();
+                    inFlight--;
+                    if (conversion.error() != null) {
+                        manifest.add(ManifestEntry.failed(conversion.name(), conversion.error(), conversion.durationMillis()));
+                    } else {
+                        var entryName = writeEntry(zipOutputStream, option.getOutputFormat(), conversion, entryNames);
+                        manifest.add(ManifestEntry.succeeded(conversion.name(), entryName, conversion.durationMillis()));
+                    }
+                }
+            }
+            zipOutputStream.putNextEntry(new ZipEntry(MANIFEST_NAME));
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(zipOutputStream, manifest);
+            zipOutputStream.closeEntry();
+        } finally {
+            // 用戶端中斷連線時，取消尚未完成的轉換
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private Conversion convert(ConvertOption option, SpecInput input) {
+        var start = System.nanoTime();
+        try {
+            var outputStream = new ByteArrayOutputStream();
+            sheetService.convertOpenApiToSheet(option, input.spec(), outputStream);
+            return new Conversion(input.name(), outputStream.toByteArray(), null, elapsedMillis(start));
+        } catch (Exception e) {
+            log.warn("Batch convert failed: {}", input.name(), e);
+            return new Conversion(input.name(), null, getErrorMessage(e), elapsedMillis(start));
+        }
+    }
+
+    private String writeEntry(
+        ZipOutputStream zipOutputStream,
+        OutputFormat outputFormat,
+        Conversion conversion,
+        Set<String> entryNames) throws IOException {
+        var entryName = getEntryName(conversion.name(), outputFormat.getExtension(), entryNames);
+        var content = conversion.content();
+        var entry = new ZipEntry(entryName);
+        // xlsx 本身已經壓縮，以 STORED 寫入避免重複壓縮，文字格式則使用預設的壓縮
+        if (outputFormat == OutputFormat.XLSX) {
+            var crc = new CRC32();
+            crc.update(content);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(content.length);
+            entry.setCompressedSize(content.length);
+            entry.setCrc(crc.getValue());
+        }
+        zipOutputStream.putNextEntry(entry);
+        zipOutputStream.write(content);
+        zipOutputStream.closeEntry();
+        zipOutputStream.flush();
+        return entryName;
+    }
+
+    // 以原檔名作為輸出檔名，重複時加上序號
+    private String getEntryName(String name, String extension, Set<String> entryNames) {
+        var baseName = FilenameUtils.getBaseName(name);
+        var entryName = baseName + extension;
+        for (int i = 2; !entryNames.add(entryName); i++) {
+            entryName = "%s-%d%s".formatted(baseName, i, extension);
+        }
+        return entryName;
+    }
+
+    private static long elapsedMillis(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static String getErrorMessage(Exception e) {
+        return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+    }
+
+    // 依序讀取上傳的檔案，zip 檔會逐一讀取其中的 json / yaml
+    private class SpecReader implements Closeable {
+        private final Iterator<BatchFile> files;
+        private ZipInputStream zipInputStream;
+        private String zipName;
+        private int count;
+
+        SpecReader(List<BatchFile> files) {
+            this.files = files.iterator();
+        }
+
+        // 沒有下一個檔案時回傳 null
+        SpecInput next() throws IOException {
+            while (true) {
+                if (zipInputStream != null) {
+                    var input = nextZipEntry();
+                    if (input != null) {
+                        return input;
+                    }
+                }
+                if (!files.hasNext()) {
+                    return null;
+                }
+                var file = files.next();
+                InputStream inputStream;
+                try {
+                    inputStream = file.source().getInputStream();
+                } catch (IOException e) {
+                    return new SpecInput(file.name(), null, getErrorMessage(e));
+                }
+                if ("zip".equalsIgnoreCase(FilenameUtils.getExtension(file.name()))) {
+                    zipInputStream = new ZipInputStream(inputStream);
+                    zipName = file.name();
+                    continue;
+                }
+                return read(file.name(), inputStream);
+            }
+        }
+
+        private SpecInput nextZipEntry() throws IOException {
+            try {
+                ZipEntry entry;
+                while ((entry = zipInputStream.getNextEntry()) != null) {
+                    if (!entry.isDirectory() && SPEC_EXTENSIONS.contains(FilenameUtils.getExtension(entry.getName()))) {
+                        // readSpec 會關閉 stream，zip 需保持開啟以讀取下一個 entry
+                        return read(zipName + "/" + entry.getName(), CloseShieldInputStream.wrap(zipInputStream));
+                    }
+                }
+                closeZip();
+                return null;
+            } catch (ZipException e) {
+                var input = new SpecInput(zipName, null, getErrorMessage(e));
+                closeZip();
+                return input;
+            }
+        }
+
+        private SpecInput read(String name, InputStream inputStream) {
+            if (++count > maxFiles) {
+                return new SpecInput(name, null, "Too many files, max: %s".formatted(maxFiles));
+            }
+            try {
+                // readSpec 讀完後會關閉 inputStream
+                return new SpecInput(name, sheetService.readSpec(inputStream), null);
+            } catch (Exception e) {
+                return new SpecInput(name, null, getErrorMessage(e));
+            }
+        }
+
+        private void closeZip() throws IOException {
+            zipInputStream.close();
+            zipInputStream = null;
+            zipName = null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (zipInputStream != null) {
+                closeZip();
+            }
+        }
+    }
+
+    public record BatchFile(String name, InputStreamSource source) {
+    }
+
+    public record ManifestEntry(String file, String output, String status, String error, long durationMillis) {
+
+        static ManifestEntry succeeded(String file, String output, long durationMillis) {
+            return new ManifestEntry(file, output, "SUCCESS", null, durationMillis);
+        }
+
+        static ManifestEntry failed(String file, String error, long durationMillis) {
+            return new ManifestEntry(file, null, "FAILED", error, durationMillis);
+        }
+    }
+
+    private record SpecInput(String name, SpecContent spec, String error) {
+    }
+
+    private record Conversion(String name, byte[] content, String error, long durationMillis) {
+    }
+
+}
@@ -0,0 +1,93 @@
+package com.example.openapitool.service;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 以 JSON Pointer (#/components/...) 為 key 的 components 索引，每份文件只建立一次，$ref 解析只需一次 hash 查詢
+// 外部文件以 <uri>#<pointer> 為 key，與 ExternalRefResolver 改寫後的 $ref 相同
+@SuppressWarnings("unchecked")
+class ComponentIndex {
+
+    private static final String COMPONENTS_POINTER = "#/components";
+
+    private final Map<String, Map<String, ?>> nodes = new HashMap<>();
+    // 以 URI 為 key 的外部文件索引，外部文件的索引隨文件快取，不在每次轉換時重新建立
+    private Map<String, ComponentIndex> externalIndexes = Map.of();
+
+    private ComponentIndex() {
+    }
+
+    static ComponentIndex of(Map<String, ?> components) {
+        var index = new ComponentIndex();
+        if (components != null) {
+            index.put(COMPONENTS_POINTER, components);
+        }
+        return index;
+    }
+
+    static ComponentIndex of(Map<String, ?> components, Map<String, ComponentIndex> externalIndexes) {
+        var index = of(components);
+        index.externalIndexes = externalIndexes;
+        return index;
+    }
+
+    // 外部文件的索引，key 為 <uri>#<pointer>
+    static ComponentIndex ofDocument(String uri, Map<String, ?> document) {
+        var index = new ComponentIndex();
+        index.put(uri + "#", document);
+        return index;
+    }
+
+    Map<String, ?> get(String ref) {
+        if (ref == null) {
+            return null;
+        }
+        var node = find(ref);
+        if (node == null && ref.indexOf('%') >= 0) {
+            // URI fragment 可能經過 percent-encoding，格式錯誤的 encoding 視為找不到
+            try {
+                node = find(URLDecoder.decode(ref, StandardCharsets.UTF_8));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    private Map<String, ?> find(String ref) {
+        var hashIndex = ref.indexOf('#');
+        if (hashIndex <= 0) {
+            return nodes.get(ref);
+        }
+        var external = externalIndexes.get(ref.substring(0, hashIndex));
+        return external == null ? null : external.nodes.get(ref);
+    }
+
+    private void put(String pointer, Map<String, ?> node) {
+        nodes.put(pointer, node);
+        node.forEach((key, value) -> {
+            var childPointer = pointer + "/" + escape(key);
+            if (value instanceof Map<?, ?> map) {
+                put(childPointer, (Map<String, ?>) map);
+            } else if (value instanceof List<?> list) {
+                for (int i = 0; i < list.size(); i++) {
+                    if (list.get(i) instanceof Map<?, ?> map) {
+                        put(childPointer + "/" + i, (Map<String, ?>) map);
+                    }
+                }
+            }
+        });
+    }
+
+    // RFC 6901: key 中的 "~" 與 "/" 在 pointer 內分別寫作 "~0"、"~1"，索引以跳脫後的形式儲存，查詢時可直接比對 $ref 原文
+    private static String escape(String token) {
+        if (token.indexOf('~') < 0 && token.indexOf('/') < 0) {
+            return token;
+        }
+        return token.replace("~", "~0").replace("/", "~1");
+    }
+
+}
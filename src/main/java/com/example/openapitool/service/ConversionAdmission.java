@@ -0,0 +1,225 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.exception.ServiceUnavailableException;
+import com.example.openapitool.model.SpecContent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// 轉換前依檔案大小與 API 數量估算所需的 heap，在記憶體預算與同時轉換數量內才放行，否則排隊等待，逾時回應 503
+// 預算足夠的小檔案不需要等待前面的大檔案；排在最前面的轉換等待超過 reserve-after 後保留它需要的預算與名額，
+// 之後只有扣除保留的部分仍足夠的轉換可以先放行，等待中的大檔案不會一直被插隊
+@Slf4j
+@Component
+public class ConversionAdmission {
+
+    // 每個 API 都有 responses，以出現次數估算 API 數量，不需要先解析
+    private static final byte[] OPERATION_MARKER = "responses".getBytes(StandardCharsets.US_ASCII);
+
+    @Value("${open-api-tool.admission.enabled:true}")
+    boolean enabled;
+
+    // 同時轉換可使用的記憶體預算，0 表示使用最大 heap 的一半
+    @Value("${open-api-tool.admission.memory-budget:0}")
+    DataSize memoryBudget;
+
+    // 同時轉換的數量上限，0 表示使用 CPU 核心數
+    @Value("${open-api-tool.admission.max-concurrent:0}")
+    int maxConcurrent;
+
+    @Value("${open-api-tool.admission.queue-timeout:5s}")
+    Duration queueTimeout;
+
+    // 排在最前面的轉換等待超過此時間後保留預算
+    @Value("${open-api-tool.admission.reserve-after:1s}")
+    Duration reserveAfter;
+
+    // 解析後的文件樹約為原始檔案大小的倍數
+    @Value("${open-api-tool.admission.bytes-per-input-byte:20}")
+    int bytesPerInputByte;
+
+    // 每個 API 展開後的參數與輸出列
+    @Value("${open-api-tool.admission.bytes-per-operation:64KB}")
+    DataSize bytesPerOperation;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private long budgetBytes;
+    private int concurrencyLimit;
+    private long inFlightBytes;
+    private int running;
+    // 依到達順序排列的等待中轉換
+    private final Deque<Waiter> queue = new ArrayDeque<>();
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        budgetBytes = memoryBudget.toBytes() > 0 ? memoryBudget.toBytes() : Runtime.getRuntime().maxMemory() / 2;
+        concurrencyLimit = maxConcurrent > 0 ? maxConcurrent : Runtime.getRuntime().availableProcessors();
+    }
+
+    public Permit acquire(SpecContent spec) {
+        if (!enabled) {
+            return new Permit(0);
+        }
+        // 超過整個預算的檔案仍可在沒有其他轉換時單獨執行
+        var cost = Math.min(estimate(spec.getContent()), budgetBytes);
+        lock.lock();
+        try {
+            if (!canAdmit(cost, null)) {
+                await(cost);
+            }
+            inFlightBytes += cost;
+            running++;
+            admitted.incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+        return new Permit(cost);
+    }
+
+    // 呼叫時已持有 lock
+    private void await(long cost) {
+        var waiter = new Waiter(cost, System.nanoTime());
+        queue.addLast(waiter);
+        var remaining = queueTimeout.toNanos();
+        try {
+            while (!canAdmit(cost, waiter)) {
+                if (remaining <= 0) {
+                    rejected.incrementAndGet();
+                    throw new ServiceUnavailableException(
+                        "Server is busy, estimated memory: %s bytes, in flight: %s / %s bytes, queue: %s"
+                            .formatted(cost, inFlightBytes, budgetBytes, queue.size()));
+                }
+                // 最前面的轉換開始保留預算時需要重新檢查，不能只等待其他轉換結束
+                var head = queue.peekFirst();
+                var untilReserved = head == waiter ? remaining : head.since() + reserveAfter.toNanos() - System.nanoTime();
+                var timeout = untilReserved > 0 ? Math.min(remaining, untilReserved) : remaining;
+                var start = System.nanoTime();
+                released.awaitNanos(timeout);
+                remaining -= System.nanoTime() - start;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for admission", e);
+        } finally {
+            queue.remove(waiter);
+            // 最前面的轉換改變，其他等待中的轉換重新檢查
+            released.signalAll();
+        }
+    }
+
+    // 同時轉換的數量上限，未啟用時不限制
+    public int getConcurrencyLimit() {
+        return enabled ? concurrencyLimit : Integer.MAX_VALUE;
+    }
+
+    public AdmissionStats getStats() {
+        lock.lock();
+        try {
+            return new AdmissionStats(
+                budgetBytes,
+                inFlightBytes,
+                concurrencyLimit,
+                running,
+                queue.size(),
+                admitted.get(),
+                rejected.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long estimate(byte[] content) {
+        return (long) content.length * bytesPerInputByte + countOperations(content) * bytesPerOperation.toBytes();
+    }
+
+    // waiter 為等待中的轉換本身，新到的轉換為 null
+    private boolean canAdmit(long cost, Waiter waiter) {
+        var head = queue.peekFirst();
+        var reserved = head != null && head != waiter
+            && System.nanoTime() - head.since() >= reserveAfter.toNanos();
+        if (reserved) {
+            // 保留一個名額與最前面轉換的預算，沒有其他轉換時只有它可以執行
+            return running + 1 < concurrencyLimit && running > 0
+                && inFlightBytes + head.cost() + cost <= budgetBytes;
+        }
+        if (running >= concurrencyLimit) {
+            return false;
+        }
+        return running == 0 || inFlightBytes + cost <= budgetBytes;
+    }
+
+    private void release(long cost) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            inFlightBytes -= cost;
+            running--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long countOperations(byte[] content) {
+        long count = 0;
+        outer:
+        for (int i = 0; i <= content.length - OPERATION_MARKER.length; i++) {
+            for (int j = 0; j < OPERATION_MARKER.length; j++) {
+                if (content[i + j] != OPERATION_MARKER[j]) {
+                    continue outer;
+                }
+            }
+            count++;
+            i += OPERATION_MARKER.length - 1;
+        }
+        return count;
+    }
+
+    // 以 try-with-resources 使用，轉換結束後歸還預算
+    public class Permit implements AutoCloseable {
+        private final long cost;
+        private boolean closed;
+
+        private Permit(long cost) {
+            this.cost = cost;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release(cost);
+            }
+        }
+    }
+
+    private record Waiter(long cost, long since) {
+    }
+
+    public record AdmissionStats(
+        long budgetBytes,
+        long inFlightBytes,
+        int maxConcurrent,
+        int running,
+        int queueDepth,
+        long admitted,
+        long rejected) {
+    }
+
+}
@@ -0,0 +1,312 @@
+package com.example.openapitool.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 轉換結果快取：記憶體 LRU (以總 byte 數為上限) + 可選的磁碟快取 (重啟後仍可使用)，key 為內容與輸出選項的 hash
+@Slf4j
+@Component
+public class ConversionCache {
+
+    private static final String FILE_EXTENSION = ".cache";
+
+    @Value("${open-api-tool.cache.enabled:true}")
+    boolean enabled;
+
+    @Value("${open-api-tool.cache.memory-max-size:256MB}")
+    DataSize memoryMaxSize;
+
+    // 超過此大小的結果不快取
+    @Value("${open-api-tool.cache.entry-max-size:32MB}")
+    DataSize entryMaxSize;
+
+    // 未設定時不使用磁碟快取
+    @Value("${open-api-tool.cache.dir:}")
+    String cacheDir;
+
+    @Value("${open-api-tool.cache.disk-max-size:2GB}")
+    DataSize diskMaxSize;
+
+    private final LinkedHashMap<String, byte[]> memoryCache = new LinkedHashMap<>(16, 0.75f, true);
+    private long memorySize;
+    private Path diskCacheDir;
+    // 磁碟快取的檔案大小 (依存取順序)，啟動時列出一次目錄，之後寫入與淘汰時增減，不需要每次寫入都列出目錄
+    private final LinkedHashMap<String, Long> diskCache = new LinkedHashMap<>(16, 0.75f, true);
+    private long diskSize;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (enabled && StringUtils.hasText(cacheDir)) {
+            diskCacheDir = Files.createDirectories(Path.of(cacheDir));
+            loadDiskCache();
+        }
+    }
+
+    public byte[] get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        var value = getFromMemory(key);
+        if (value != null) {
+            memoryHits.incrementAndGet();
+            return value;
+        }
+        value = getFromDisk(key);
+        if (value != null) {
+            diskHits.incrementAndGet();
+            putToMemory(key, value);
+            return value;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    // 寫入 outputStream 的同時保留一份內容，完成後以 put 放入快取
+    public EntryOutputStream newEntryStream(OutputStream outputStream) {
+        return new EntryOutputStream(outputStream, enabled ? entryMaxSize.toBytes() : 0);
+    }
+
+    public void put(String key, EntryOutputStream entryOutputStream) {
+        var value = entryOutputStream.toByteArray();
+        if (value == null) {
+            return;
+        }
+        putToMemory(key, value);
+        putToDisk(key, value);
+    }
+
+    public CacheStats getStats() {
+        synchronized (memoryCache) {
+            return new CacheStats(
+                memoryHits.get(),
+                diskHits.get(),
+                misses.get(),
+                evictions.get(),
+                memoryCache.size(),
+                memorySize,
+                getDiskEntries(),
+                getDiskSize());
+        }
+    }
+
+    private byte[] getFromMemory(String key) {
+        synchronized (memoryCache) {
+            return memoryCache.get(key);
+        }
+    }
+
+    private void putToMemory(String key, byte[] value) {
+        var maxSize = memoryMaxSize.toBytes();
+        if (value.length > maxSize) {
+            return;
+        }
+        synchronized (memoryCache) {
+            var previous = memoryCache.put(key, value);
+            if (previous != null) {
+                memorySize -= previous.length;
+            }
+            memorySize += value.length;
+            var iterator = memoryCache.entrySet().iterator();
+            while (memorySize > maxSize && iterator.hasNext()) {
+                var eldest = iterator.next();
+                memorySize -= eldest.getValue().length;
+                iterator.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    // 以修改時間 (每次讀取時更新) 還原重啟前的 LRU 順序
+    private void loadDiskCache() throws IOException {
+        List<Path> files;
+        try (var stream = Files.list(diskCacheDir)) {
+            files = stream.filter(file -> file.getFileName().toString().endsWith(FILE_EXTENSION))
+                .sorted(Comparator.comparingLong(this::lastModified))
+                .toList();
+        }
+        synchronized (diskCache) {
+            for (Path file : files) {
+                var fileName = file.getFileName().toString();
+                var size = Files.size(file);
+                diskCache.put(fileName.substring(0, fileName.length() - FILE_EXTENSION.length()), size);
+                diskSize += size;
+            }
+        }
+        evictDiskCache();
+    }
+
+    private byte[] getFromDisk(String key) {
+        if (diskCacheDir == null) {
+            return null;
+        }
+        synchronized (diskCache) {
+            // 同時更新存取順序
+            if (diskCache.get(key) == null) {
+                return null;
+            }
+        }
+        var file = getDiskFile(key);
+        try {
+            var value = Files.readAllBytes(file);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return value;
+        } catch (NoSuchFileException e) {
+            // 檔案被外部刪除
+            removeDiskEntry(key);
+            return null;
+        } catch (IOException e) {
+            log.warn("Cannot read cache file: {}", file, e);
+            return null;
+        }
+    }
+
+    private void putToDisk(String key, byte[] value) {
+        if (diskCacheDir == null) {
+            return;
+        }
+        try {
+            var tmpFile = Files.createTempFile(diskCacheDir, key, ".tmp");
+            Files.write(tmpFile, value);
+            Files.move(tmpFile, getDiskFile(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (diskCache) {
+                var previous = diskCache.put(key, (long) value.length);
+                if (previous != null) {
+                    diskSize -= previous;
+                }
+                diskSize += value.length;
+            }
+            evictDiskCache();
+        } catch (IOException e) {
+            log.warn("Cannot write cache file: {}", key, e);
+        }
+    }
+
+    private void evictDiskCache() throws IOException {
+        var maxSize = diskMaxSize.toBytes();
+        synchronized (diskCache) {
+            var iterator = diskCache.entrySet().iterator();
+            while (diskSize > maxSize && iterator.hasNext()) {
+                var eldest = iterator.next();
+                diskSize -= eldest.getValue();
+                iterator.remove();
+                Files.deleteIfExists(getDiskFile(eldest.getKey()));
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private void removeDiskEntry(String key) {
+        synchronized (diskCache) {
+            var size = diskCache.remove(key);
+            if (size != null) {
+                diskSize -= size;
+            }
+        }
+    }
+
+    private long getDiskEntries() {
+        synchronized (diskCache) {
+            return diskCache.size();
+        }
+    }
+
+    private long getDiskSize() {
+        synchronized (diskCache) {
+            return diskSize;
+        }
+    }
+
+    private Path getDiskFile(String key) {
+        return diskCacheDir.resolve(key + FILE_EXTENSION);
+    }
+
+    private long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    public record CacheStats(
+        long memoryHits,
+        long diskHits,
+        long misses,
+        long evictions,
+        long memoryEntries,
+        long memorySize,
+        long diskEntries,
+        long diskSize) {
+    }
+
+    // 轉送寫入的內容，並在不超過 maxSize 時保留一份
+    public static class EntryOutputStream extends OutputStream {
+        private final OutputStream outputStream;
+        private final long maxSize;
+        private ByteArrayOutputStream buffer;
+
+        EntryOutputStream(OutputStream outputStream, long maxSize) {
+            this.outputStream = outputStream;
+            this.maxSize = maxSize;
+            this.buffer = maxSize > 0 ? new ByteArrayOutputStream() : null;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            outputStream.write(b);
+            if (buffer != null) {
+                buffer.write(b);
+                checkSize();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            outputStream.write(b, off, len);
+            if (buffer != null) {
+                buffer.write(b, off, len);
+                checkSize();
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            outputStream.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            outputStream.close();
+        }
+
+        byte[] toByteArray() {
+            return buffer == null ? null : buffer.toByteArray();
+        }
+
+        private void checkSize() {
+            if (buffer.size() > maxSize) {
+                buffer = null;
+            }
+        }
+    }
+
+}
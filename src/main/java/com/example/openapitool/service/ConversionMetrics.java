@@ -0,0 +1,99 @@
+package com.example.openapitool.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// 轉換流程各階段的耗時與資料量，以 template 與 endpoint 為 tag，透過 actuator 的 /actuator/prometheus 輸出
+@RequiredArgsConstructor
+@Component
+public class ConversionMetrics {
+
+    static final String STAGE_TIMER = "openapitool.conversion.stage";
+    static final String INPUT_SIZE = "openapitool.conversion.input";
+    static final String OPERATIONS = "openapitool.conversion.operations";
+    static final String RESOLVED_REFS = "openapitool.conversion.refs.resolved";
+    static final String ROWS = "openapitool.conversion.rows";
+    static final String OUTPUT_SIZE = "openapitool.conversion.output";
+
+    // 未指定 endpoint 的呼叫 (例如 benchmark、測試)
+    private static final String INTERNAL_ENDPOINT = "internal";
+
+    private final MeterRegistry meterRegistry;
+
+    public Recorder start(String templateName, String endpoint) {
+        return new Recorder(meterRegistry, Tags.of(
+            "template", templateName,
+            "endpoint", endpoint == null ? INTERNAL_ENDPOINT : endpoint));
+    }
+
+    // 一次轉換使用一個，NOOP 不記錄任何指標
+    public static class Recorder {
+
+        public static final Recorder NOOP = new Recorder(null, Tags.empty());
+
+        private final MeterRegistry meterRegistry;
+        private final Tags tags;
+
+        private Recorder(MeterRegistry meterRegistry, Tags tags) {
+            this.meterRegistry = meterRegistry;
+            this.tags = tags;
+        }
+
+        // startNanos 為 System.nanoTime() 取得的開始時間
+        public void recordStage(String stage, long startNanos) {
+            recordStageNanos(stage, System.nanoTime() - startNanos);
+        }
+
+        public void recordStageNanos(String stage, long nanos) {
+            if (meterRegistry == null) {
+                return;
+            }
+            Timer.builder(STAGE_TIMER)
+                .description("Time spent in each conversion stage")
+                .tags(tags)
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        public void recordInputBytes(long bytes) {
+            record(INPUT_SIZE, "bytes", bytes);
+        }
+
+        public void recordOperations(long count) {
+            record(OPERATIONS, "operations", count);
+        }
+
+        public void recordResolvedRefs(long count) {
+            record(RESOLVED_REFS, "refs", count);
+        }
+
+        public void recordRows(long count) {
+            record(ROWS, "rows", count);
+        }
+
+        public void recordOutputBytes(long bytes) {
+            record(OUTPUT_SIZE, "bytes", bytes);
+        }
+
+        private void record(String name, String baseUnit, long amount) {
+            if (meterRegistry == null) {
+                return;
+            }
+            DistributionSummary.builder(name)
+                .baseUnit(baseUnit)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(amount);
+        }
+    }
+
+}
@@ -0,0 +1,284 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.constant.JobStatus;
+import com.example.openapitool.constant.OutputFormat;
+import com.example.openapitool.exception.ConflictException;
+import com.example.openapitool.exception.NotFoundException;
+import com.example.openapitool.exception.TooManyRequestsException;
+import com.example.openapitool.model.ConvertJobStatus;
+import com.example.openapitool.model.ConvertOption;
+import com.example.openapitool.model.SpecContent;
+import com.example.openapitool.service.render.TemplateRegistry;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// 非同步轉換：以獨立的 thread pool 與有界佇列執行，佇列滿或排隊中的上傳內容超過 max-queued-size 時回應 429，
+// 轉換結果寫入暫存目錄，完成後保留 ttl 後刪除 (下載中的結果等下載結束後才刪除)
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class ConvertJobService {
+
+    private final SheetService sheetService;
+    private final OpenApiFetchService openApiFetchService;
+    private final TemplateRegistry templateRegistry;
+
+    @Value("${open-api-tool.job.pool-size:2}")
+    int poolSize;
+
+    // 等待執行的工作數上限，超過時回應 429
+    @Value("${open-api-tool.job.queue-capacity:20}")
+    int queueCapacity;
+
+    // 完成後結果保留的時間
+    @Value("${open-api-tool.job.ttl:10m}")
+    Duration ttl;
+
+    // 排隊中的工作保留上傳的內容 (url 在執行時才下載)，限制其總大小，開始執行後由 ConversionAdmission 控管
+    @Value("${open-api-tool.job.max-queued-size:100MB}")
+    DataSize maxQueuedSize;
+
+    @Value("${open-api-tool.job.retry-after:10s}")
+    Duration retryAfter;
+
+    // 未設定時使用系統暫存目錄
+    @Value("${open-api-tool.job.dir:}")
+    String jobDir;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final AtomicLong queuedBytes = new AtomicLong();
+    private Path resultDir;
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService cleaner;
+
+    @PostConstruct
+    public void init() throws IOException {
+        resultDir = StringUtils.hasText(jobDir)
+            ? Files.createDirectories(Path.of(jobDir))
+            : Files.createTempDirectory("open-api-tool-jobs");
+        executor = new ThreadPoolExecutor(
+            poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("convert-job-"));
+        cleaner = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("convert-job-cleaner-"));
+        var interval = Math.max(1, ttl.toSeconds() / 2);
+        cleaner.scheduleWithFixedDelay(this::removeExpiredJobs, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        cleaner.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    public ConvertJobStatus submit(ConvertOption option, SpecContent spec) {
+        templateRegistry.get(option.getTemplateType());
+        return submit(option, spec.getContent().length, () -> spec);
+    }
+
+    // url 在工作執行時才下載，避免佔用請求的 thread
+    public ConvertJobStatus submit(ConvertOption option, String url) {
+        templateRegistry.get(option.getTemplateType());
+        return submit(option, 0, () -> openApiFetchService.fetch(url));
+    }
+
+    public ConvertJobStatus getStatus(String jobId) {
+        return getJob(jobId).toStatus();
+    }
+
+    // 只有成功的工作可以下載結果，下載期間 (關閉前) 結果不會被刪除
+    public JobResult openResult(String jobId) throws IOException {
+        var job = getJob(jobId);
+        synchronized (job) {
+            // 取得工作後可能剛好過期並被刪除
+            if (job.deleted) {
+                throw new NotFoundException("Job not found: %s".formatted(jobId));
+            }
+            if (job.status != JobStatus.SUCCEEDED) {
+                throw new ConflictException("Job is not succeeded: %s, status: %s".formatted(jobId, job.status));
+            }
+            var result = new JobResult(job.outputFormat, Files.size(job.result), Files.newInputStream(job.result), job);
+            job.downloads++;
+            return result;
+        }
+    }
+
+    private ConvertJobStatus submit(ConvertOption option, long size, Supplier<SpecContent> specSupplier) {
+        // 超過上限的檔案仍可在沒有其他排隊內容時送出
+        var queued = queuedBytes.addAndGet(size);
+        if (size > 0 && queued > maxQueuedSize.toBytes() && queued > size) {
+            queuedBytes.addAndGet(-size);
+            throw new TooManyRequestsException(
+                "Too many queued bytes, max queued size: %s".formatted(maxQueuedSize), retryAfter);
+        }
+        var job = new Job(UUID.randomUUID().toString(), option.getOutputFormat());
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> {
+                queuedBytes.addAndGet(-size);
+                run(job, option, specSupplier);
+            });
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            queuedBytes.addAndGet(-size);
+            throw new TooManyRequestsException("Too many jobs, queue capacity: %s".formatted(queueCapacity), retryAfter);
+        }
+        return job.toStatus();
+    }
+
+    long getQueuedBytes() {
+        return queuedBytes.get();
+    }
+
+    private void run(Job job, ConvertOption option, Supplier<SpecContent> specSupplier) {
+        job.status = JobStatus.RUNNING;
+        var result = resultDir.resolve(job.id + job.outputFormat.getExtension());
+        var tempFile = resultDir.resolve(job.id + job.outputFormat.getExtension() + ".tmp");
+        try {
+            try (var outputStream = Files.newOutputStream(tempFile)) {
+                sheetService.convertOpenApiToSheet(option, specSupplier.get(), outputStream);
+            }
+            Files.move(tempFile, result, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.result = result;
+            job.finish(JobStatus.SUCCEEDED, null);
+        } catch (Exception e) {
+            log.warn("Convert job failed: {}", job.id, e);
+            deleteQuietly(tempFile);
+            job.finish(JobStatus.FAILED, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+        }
+    }
+
+    private Job getJob(String jobId) {
+        var job = jobs.get(jobId);
+        if (job == null || job.isExpired(Instant.now())) {
+            throw new NotFoundException("Job not found: %s".formatted(jobId));
+        }
+        return job;
+    }
+
+    // 下載中的結果留到下次清理
+    void removeExpiredJobs() {
+        var now = Instant.now();
+        jobs.values().removeIf(job -> {
+            if (!job.isExpired(now)) {
+                return false;
+            }
+            synchronized (job) {
+                if (job.downloads > 0) {
+                    return false;
+                }
+                job.deleted = true;
+            }
+            if (job.result != null) {
+                deleteQuietly(job.result);
+            }
+            return true;
+        });
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Cannot delete job file: {}", path, e);
+        }
+    }
+
+    private class Job {
+        private final String id;
+        private final OutputFormat outputFormat;
+        private final Instant createdTime = Instant.now();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile String error;
+        private volatile Path result;
+        private volatile Instant finishedTime;
+        // 以 Job 本身同步
+        private int downloads;
+        private boolean deleted;
+
+        Job(String id, OutputFormat outputFormat) {
+            this.id = id;
+            this.outputFormat = outputFormat;
+        }
+
+        void finish(JobStatus status, String error) {
+            this.error = error;
+            this.finishedTime = Instant.now();
+            this.status = status;
+        }
+
+        boolean isExpired(Instant now) {
+            var finished = finishedTime;
+            return finished != null && now.isAfter(finished.plus(ttl));
+        }
+
+        ConvertJobStatus toStatus() {
+            var finished = finishedTime;
+            return ConvertJobStatus.builder()
+                .jobId(id)
+                .status(status)
+                .outputFormat(outputFormat)
+                .error(error)
+                .createdTime(createdTime)
+                .finishedTime(finished)
+                .expireTime(finished == null ? null : finished.plus(ttl))
+                .build();
+        }
+    }
+
+    // 以 try-with-resources 使用，關閉後結果才能被清理
+    public static class JobResult implements Closeable {
+        @Getter
+        private final OutputFormat outputFormat;
+        @Getter
+        private final long size;
+        @Getter
+        private final InputStream inputStream;
+        private final Job job;
+        private boolean closed;
+
+        private JobResult(OutputFormat outputFormat, long size, InputStream inputStream, Job job) {
+            this.outputFormat = outputFormat;
+            this.size = size;
+            this.inputStream = inputStream;
+            this.job = job;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                inputStream.close();
+            } finally {
+                synchronized (job) {
+                    if (!closed) {
+                        closed = true;
+                        job.downloads--;
+                    }
+                }
+            }
+        }
+    }
+
+}
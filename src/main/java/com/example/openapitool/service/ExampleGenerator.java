@@ -0,0 +1,213 @@
+package com.example.openapitool.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.SneakyThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// 每份文件建立一個，直接由 schema 產生 payload 的預設範例，每個 $ref 的範例與 json 只產生一次並快取
+// 以祖先 ref 判斷循環參照 (以 {} 表示)，並限制範例的層數與欄位數，陣列只取 arrayItems 個樣本
+@SuppressWarnings("unchecked")
+class ExampleGenerator {
+
+    private static final int NO_CUT = Integer.MAX_VALUE;
+    private static final ObjectWriter writer = new ObjectMapper().writerWithDefaultPrettyPrinter();
+
+    private final ComponentIndex componentIndex;
+    private final int maxDepth;
+    private final int maxProperties;
+    private final int arrayItems;
+    // 與所在位置無關的範例 (不在循環參照上，也沒有被截斷)
+    private final Map<String, Example> examples = new ConcurrentHashMap<>();
+    private final Map<String, String> jsons = new ConcurrentHashMap<>();
+    // 沒有範例的 ref，避免重複產生
+    private final Map<String, Boolean> emptyRefs = new ConcurrentHashMap<>();
+    private final LongAdder elapsedNanos = new LongAdder();
+
+    // maxDepth, maxProperties 為 0 表示不限制
+    ExampleGenerator(ComponentIndex componentIndex, int maxDepth, int maxProperties, int arrayItems) {
+        this.componentIndex = componentIndex;
+        this.maxDepth = maxDepth > 0 ? maxDepth : Integer.MAX_VALUE;
+        this.maxProperties = maxProperties > 0 ? maxProperties : Integer.MAX_VALUE;
+        this.arrayItems = Math.max(1, arrayItems);
+    }
+
+    // 沒有欄位的 schema 回傳 null
+    String getExample(String ref) {
+        if (ref == null || emptyRefs.containsKey(ref)) {
+            return null;
+        }
+        var json = jsons.get(ref);
+        if (json != null) {
+            return json;
+        }
+        var start = System.nanoTime();
+        try {
+            var value = refValue(ref, new ArrayList<>(), 0, new Budget(maxProperties)).value();
+            if (value == null || value instanceof Map<?, ?> map && map.isEmpty()) {
+                emptyRefs.put(ref, Boolean.TRUE);
+                return null;
+            }
+            json = toJson(value);
+            var previous = jsons.putIfAbsent(ref, json);
+            return previous == null ? json : previous;
+        } finally {
+            elapsedNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    // 所有 thread 產生範例的累計時間
+    long getElapsedNanos() {
+        return elapsedNanos.sum();
+    }
+
+    // level 為 schema 所在欄位的層數，物件的欄位位於 level + 1
+    private Example valueOf(Map<String, ?> schema, List<String> ancestors, int level, Budget budget) {
+        var ref = (String) schema.get("$ref");
+        if (ref != null) {
+            return refValue(ref, ancestors, level, budget);
+        }
+        var enumValues = (List<Object>) schema.get("enum");
+        if (enumValues != null && !enumValues.isEmpty()) {
+            return Example.of(enumValues.get(0));
+        }
+        var type = (String) schema.get("type");
+        if ("array".equals(type)) {
+            var items = (Map<String, ?>) schema.get("items");
+            return items == null ? Example.of(List.of()) : sample(valueOf(items, ancestors, level, budget), budget);
+        }
+        var properties = (Map<String, Map<String, ?>>) schema.get("properties");
+        if (properties != null && !properties.isEmpty()) {
+            if (level >= maxDepth) {
+                return new Example(new LinkedHashMap<>(), 0, 0, NO_CUT, true);
+            }
+            return objectValue(properties, ancestors, level, budget);
+        }
+        if (type == null) {
+            // oneOf 等組合先以空物件表示
+            var composed = schema.containsKey("oneOf") || schema.containsKey("anyOf") || schema.containsKey("allOf");
+            return Example.of(composed ? new LinkedHashMap<>() : null);
+        }
+        return Example.of(scalarValue(type, (String) schema.get("format")));
+    }
+
+    private Example refValue(String ref, List<String> ancestors, int level, Budget budget) {
+        var ancestorIndex = ancestors.lastIndexOf(ref);
+        if (ancestorIndex >= 0) {
+            // 直接參照自己 (A -> A) 的結果與所在位置無關，不影響快取
+            var cutIndex = ancestorIndex < ancestors.size() - 1 ? ancestorIndex : NO_CUT;
+            return new Example(new LinkedHashMap<>(), 0, 0, cutIndex, false);
+        }
+        var cached = examples.get(ref);
+        if (cached != null && level + cached.height() <= maxDepth && cached.size() <= budget.remaining) {
+            budget.remaining -= cached.size();
+            return cached;
+        }
+        var schema = componentIndex.get(ref);
+        if (schema == null) {
+            return Example.of(new LinkedHashMap<>());
+        }
+        var position = ancestors.size();
+        ancestors.add(ref);
+        Example example;
+        try {
+            example = valueOf(schema, ancestors, level, budget);
+        } finally {
+            ancestors.remove(position);
+        }
+        // 截斷到祖先 (不含自己) 的循環參照，或受到層數、欄位數限制時，結果與所在位置有關
+        if (example.cutIndex() > position && !example.limited()) {
+            example = new Example(example.value(), example.height(), example.size(), NO_CUT, false);
+            examples.putIfAbsent(ref, example);
+        }
+        return example;
+    }
+
+    private Example objectValue(
+        Map<String, Map<String, ?>> properties,
+        List<String> ancestors,
+        int level,
+        Budget budget) {
+        var value = new LinkedHashMap<String, Object>();
+        int height = 0;
+        int size = 0;
+        int cutIndex = NO_CUT;
+        boolean limited = false;
+        for (Map.Entry<String, Map<String, ?>> entry : properties.entrySet()) {
+            if (budget.remaining <= 0) {
+                limited = true;
+                break;
+            }
+            budget.remaining--;
+            var child = entry.getValue() == null
+                ? Example.of(null)
+                : valueOf(entry.getValue(), ancestors, level + 1, budget);
+            value.put(entry.getKey(), child.value());
+            height = Math.max(height, child.height());
+            size += 1 + child.size();
+            cutIndex = Math.min(cutIndex, child.cutIndex());
+            limited |= child.limited();
+        }
+        return new Example(value, height + 1, size, cutIndex, limited);
+    }
+
+    // 陣列重複同一個樣本，欄位數不足時減少樣本數
+    private Example sample(Example item, Budget budget) {
+        int copies = 1;
+        while (copies < arrayItems && item.size() <= budget.remaining) {
+            budget.remaining -= item.size();
+            copies++;
+        }
+        return new Example(
+            Collections.nCopies(copies, item.value()),
+            item.height(),
+            item.size() * copies,
+            item.cutIndex(),
+            item.limited() || copies < arrayItems);
+    }
+
+    // 目前只列出有用到的類型，其他類型以 null 表示
+    private static Object scalarValue(String type, String format) {
+        return switch (type) {
+            case "string" -> {
+                if ("date".equals(format)) {
+                    yield "2023-12-31";
+                }
+                yield "date-time".equals(format) ? "2023-12-31T00:00:00.000Z" : "string";
+            }
+            case "number" -> 1;
+            case "integer" -> 0;
+            case "boolean" -> true;
+            case "object" -> new LinkedHashMap<String, Object>();
+            default -> null;
+        };
+    }
+
+    @SneakyThrows
+    private static String toJson(Object value) {
+        return writer.writeValueAsString(value);
+    }
+
+    private static class Budget {
+        private int remaining;
+
+        Budget(int remaining) {
+            this.remaining = remaining;
+        }
+    }
+
+    // height 為物件的欄位層數，size 為欄位數，cutIndex 為循環參照截斷處的祖先位置，limited 表示受到層數或欄位數限制
+    private record Example(Object value, int height, int size, int cutIndex, boolean limited) {
+        static Example of(Object value) {
+            return new Example(value, 0, 0, NO_CUT, false);
+        }
+    }
+
+}
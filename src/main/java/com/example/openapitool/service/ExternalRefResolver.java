@@ -0,0 +1,333 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.exception.BadRequestException;
+import com.example.openapitool.exception.InternalServerErrorException;
+import com.example.openapitool.util.HashUtils;
+import com.example.openapitool.util.SizeLimitInputStream;
+import com.example.openapitool.util.SpecParserUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+// 解析指向外部文件的 $ref (相對路徑、url、common.yaml#/components/...)，由根文件找出所有參照的外部文件，
+// 以固定大小的 thread pool 平行讀取 (同時讀取的數量有上限)，每份文件只解析一次，並依 URI 快取 ttl
+// 外部文件中的 $ref 改寫為 <uri>#<pointer> 的完整形式，根文件中的外部 $ref 同樣改寫，ComponentIndex 以相同的 key 建立索引
+// 以完整路徑參照根文件自己的 $ref 以根文件的 URI 建立索引，不會重新讀取根文件
+@Slf4j
+@SuppressWarnings("unchecked")
+@RequiredArgsConstructor
+@Service
+public class ExternalRefResolver {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final byte[] REF = "$ref".getBytes(StandardCharsets.US_ASCII);
+
+    private final OpenApiFetchService openApiFetchService;
+
+    @Value("${open-api-tool.ref.enabled:true}")
+    boolean enabled;
+
+    // 同時讀取的外部文件數上限
+    @Value("${open-api-tool.ref.max-in-flight:8}")
+    int maxInFlight;
+
+    // 一份文件 (含間接參照) 最多參照的外部文件數
+    @Value("${open-api-tool.ref.max-documents:100}")
+    int maxDocuments;
+
+    @Value("${open-api-tool.ref.cache-ttl:5m}")
+    Duration cacheTtl;
+
+    // 等待所有外部文件讀取完成的時間上限
+    @Value("${open-api-tool.ref.timeout:30s}")
+    Duration timeout;
+
+    // 可以讀取的遠端 host (例如 api.example.com, *.example.com)，url 取得的文件另外可以參照同一個 host
+    @Value("${open-api-tool.ref.allowed-hosts:}")
+    List<String> allowedHosts;
+
+    // 上傳的文件以此目錄解析相對路徑，本機檔案只能讀取此目錄下的檔案，未設定時不讀取本機檔案
+    @Value("${open-api-tool.ref.base-dir:}")
+    String baseDir;
+
+    @Value("${open-api-tool.input.max-size:50MB}")
+    DataSize maxInputSize;
+
+    private final Map<URI, CachedDocument> cache = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private Path basePath;
+
+    @PostConstruct
+    public void init() throws IOException {
+        executor = Executors.newFixedThreadPool(maxInFlight, new CustomizableThreadFactory("external-ref-"));
+        basePath = StringUtils.hasText(baseDir) ? Path.of(baseDir).toRealPath() : null;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    // 沒有外部 $ref 的文件 (大部分的上傳) 不需要解析就能確定沒有外部文件
+    public boolean mayHaveExternalRef(byte[] content) {
+        return enabled && hasNonLocalRef(content);
+    }
+
+    // 改寫根文件中的外部 $ref，回傳以 URI 為 key 的外部文件 (含間接參照)，location 為根文件的位置 (上傳的文件為 null)
+    ExternalRefs resolve(Map<String, ?> root, String location) {
+        if (!enabled || root == null) {
+            return ExternalRefs.EMPTY;
+        }
+        var baseUri = getBaseUri(location);
+        var references = RefRewriter.rewriteDocument(root, baseUri, true);
+        if (references.isEmpty()) {
+            return ExternalRefs.EMPTY;
+        }
+        removeExpiredDocuments();
+        var documents = new ConcurrentHashMap<URI, ExternalDocument>();
+        var visited = ConcurrentHashMap.<URI>newKeySet();
+        // 根文件已解析，參照根文件的 $ref 不需要讀取
+        if (baseUri != null) {
+            visited.add(baseUri);
+        }
+        var loads = new ConcurrentLinkedQueue<CompletableFuture<ExternalDocument>>();
+        var futures = new ArrayList<CompletableFuture<Void>>();
+        // url 取得的文件可以參照同一個 host 的文件
+        var locationHost = location != null && isRemote(baseUri) ? baseUri.getHost() : null;
+        for (URI reference : references) {
+            if (visited.add(reference)) {
+                futures.add(visit(reference, locationHost, visited, documents, loads));
+            }
+        }
+        await(CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)), loads);
+
+        // 依 URI 排序計算 hash，與讀取完成的順序無關
+        var result = new LinkedHashMap<String, ComponentIndex>();
+        var hashes = new ArrayList<String>();
+        new TreeMap<>(documents).forEach((uri, document) -> {
+            result.put(uri.toString(), document.index());
+            hashes.add(uri.toString());
+            hashes.add(document.contentHash());
+        });
+        var selfReferenced = references.contains(baseUri)
+            || documents.values().stream().anyMatch(document -> document.references().contains(baseUri));
+        if (selfReferenced) {
+            // 根文件的內容已包含在快取 key 中，不另外計算 hash
+            result.put(baseUri.toString(), ComponentIndex.ofDocument(baseUri.toString(), root));
+        }
+        if (result.isEmpty()) {
+            return ExternalRefs.EMPTY;
+        }
+        return new ExternalRefs(result, HashUtils.sha256(hashes.toArray(String[]::new)));
+    }
+
+    // 文件讀取完成後再平行讀取它參照的文件，不需要等待同一層的其他文件
+    private CompletableFuture<Void> visit(
+        URI uri,
+        String locationHost,
+        Set<URI> visited,
+        Map<URI, ExternalDocument> documents,
+        Queue<CompletableFuture<ExternalDocument>> loads) {
+        if (visited.size() > maxDocuments) {
+            return CompletableFuture.failedFuture(
+                new BadRequestException("Too many external documents, max: %s".formatted(maxDocuments)));
+        }
+        if (isRemote(uri) && !isAllowedHost(uri.getHost(), locationHost)) {
+            return CompletableFuture.failedFuture(new BadRequestException(
+                "External ref host is not allowed: %s (see open-api-tool.ref.allowed-hosts)".formatted(uri)));
+        }
+        var load = load(uri);
+        loads.add(load);
+        return load.thenCompose(document -> {
+            documents.put(uri, document);
+            var children = new ArrayList<CompletableFuture<Void>>();
+            for (URI reference : document.references()) {
+                if (visited.add(reference)) {
+                    children.add(visit(reference, locationHost, visited, documents, loads));
+                }
+            }
+            return CompletableFuture.allOf(children.toArray(CompletableFuture[]::new));
+        });
+    }
+
+    // 同一個 URI 同時只會讀取一次，讀取失敗的結果不快取
+    private CompletableFuture<ExternalDocument> load(URI uri) {
+        var now = Instant.now();
+        var cached = cache.compute(uri, (key, existing) -> existing != null && !existing.isExpired(now)
+            ? existing
+            : new CachedDocument(submit(key), now.plus(cacheTtl)));
+        cached.document().whenComplete((document, e) -> {
+            if (e != null) {
+                cache.remove(uri, cached);
+            }
+        });
+        return cached.document();
+    }
+
+    // 每份文件各自有讀取時間上限，逾時或取消時中斷讀取中的 thread，不會一直佔用 pool
+    private CompletableFuture<ExternalDocument> submit(URI uri) {
+        var future = new CompletableFuture<ExternalDocument>();
+        var task = executor.submit(() -> {
+            try {
+                future.complete(read(uri));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).whenComplete((document, e) -> {
+            if (e != null) {
+                task.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    @SneakyThrows
+    private ExternalDocument read(URI uri) {
+        var start = System.nanoTime();
+        var content = switch (uri.getScheme()) {
+            case "http", "https" -> openApiFetchService.fetch(uri.toString()).getContent();
+            case "file" -> readFile(uri);
+            default -> throw new BadRequestException("Unsupported external ref: %s".formatted(uri));
+        };
+        try (var parser = SpecParserUtils.createParser(new ByteArrayInputStream(content))) {
+            var root = (Map<String, ?>) objectMapper.readValue(parser, Map.class);
+            var references = RefRewriter.rewriteDocument(root, uri, false);
+            // 索引與文件一起快取，每次轉換不需要重新建立
+            var index = ComponentIndex.ofDocument(uri.toString(), root);
+            log.debug("Read external document: {}, {} ms", uri, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return new ExternalDocument(index, references, HashUtils.sha256Normalized(content));
+        }
+    }
+
+    private byte[] readFile(URI uri) throws IOException {
+        if (basePath == null) {
+            throw new BadRequestException("Local file ref is not allowed: %s".formatted(uri));
+        }
+        Path path;
+        try {
+            path = Path.of(uri).toRealPath();
+        } catch (IOException e) {
+            throw new BadRequestException("Cannot read external ref: %s".formatted(uri), e);
+        }
+        // 不允許以 ../ 或 symbolic link 讀取目錄外的檔案
+        if (!path.startsWith(basePath)) {
+            throw new BadRequestException("External ref is outside the base dir: %s".formatted(uri));
+        }
+        try (var inputStream = new SizeLimitInputStream(Files.newInputStream(path), maxInputSize.toBytes())) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    // 未設定 allowed-hosts 時，上傳的文件不會讀取遠端文件，url 取得的文件只能參照同一個 host
+    private boolean isAllowedHost(String host, String locationHost) {
+        if (host == null) {
+            return false;
+        }
+        if (host.equalsIgnoreCase(locationHost)) {
+            return true;
+        }
+        for (String allowedHost : allowedHosts) {
+            if (allowedHost.startsWith("*.")
+                ? host.toLowerCase(Locale.ROOT).endsWith(allowedHost.substring(1).toLowerCase(Locale.ROOT))
+                : host.equalsIgnoreCase(allowedHost)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRemote(URI uri) {
+        return "http".equals(uri.getScheme()) || "https".equals(uri.getScheme());
+    }
+
+    private URI getBaseUri(String location) {
+        if (location != null) {
+            return URI.create(location);
+        }
+        return basePath == null ? null : basePath.toUri();
+    }
+
+    // 逾時時取消這次轉換讀取中的文件
+    private void await(CompletableFuture<Void> future, Queue<CompletableFuture<ExternalDocument>> loads) {
+        try {
+            future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new InternalServerErrorException("Cannot read external ref", e.getCause());
+        } catch (TimeoutException e) {
+            loads.forEach(load -> load.cancel(true));
+            throw new InternalServerErrorException("Read external refs timeout: %s".formatted(timeout), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalServerErrorException("Read external refs interrupted", e);
+        }
+    }
+
+    private void removeExpiredDocuments() {
+        var now = Instant.now();
+        cache.values().removeIf(cached -> cached.isExpired(now));
+    }
+
+    // 只檢查是否有不以 # 開頭的 $ref 值，直接掃描 byte (UTF-8 中 ASCII 字元不會出現在多 byte 字元內)
+    static boolean hasNonLocalRef(byte[] content) {
+        outer:
+        for (int index = 0; index <= content.length - REF.length; index++) {
+            for (int j = 0; j < REF.length; j++) {
+                if (content[index + j] != REF[j]) {
+                    continue outer;
+                }
+            }
+            int i = index + REF.length;
+            while (i < content.length && isRefSeparator(content[i])) {
+                i++;
+            }
+            if (i < content.length && content[i] != '#') {
+                return true;
+            }
+            index = i - 1;
+        }
+        return false;
+    }
+
+    private static boolean isRefSeparator(byte value) {
+        return value == ' ' || value == '\t' || value == '"' || value == '\'' || value == ':';
+    }
+
+    // documents 為以 URI 為 key 的外部文件索引，contentHash 為所有外部文件內容的 hash
+    record ExternalRefs(Map<String, ComponentIndex> documents, String contentHash) {
+        static final ExternalRefs EMPTY = new ExternalRefs(Collections.emptyMap(), null);
+    }
+
+    // 文件中的 $ref 已改寫為完整形式，references 為直接參照的外部文件
+    private record ExternalDocument(ComponentIndex index, Set<URI> references, String contentHash) {
+    }
+
+    private record CachedDocument(CompletableFuture<ExternalDocument> document, Instant expireTime) {
+        boolean isExpired(Instant now) {
+            return now.isAfter(expireTime);
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.exception.InternalServerErrorException;
+import com.example.openapitool.exception.PayloadTooLargeException;
+import com.example.openapitool.model.SpecContent;
+import com.example.openapitool.util.HashUtils;
+import com.example.openapitool.util.SizeLimitInputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Headers;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 下載 url 上的 open api，依 ETag / Last-Modified 重新驗證，內容未變更時沿用快取的內容
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class OpenApiFetchService {
+
+    private static final Headers defaultHeader = Headers.of("Content-Type", "application/json");
+
+    private final OkHttpClient okHttpClient;
+
+    @Value("${open-api-tool.http.max-response-size:50MB}")
+    DataSize maxResponseSize;
+
+    // 最多快取幾個 url 的內容
+    @Value("${open-api-tool.http.cache-size:100}")
+    int cacheSize;
+
+    private Map<String, CachedSpec> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Collections.synchronizedMap(new LinkedHashMap<String, CachedSpec>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedSpec> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    @SneakyThrows
+    public SpecContent fetch(String url) {
+        var cached = cache.get(url);
+        var requestBuilder = new Request.Builder()
+            .url(url)
+            .headers(defaultHeader)
+            .get();
+        if (cached != null) {
+            if (cached.etag() != null) {
+                requestBuilder.header("If-None-Match", cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                requestBuilder.header("If-Modified-Since", cached.lastModified());
+            }
+        }
+        var request = requestBuilder.build();
+
+        try (Response response = okHttpClient.newCall(request).execute()) {
+            var statusCode = response.code();
+            if (statusCode == 304 && cached != null) {
+                log.debug("Open api not modified: {}", url);
+                return cached.spec();
+            }
+
+            var responseBody = readBody(response);
+            if (statusCode != 200 && statusCode != 204) {
+                var msg = "Url: %s, Status Code: %s, Response Body: %s".formatted(
+                    request.url(), statusCode, new String(responseBody, StandardCharsets.UTF_8));
+                throw new InternalServerErrorException(msg);
+            }
+
+            var spec = new SpecContent(responseBody, HashUtils.sha256Normalized(responseBody), url);
+            var etag = response.header("ETag");
+            var lastModified = response.header("Last-Modified");
+            if (etag != null || lastModified != null) {
+                cache.put(url, new CachedSpec(etag, lastModified, spec));
+            } else {
+                cache.remove(url);
+            }
+            return spec;
+        }
+    }
+
+    private byte[] readBody(Response response) throws IOException {
+        var body = response.body();
+        if (body == null) {
+            return new byte[0];
+        }
+        var maxSize = maxResponseSize.toBytes();
+        if (body.contentLength() > maxSize) {
+            throw new PayloadTooLargeException("Open api spec exceeds the max size of %s bytes".formatted(maxSize));
+        }
+        try (var inputStream = new SizeLimitInputStream(body.byteStream(), maxSize)) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private record CachedSpec(String etag, String lastModified, SpecContent spec) {
+    }
+
+}
@@ -1,18 +1,29 @@
 package com.example.openapitool.service;
 
+import com.example.openapitool.constant.ParserEngine;
+import com.example.openapitool.model.SpecContent;
 import com.example.openapitool.model.open_api.*;
+import com.example.openapitool.util.SpecParserUtils;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.Option;
 import com.jayway.jsonpath.spi.json.JacksonJsonProvider;
 import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
 
 @Slf4j
 @SuppressWarnings("unchecked")
@@ -24,13 +35,201 @@ public class OpenApiSpecService {
         .mappingProvider(new JacksonMappingProvider())
         .addOptions(Option.SUPPRESS_EXCEPTIONS);
     private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final Predicate<String> NOT_REUSABLE = fingerprint -> false;
 
-    public OpenApiDoc getOpenApiDoc(String jsonContent) {
-        var context = JsonPath.parse(jsonContent, jsonPathConfig);
-        var openApiVersion = (String) context.read("$.openapi");
-        var title = (String) context.read("$.info.title");
-        var description = (String) context.read("$.info.description");
-        var groups = parseToGroupList(context);
+    @Value("${open-api-tool.parser.engine:JSON_PATH}")
+    ParserEngine parserEngine;
+
+    @Value("${open-api-tool.parser.parallel.enabled:true}")
+    boolean parallelEnabled;
+
+    // 0 表示使用 CPU 核心數
+    @Value("${open-api-tool.parser.parallel.pool-size:0}")
+    int parallelPoolSize;
+
+    // API 數量達到門檻才平行處理
+    @Value("${open-api-tool.parser.parallel.threshold:200}")
+    int parallelThreshold;
+
+    // 巢狀層數與每個 payload 的參數數量上限，超過時截斷並在欄位說明加上標記，0 表示不限制
+    @Value("${open-api-tool.parser.max-depth:16}")
+    int maxDepth;
+
+    @Value("${open-api-tool.parser.max-parameters:2000}")
+    int maxParameters;
+
+    // 預設範例的層數、欄位數上限與陣列的樣本數，0 表示不限制
+    @Value("${open-api-tool.example.max-depth:16}")
+    int exampleMaxDepth;
+
+    @Value("${open-api-tool.example.max-properties:2000}")
+    int exampleMaxProperties;
+
+    @Value("${open-api-tool.example.array-items:1}")
+    int exampleArrayItems;
+
+    // 未注入時 (直接建立的 service) 不解析外部 $ref
+    @Autowired
+    ExternalRefResolver externalRefResolver;
+
+    private ForkJoinPool forkJoinPool;
+
+    @PostConstruct
+    public void init() {
+        if (parallelEnabled) {
+            var poolSize = parallelPoolSize > 0 ? parallelPoolSize : Runtime.getRuntime().availableProcessors();
+            forkJoinPool = new ForkJoinPool(poolSize);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    // 支援 json, yaml
+    public OpenApiDoc getOpenApiDoc(String content) {
+        return getOpenApiDoc(content, parserEngine);
+    }
+
+    @SneakyThrows
+    public OpenApiDoc getOpenApiDoc(String content, ParserEngine engine) {
+        Map<String, ?> root;
+        try (var parser = SpecParserUtils.createParser(content)) {
+            root = readRoot(parser, engine);
+        }
+        return toOpenApiDoc(root, engine, resolveExternalRefs(root, null), ConversionMetrics.Recorder.NOOP, NOT_REUSABLE);
+    }
+
+    public OpenApiDoc getOpenApiDoc(SpecContent spec) {
+        return getOpenApiDoc(spec, ConversionMetrics.Recorder.NOOP);
+    }
+
+    public OpenApiDoc getOpenApiDoc(SpecContent spec, ConversionMetrics.Recorder recorder) {
+        return getOpenApiDoc(new PreparedSpec(spec), recorder);
+    }
+
+    // 相對路徑的外部 $ref 依 spec 的 location 解析，計算快取 key 時已解析的文件與外部 $ref 不再重新處理
+    // parse 階段包含 yaml / json 的讀取與文件樹的建立，yaml 是以 parser 逐一讀取，沒有另外轉換成 json
+    public OpenApiDoc getOpenApiDoc(PreparedSpec spec, ConversionMetrics.Recorder recorder) {
+        return getOpenApiDoc(spec, recorder, NOT_REUSABLE);
+    }
+
+    // reusable 為 true 的 fingerprint (例如已有轉換結果) 不展開 $ref，Api 只有 method、path、summary 與 fingerprint
+    @SneakyThrows
+    public OpenApiDoc getOpenApiDoc(
+        PreparedSpec spec,
+        ConversionMetrics.Recorder recorder,
+        Predicate<String> reusable) {
+        if (spec.root == null) {
+            var start = System.nanoTime();
+            spec.root = readRoot(spec.getSpec().getContent(), parserEngine);
+            recorder.recordStage("parse", start);
+        }
+        if (spec.externalRefs == null) {
+            var start = System.nanoTime();
+            spec.externalRefs = resolveExternalRefs(spec.root, spec.getSpec().getLocation());
+            // external 階段為讀取外部 $ref 參照的文件 (平行讀取，有快取)，只有文件含外部 $ref 時才記錄
+            if (!spec.externalRefs.documents().isEmpty()) {
+                recorder.recordStage("external", start);
+            }
+        }
+        return toOpenApiDoc(spec.root, parserEngine, spec.externalRefs, recorder, reusable);
+    }
+
+    // 外部 $ref 參照的文件內容的 hash (沒有外部 $ref 時為 null)，外部文件異動時轉換結果的快取 key 與 ETag 隨之改變
+    // 只有內容可能含外部 $ref 時才解析文件，解析結果留給同一個請求的轉換使用
+    public String getExternalRefHash(PreparedSpec spec) {
+        if (externalRefResolver == null || !externalRefResolver.mayHaveExternalRef(spec.getSpec().getContent())) {
+            return null;
+        }
+        if (spec.externalRefs == null) {
+            try {
+                spec.root = readRoot(spec.getSpec().getContent(), parserEngine);
+            } catch (IOException e) {
+                // 格式錯誤由轉換時回報
+                return null;
+            }
+            spec.externalRefs = externalRefResolver.resolve(spec.root, spec.getSpec().getLocation());
+        }
+        return spec.externalRefs.contentHash();
+    }
+
+    private Map<String, ?> readRoot(byte[] content, ParserEngine engine) throws IOException {
+        try (var parser = SpecParserUtils.createParser(new ByteArrayInputStream(content))) {
+            return readRoot(parser, engine);
+        }
+    }
+
+    private Map<String, ?> readRoot(JsonParser parser, ParserEngine engine) throws IOException {
+        if (engine == ParserEngine.STREAMING) {
+            return OpenApiStreamReader.read(parser);
+        }
+        return (Map<String, ?>) objectMapper.readValue(parser, Map.class);
+    }
+
+    private ExternalRefResolver.ExternalRefs resolveExternalRefs(Map<String, ?> root, String location) {
+        if (externalRefResolver == null) {
+            return ExternalRefResolver.ExternalRefs.EMPTY;
+        }
+        return externalRefResolver.resolve(root, location);
+    }
+
+    private OpenApiDoc toOpenApiDoc(
+        Map<String, ?> root,
+        ParserEngine engine,
+        ExternalRefResolver.ExternalRefs externalRefs,
+        ConversionMetrics.Recorder recorder,
+        Predicate<String> reusable) {
+        String openApiVersion;
+        String title;
+        String description;
+        LinkedHashMap<String, LinkedHashMap<String, ?>> paths;
+        Map<String, ?> components;
+        if (engine == ParserEngine.STREAMING) {
+            var info = root.containsKey("info") ? (Map<String, ?>) root.get("info") : Collections.<String, Object>emptyMap();
+            openApiVersion = (String) root.get("openapi");
+            title = (String) info.get("title");
+            description = (String) info.get("description");
+            paths = (LinkedHashMap<String, LinkedHashMap<String, ?>>) root.get("paths");
+            components = (Map<String, ?>) root.get("components");
+        } else {
+            var context = JsonPath.parse(root, jsonPathConfig);
+            openApiVersion = context.read("$.openapi");
+            title = context.read("$.info.title");
+            description = context.read("$.info.description");
+            paths = context.read("$.paths");
+            components = context.read("$.components");
+        }
+        // 沒有外部 $ref 時只建立根文件的索引
+        var componentIndex = externalRefs.documents().isEmpty()
+            ? ComponentIndex.of(components)
+            : ComponentIndex.of(components, externalRefs.documents());
+        return toOpenApiDoc(openApiVersion, title, description, paths, componentIndex, recorder, reusable);
+    }
+
+    private OpenApiDoc toOpenApiDoc(
+        String openApiVersion,
+        String title,
+        String description,
+        LinkedHashMap<String, LinkedHashMap<String, ?>> paths,
+        ComponentIndex componentIndex,
+        ConversionMetrics.Recorder recorder,
+        Predicate<String> reusable) {
+        var start = System.nanoTime();
+        // 型別、media type 等重複的字串在整份文件中只保留一份
+        var stringPool = new StringPool();
+        var schemaResolver = new SchemaResolver(componentIndex, stringPool, maxDepth, maxParameters);
+        var exampleGenerator = new ExampleGenerator(componentIndex, exampleMaxDepth, exampleMaxProperties, exampleArrayItems);
+        var operationFingerprinter = new OperationFingerprinter(componentIndex, getResolveSettings());
+        var resolvers = new Resolvers(stringPool, schemaResolver, exampleGenerator, operationFingerprinter, reusable);
+        var groups = parseToGroupList(paths, resolvers, recorder);
+        // resolve 階段包含 example 階段，平行處理時 example 為各 thread 的累計時間
+        recorder.recordStage("resolve", start);
+        recorder.recordStageNanos("example", exampleGenerator.getElapsedNanos());
+        recorder.recordResolvedRefs(schemaResolver.getResolvedRefCount());
 
         return OpenApiDoc.builder()
             .openApiVersion(openApiVersion)
@@ -40,48 +239,88 @@ public class OpenApiSpecService {
             .build();
     }
 
-    private List<Group> parseToGroupList(DocumentContext context) {
-        var paths = (LinkedHashMap<String, LinkedHashMap<String, ?>>) context.read("$.paths");
-        var apiMap = new LinkedHashMap<String, List<Api>>();
+    private List<Group> parseToGroupList(
+        LinkedHashMap<String, LinkedHashMap<String, ?>> paths,
+        Resolvers resolvers,
+        ConversionMetrics.Recorder recorder) {
+        var operations = new ArrayList<PathOperation>();
         paths.forEach((path, pathInfo) ->
             pathInfo.forEach((httpMethod, apiObject) -> {
                 if ("parameters".equals(httpMethod)) {
                     return;
                 }
-                var apiInfo = (LinkedHashMap<String, ?>) apiObject;
-                var summary = (String) apiInfo.get("summary");
-                var deprecated = (Boolean) apiInfo.get("deprecated");
-                var requestBody = (LinkedHashMap<String, ?>) apiInfo.get("requestBody");
-                var requestParameters = (List<LinkedHashMap<?, ?>>) apiInfo.get("parameters");
-                var responses = (LinkedHashMap<String, LinkedHashMap<?, ?>>) apiInfo.get("responses");
-                var tags = (List<String>) apiInfo.get("tags");
-
-                var api = new Api();
-                api.setHttpMethod(httpMethod);
-                api.setPath(path);
-                api.setSummary(summary);
-                api.setDeprecated(deprecated);
-                setRequestParameters(api, requestParameters, context);
-                setRequestPayloads(api, requestBody, context);
-                setResponsePayloads(api, responses, context);
-
-                tags.forEach(tag -> {
-                    if (!apiMap.containsKey(tag)) {
-                        apiMap.put(tag, new ArrayList<>());
-                    }
-                    apiMap.get(tag).add(api);
-                });
+                operations.add(new PathOperation(path, httpMethod, (LinkedHashMap<String, ?>) apiObject));
             })
         );
 
+        recorder.recordOperations(operations.size());
+        var apis = toApiList(operations, resolvers);
+
+        // 依原本的 path 順序組成 group，平行與循序模式的結果一致
+        var apiMap = new LinkedHashMap<String, List<Api>>();
+        for (int i = 0; i < operations.size(); i++) {
+            var api = apis.get(i);
+            var tags = (List<String>) operations.get(i).apiInfo().get("tags");
+            tags.forEach(tag -> {
+                if (!apiMap.containsKey(tag)) {
+                    apiMap.put(tag, new ArrayList<>());
+                }
+                apiMap.get(tag).add(api);
+            });
+        }
+
         var groups = new ArrayList<Group>();
-        apiMap.forEach((tag, apis) ->
-            groups.add(new Group(tag, apis))
+        apiMap.forEach((tag, groupApis) ->
+            groups.add(new Group(tag, groupApis))
         );
         return groups;
     }
 
-    private void setRequestPayloads(Api api, LinkedHashMap<String, ?> requestBody, DocumentContext context) {
+    private List<Api> toApiList(List<PathOperation> operations, Resolvers resolvers) {
+        if (forkJoinPool == null || operations.size() < parallelThreshold) {
+            return operations.stream().map(operation -> toApi(operation, resolvers)).toList();
+        }
+        // 在專用的 pool 執行 parallel stream，toList() 會保留原本的順序
+        // SchemaResolver 與 ExampleGenerator 只在快取結果與重新展開相同時使用快取，快取填入的順序不影響輸出
+        return forkJoinPool.submit(() ->
+            operations.parallelStream().map(operation -> toApi(operation, resolvers)).toList()
+        ).join();
+    }
+
+    // 先以原始內容計算 fingerprint，可沿用的 API 不展開 $ref
+    private Api toApi(PathOperation operation, Resolvers resolvers) {
+        var apiInfo = operation.apiInfo();
+        var summary = (String) apiInfo.get("summary");
+        var deprecated = (Boolean) apiInfo.get("deprecated");
+        var requestBody = (LinkedHashMap<String, ?>) apiInfo.get("requestBody");
+        var requestParameters = (List<LinkedHashMap<?, ?>>) apiInfo.get("parameters");
+        var responses = (LinkedHashMap<String, LinkedHashMap<?, ?>>) apiInfo.get("responses");
+
+        var api = new Api();
+        api.setHttpMethod(operation.httpMethod());
+        api.setPath(operation.path());
+        api.setSummary(summary);
+        api.setDeprecated(deprecated);
+        var fingerprint = resolvers.operationFingerprinter().fingerprint(operation.httpMethod(), operation.path(), apiInfo);
+        api.setFingerprint(fingerprint);
+        if (resolvers.reusable().test(fingerprint)) {
+            return api;
+        }
+        var stringPool = resolvers.stringPool();
+        var schemaResolver = resolvers.schemaResolver();
+        var exampleGenerator = resolvers.exampleGenerator();
+        setRequestParameters(api, requestParameters, stringPool, schemaResolver);
+        setRequestPayloads(api, requestBody, stringPool, schemaResolver, exampleGenerator);
+        setResponsePayloads(api, responses, stringPool, schemaResolver, exampleGenerator);
+        return api;
+    }
+
+    private void setRequestPayloads(
+        Api api,
+        LinkedHashMap<String, ?> requestBody,
+        StringPool stringPool,
+        SchemaResolver schemaResolver,
+        ExampleGenerator exampleGenerator) {
         if (requestBody != null) {
             var requestPayloads = new ArrayList<RequestPayload>();
             var content = (LinkedHashMap<String, ?>) requestBody.get("content");
@@ -90,17 +329,24 @@ public class OpenApiSpecService {
                 var ref = (String) ((LinkedHashMap<String, ?>) schema.get("schema")).get("$ref");
                 var examples = (LinkedHashMap<String, ?>) schema.get("examples");
                 var request = new RequestPayload();
-                request.setMediaType(mediaType);
+                request.setMediaType(stringPool.intern(mediaType));
                 request.setRef(ref);
-                request.setParameters(getPayloadParameter(ref, null, null, null, context));
+                request.setParameters(schemaResolver.getPayloadParameter(ref));
                 setRequestPayloadExample(request, examples);
+                if (examples == null) {
+                    request.setDefaultExample(exampleGenerator.getExample(ref));
+                }
                 requestPayloads.add(request);
             });
             api.setRequestPayloads(requestPayloads);
         }
     }
 
-    private void setRequestParameters(Api api, List<LinkedHashMap<?, ?>> requestParameters, DocumentContext context) {
+    private void setRequestParameters(
+        Api api,
+        List<LinkedHashMap<?, ?>> requestParameters,
+        StringPool stringPool,
+        SchemaResolver schemaResolver) {
         if (requestParameters != null) {
             var requestHeaderList = new ArrayList<Parameter>();
             var requestPathList = new ArrayList<Parameter>();
@@ -115,7 +361,7 @@ public class OpenApiSpecService {
                 var enumValues = (List<Object>) schema.get("enum");
                 var ref = (String) schema.get("$ref");
 
-                var refEnum = getRefEnum(ref, context);
+                var refEnum = schemaResolver.getRefEnum(ref);
                 // 判斷是不是 ENUM
                 if (refEnum != null) {
                     type = refEnum.getType();
@@ -126,19 +372,16 @@ public class OpenApiSpecService {
                     var items = (LinkedHashMap<?, ?>) schema.get("items");
                     var itemsType = (String) items.get("type");
                     var itemsRef = (String) items.get("$ref");
-                    var itemsRefEnum = getRefEnum(itemsRef, context);
+                    var itemsRefEnum = schemaResolver.getRefEnum(itemsRef);
                     // 判斷是不是 ENUM
                     if (itemsRefEnum != null) {
                         itemsType = itemsRefEnum.getType();
                         enumValues = itemsRefEnum.getEnumValues();
                     }
-                    type = "array[%s]".formatted(itemsType);
+                    type = stringPool.arrayLabel(itemsType);
                 }
 
-                var format = (String) schema.get("format");
-                if (format != null) {
-                    type = "%s($%s)".formatted(type, format);
-                }
+                type = stringPool.typeLabel(type, (String) schema.get("format"));
 
                 var parameter = new Parameter();
                 parameter.setName(name);
@@ -174,21 +417,24 @@ public class OpenApiSpecService {
     private void setResponsePayloads(
         Api api,
         LinkedHashMap<String, LinkedHashMap<?, ?>> responses,
-        DocumentContext context) {
+        StringPool stringPool,
+        SchemaResolver schemaResolver,
+        ExampleGenerator exampleGenerator) {
         if (responses != null) {
             var responseList = new ArrayList<ResponsePayload>();
             responses.forEach((status, responseInfo) -> {
-                var description = (String) responseInfo.get("description");
+                var description = stringPool.intern((String) responseInfo.get("description"));
                 var content = ((LinkedHashMap<String, LinkedHashMap<?, ?>>) responseInfo.get("content"));
                 if (content != null) {
                     content.forEach((mediaType, schema) -> {
                         var ref = (String) ((LinkedHashMap<String, ?>) schema.get("schema")).get("$ref");
                         var response = new ResponsePayload();
                         response.setDescription(description);
-                        response.setMediaType(mediaType);
+                        response.setMediaType(stringPool.intern(mediaType));
                         response.setHttpCode(status);
                         response.setRef(ref);
-                        response.setParameters(getPayloadParameter(ref, null, null, null, context));
+                        response.setParameters(schemaResolver.getPayloadParameter(ref));
+                        response.setDefaultExample(exampleGenerator.getExample(ref));
                         responseList.add(response);
                     });
                 } else {
@@ -218,151 +464,21 @@ public class OpenApiSpecService {
         requestPayload.setPayloadExamples(payloadExamples);
     }
 
-    private List<Parameter> getPayloadParameter(
-        String ref,
-        LinkedHashMap<String, LinkedHashMap<String, ?>> properties,
-        String parentRef,
-        String parentSeq,
-        DocumentContext context) {
-        if (ref == null && properties == null) {
-            return Collections.emptyList();
-        }
-
-        if (ref != null && ref.equals(parentRef)) {
-            // ref 等於 parentRef 就跳過，避免無限迴圈造成 StackOverflowError
-            return Collections.emptyList();
-        }
-
-        List<String> requiredFieldName = null;
-        if (ref != null) {
-            var jsonPath = refToJsonPath(ref);
-            var components = (LinkedHashMap<String, ?>) context.read(jsonPath);
-            requiredFieldName = (List<String>) components.get("required");
-            properties = (LinkedHashMap<String, LinkedHashMap<String, ?>>) components.get("properties");
-        }
-
-        if (properties == null) {
-            return Collections.emptyList();
-        }
-
-        var parameterList = new ArrayList<Parameter>();
-
-        int index = 1;
-
-        for (Map.Entry<String, LinkedHashMap<String, ?>> entry : properties.entrySet()) {
-            String fieldName = entry.getKey();
-            LinkedHashMap<String, ?> property = entry.getValue();
-            var subRef = (String) property.get("$ref");
-            var description = (String) property.get("description");
-            var type = (String) property.get("type");
-            var required = isRequired(requiredFieldName, fieldName);
-            var example = property.get("example");
-            var enumValue = (List<Object>) property.get("enum");
-            var refEnum = getRefEnum(subRef, context);
-            // 判斷是不是 ENUM
-            if (refEnum != null) {
-                type = refEnum.getType();
-                enumValue = refEnum.getEnumValues();
-                subRef = null;
-            }
-
-            if (subRef != null) {
-                type = "object";
-            }
-
-            if ("array".equals(type)) {
-                var items = (LinkedHashMap<?, ?>) property.get("items");
-                var itemsType = (String) items.get("type");
-                var itemsRef = (String) items.get("$ref");
-                if (itemsRef == null) {
-                    type = "array[%s]".formatted(itemsType);
-                } else {
-                    var subRefEnum = getRefEnum(itemsRef, context);
-                    if (subRefEnum != null) {
-                        type = "array[%s]".formatted(subRefEnum.getType());
-                        enumValue = subRefEnum.getEnumValues();
-                    } else {
-                        type = "array[object]";
-                        subRef = itemsRef;
-                    }
-                }
-            }
-
-            var seq = getSeq(parentSeq, index);
-
-            if (subRef == null) {
-                var format = (String) property.get("format");
-
-                if (format != null) {
-                    type = "%s($%s)".formatted(type, format);
-                }
-                if (type == null && property.get("oneOf") != null) {
-                    // oneOf 比較複雜，先不實作，固定傳 object
-                    type = "object";
-                }
-
-                var parameter = new Parameter();
-                parameter.setSequence(seq);
-                parameter.setName(fieldName);
-                parameter.setType(type);
-                parameter.setDescription(description);
-                parameter.setRequired(required);
-                parameter.setEnumValues(enumValue);
-                parameter.setExample(example);
-                parameterList.add(parameter);
-
-                if ("object".equals(type)) {
-                    var subProperties = (LinkedHashMap<String, LinkedHashMap<String, ?>>) property.get("properties");
-                    parameterList.addAll(getPayloadParameter(null, subProperties, ref, seq, context));
-                }
-            } else {
-                var parameter = new Parameter();
-                parameter.setSequence(seq);
-                parameter.setName(fieldName);
-                parameter.setType(type);
-                parameter.setDescription(description);
-                parameter.setRequired(required);
-                parameter.setExample(example);
-                parameterList.add(parameter);
-                parameterList.addAll(getPayloadParameter(subRef, null, ref, seq, context));
-            }
-            index++;
-        }
-        return parameterList;
-    }
-
-    private String getSeq(String parentSeq, int index) {
-        if (parentSeq == null) {
-            return String.valueOf(index);
-        }
-        return "%s.%s".formatted(parentSeq, index);
+    // 影響展開結果的設定，設定不同時 fingerprint 也不同
+    private String getResolveSettings() {
+        return "%d,%d,%d,%d,%d".formatted(maxDepth, maxParameters, exampleMaxDepth, exampleMaxProperties, exampleArrayItems);
     }
 
-    private RefEnum getRefEnum(String ref, DocumentContext context) {
-        if (ref == null) {
-            return null;
-        }
-        var jsonPath = refToJsonPath(ref);
-        var components = (LinkedHashMap<String, ?>) context.read(jsonPath);
-        var enumValues = (List<Object>) components.get("enum");
-        if (enumValues == null) {
-            return null;
-        }
-        var type = (String) components.get("type");
-        return RefEnum.builder()
-            .type(type)
-            .enumValues(enumValues)
-            .build();
+    private record PathOperation(String path, String httpMethod, LinkedHashMap<String, ?> apiInfo) {
     }
 
-    private String refToJsonPath(String ref) {
-        return ref.replace("#", "$").replace("/", ".");
+    // 同一份文件的所有 API 共用
+    private record Resolvers(
+        StringPool stringPool,
+        SchemaResolver schemaResolver,
+        ExampleGenerator exampleGenerator,
+        OperationFingerprinter operationFingerprinter,
+        Predicate<String> reusable) {
     }
 
-    private boolean isRequired(List<String> requiredFieldName, String fieldName) {
-        if (requiredFieldName == null) {
-            return false;
-        }
-        return requiredFieldName.contains(fieldName);
-    }
 }
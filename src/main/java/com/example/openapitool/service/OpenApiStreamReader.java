@@ -0,0 +1,146 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.exception.InternalServerErrorException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 以 Jackson streaming API 單次讀取 open api，只保留轉換 model 會用到的欄位，其餘直接 skipChildren()
+class OpenApiStreamReader {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    // 整個值原樣保留
+    private static final Shape VALUE = new Shape();
+    private static final Shape ROOT = new Shape();
+    private static final Shape INFO = new Shape();
+    private static final Shape PATHS = new Shape();
+    private static final Shape PATH_ITEM = new Shape();
+    private static final Shape OPERATION = new Shape();
+    private static final Shape PARAMETER = new Shape();
+    private static final Shape REQUEST_BODY = new Shape();
+    private static final Shape RESPONSES = new Shape();
+    private static final Shape RESPONSE = new Shape();
+    private static final Shape CONTENT = new Shape();
+    private static final Shape MEDIA_TYPE = new Shape();
+    private static final Shape EXAMPLES = new Shape();
+    private static final Shape EXAMPLE = new Shape();
+    private static final Shape COMPONENTS = new Shape();
+    private static final Shape SCHEMAS = new Shape();
+    private static final Shape SCHEMA = new Shape();
+
+    static {
+        ROOT.field("openapi", VALUE).field("info", INFO).field("paths", PATHS).field("components", COMPONENTS);
+        INFO.field("title", VALUE).field("description", VALUE);
+
+        PATHS.anyField(PATH_ITEM);
+        // path 層級的 parameters 不會被使用
+        PATH_ITEM.anyField(OPERATION).field("parameters", null);
+        OPERATION.field("summary", VALUE)
+            .field("deprecated", VALUE)
+            .field("tags", VALUE)
+            .field("parameters", PARAMETER)
+            .field("requestBody", REQUEST_BODY)
+            .field("responses", RESPONSES);
+        PARAMETER.field("name", VALUE)
+            .field("in", VALUE)
+            .field("description", VALUE)
+            .field("required", VALUE)
+            .field("schema", SCHEMA);
+        REQUEST_BODY.field("content", CONTENT);
+        RESPONSES.anyField(RESPONSE);
+        RESPONSE.field("description", VALUE).field("content", CONTENT);
+        CONTENT.anyField(MEDIA_TYPE);
+        MEDIA_TYPE.field("schema", SCHEMA).field("examples", EXAMPLES);
+        EXAMPLES.anyField(EXAMPLE);
+        EXAMPLE.field("value", VALUE);
+
+        COMPONENTS.field("schemas", SCHEMAS);
+        SCHEMAS.anyField(SCHEMA);
+        SCHEMA.field("$ref", VALUE)
+            .field("type", VALUE)
+            .field("format", VALUE)
+            .field("description", VALUE)
+            .field("example", VALUE)
+            .field("enum", VALUE)
+            .field("required", VALUE)
+            .field("oneOf", VALUE)
+            .field("anyOf", VALUE)
+            .field("allOf", VALUE)
+            .field("items", SCHEMA)
+            .field("properties", SCHEMAS);
+    }
+
+    private OpenApiStreamReader() {
+    }
+
+    static Map<String, Object> read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new InternalServerErrorException("Open api spec must be an object");
+        }
+        return readObject(parser, ROOT);
+    }
+
+    private static Object readValue(JsonParser parser, Shape shape) throws IOException {
+        if (shape != VALUE) {
+            var token = parser.currentToken();
+            if (token == JsonToken.START_OBJECT) {
+                return readObject(parser, shape);
+            }
+            if (token == JsonToken.START_ARRAY) {
+                return readArray(parser, shape);
+            }
+        }
+        return objectMapper.readValue(parser, Object.class);
+    }
+
+    private static Map<String, Object> readObject(JsonParser parser, Shape shape) throws IOException {
+        var map = new LinkedHashMap<String, Object>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var fieldName = parser.getCurrentName();
+            var fieldShape = shape.get(fieldName);
+            parser.nextToken();
+            if (fieldShape == null) {
+                parser.skipChildren();
+            } else {
+                map.put(fieldName, readValue(parser, fieldShape));
+            }
+        }
+        return map;
+    }
+
+    private static List<Object> readArray(JsonParser parser, Shape shape) throws IOException {
+        var list = new ArrayList<Object>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            list.add(readValue(parser, shape));
+        }
+        return list;
+    }
+
+    private static class Shape {
+        private final Map<String, Shape> fields = new HashMap<>();
+        private Shape anyField;
+
+        Shape field(String name, Shape shape) {
+            fields.put(name, shape);
+            return this;
+        }
+
+        Shape anyField(Shape shape) {
+            anyField = shape;
+            return this;
+        }
+
+        Shape get(String name) {
+            return fields.containsKey(name) ? fields.get(name) : anyField;
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.example.openapitool.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.SneakyThrows;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 每份文件建立一個，以展開 $ref 前的原始內容計算 API 的 fingerprint: operation 本身加上遞移參照到的 component 原始內容
+// 不需要先展開就能判斷 API 是否異動，內容相同的 API 在不同版本的文件中會得到相同的 fingerprint
+// 每個 $ref 的內容只計算一次 hash，operation 只需合併參照到的 hash
+class OperationFingerprinter {
+
+    private static final String ALGORITHM = "SHA-256";
+    private static final String REF = "$ref";
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final ComponentIndex componentIndex;
+    // 影響展開結果的設定 (層數、數量上限等)
+    private final String settings;
+    private final Map<String, RefNode> refNodes = new ConcurrentHashMap<>();
+
+    OperationFingerprinter(ComponentIndex componentIndex, String settings) {
+        this.componentIndex = componentIndex;
+        this.settings = settings;
+    }
+
+    @SneakyThrows
+    String fingerprint(String httpMethod, String path, Map<String, ?> operation) {
+        var digest = MessageDigest.getInstance(ALGORITHM);
+        update(digest, settings);
+        update(digest, httpMethod);
+        update(digest, path);
+        // 直接寫入 digest，不需要保留序列化後的內容
+        objectMapper.writeValue(new DigestOutputStream(OutputStream.nullOutputStream(), digest), operation);
+        // 依 ref 排序，與走訪的順序無關
+        for (String ref : getClosure(operation)) {
+            update(digest, ref);
+            update(digest, getRefNode(ref).hash());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    // operation 直接與間接參照的所有 ref (含循環參照)
+    private SortedSet<String> getClosure(Map<String, ?> operation) {
+        var closure = new TreeSet<String>();
+        var pending = new ArrayDeque<String>();
+        collectRefs(operation, pending);
+        while (!pending.isEmpty()) {
+            var ref = pending.poll();
+            if (closure.add(ref)) {
+                pending.addAll(getRefNode(ref).refs());
+            }
+        }
+        return closure;
+    }
+
+    private RefNode getRefNode(String ref) {
+        var refNode = refNodes.get(ref);
+        if (refNode == null) {
+            refNode = toRefNode(ref);
+            var previous = refNodes.putIfAbsent(ref, refNode);
+            return previous == null ? refNode : previous;
+        }
+        return refNode;
+    }
+
+    @SneakyThrows
+    private RefNode toRefNode(String ref) {
+        var node = componentIndex.get(ref);
+        if (node == null) {
+            // 無法解析的 ref 以空的 hash 表示，之後可解析時 fingerprint 隨之改變
+            return new RefNode("", List.of());
+        }
+        var digest = MessageDigest.getInstance(ALGORITHM);
+        objectMapper.writeValue(new DigestOutputStream(OutputStream.nullOutputStream(), digest), node);
+        var refs = new ArrayList<String>();
+        collectRefs(node, refs);
+        return new RefNode(HexFormat.of().formatHex(digest.digest()), refs);
+    }
+
+    // 走訪所有的 $ref (包含 example 中的 $ref，只會讓 fingerprint 比較保守)
+    private static void collectRefs(Object node, Collection<String> refs) {
+        if (node instanceof Map<?, ?> map) {
+            if (map.get(REF) instanceof String ref) {
+                refs.add(ref);
+            }
+            for (Object value : map.values()) {
+                collectRefs(value, refs);
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object item : list) {
+                collectRefs(item, refs);
+            }
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    static String getOperationKey(String httpMethod, String path) {
+        return "%s %s".formatted(httpMethod.toUpperCase(Locale.ROOT), path);
+    }
+
+    // hash 為 ref 指向的原始內容的 hash，refs 為內容中直接參照的 ref
+    private record RefNode(String hash, List<String> refs) {
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.model.SpecContent;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+
+// 同一個請求中計算快取 key (ETag) 與轉換共用的文件，根文件只解析一次，外部 $ref 只讀取一次
+// 只在同一個 thread 中使用，轉換後不再保留
+@RequiredArgsConstructor
+public class PreparedSpec {
+
+    @Getter
+    private final SpecContent spec;
+
+    // 需要時才解析，root 中的外部 $ref 在 externalRefs 建立時改寫
+    Map<String, ?> root;
+    ExternalRefResolver.ExternalRefs externalRefs;
+
+}
@@ -0,0 +1,168 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.exception.BadRequestException;
+
+import java.net.URI;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// 將文件中的 $ref 改寫為 <uri>#<pointer> 的完整形式並收集參照的外部文件
+// 只走訪 schema、parameter、response、requestBody 會出現 $ref 的位置，example / examples / default 等資料中的 $ref 不處理
+@SuppressWarnings("unchecked")
+class RefRewriter {
+
+    private static final String REF = "$ref";
+    private static final List<String> OPERATIONS =
+        List.of("get", "put", "post", "delete", "options", "head", "patch", "trace");
+    private static final List<String> COMPOSITIONS = List.of("allOf", "anyOf", "oneOf");
+
+    private final URI base;
+    // 根文件內的 #/... 維持原樣，外部文件內的 #/... 改寫為指向該文件
+    private final boolean root;
+    private final Set<URI> references = new LinkedHashSet<>();
+
+    private RefRewriter(URI base, boolean root) {
+        this.base = base;
+        this.root = root;
+    }
+
+    // 外部文件依內容判斷為 open api 文件 (含 paths / components)、單一 schema 或 schema 集合
+    static Set<URI> rewriteDocument(Map<String, ?> document, URI base, boolean root) {
+        var rewriter = new RefRewriter(base, root);
+        if (root || document.containsKey("openapi") || document.containsKey("paths") || document.containsKey("components")) {
+            rewriter.openApi(document);
+        } else if (isSchema(document)) {
+            // 整份文件為一個 schema，例如 $ref: models/pet.yaml
+            rewriter.schema(document);
+        } else {
+            // 以名稱為 key 的 schema 集合，例如 $ref: schemas.yaml#/Pet
+            values(document, rewriter::schema);
+        }
+        return rewriter.references;
+    }
+
+    private void openApi(Map<String, ?> document) {
+        values(document.get("paths"), this::pathItem);
+        if (document.get("components") instanceof Map<?, ?> components) {
+            values(components.get("schemas"), this::schema);
+            values(components.get("parameters"), this::parameter);
+            values(components.get("headers"), this::parameter);
+            values(components.get("responses"), this::response);
+            values(components.get("requestBodies"), this::requestBody);
+        }
+    }
+
+    private void pathItem(Map<String, ?> pathItem) {
+        items(pathItem.get("parameters"), this::parameter);
+        for (String method : OPERATIONS) {
+            if (pathItem.get(method) instanceof Map<?, ?> operation) {
+                items(operation.get("parameters"), this::parameter);
+                if (operation.get("requestBody") instanceof Map<?, ?> requestBody) {
+                    requestBody((Map<String, ?>) requestBody);
+                }
+                values(operation.get("responses"), this::response);
+            }
+        }
+    }
+
+    // header 與 parameter 的結構相同
+    private void parameter(Map<String, ?> parameter) {
+        ref(parameter);
+        if (parameter.get("schema") instanceof Map<?, ?> schema) {
+            schema((Map<String, ?>) schema);
+        }
+        content(parameter.get("content"));
+    }
+
+    private void requestBody(Map<String, ?> requestBody) {
+        ref(requestBody);
+        content(requestBody.get("content"));
+    }
+
+    private void response(Map<String, ?> response) {
+        ref(response);
+        content(response.get("content"));
+        values(response.get("headers"), this::parameter);
+    }
+
+    private void content(Object content) {
+        values(content, mediaType -> {
+            if (mediaType.get("schema") instanceof Map<?, ?> schema) {
+                schema((Map<String, ?>) schema);
+            }
+        });
+    }
+
+    private void schema(Map<String, ?> schema) {
+        ref(schema);
+        values(schema.get("properties"), this::schema);
+        for (String key : List.of("items", "additionalProperties", "not")) {
+            if (schema.get(key) instanceof Map<?, ?> child) {
+                schema((Map<String, ?>) child);
+            }
+        }
+        for (String key : COMPOSITIONS) {
+            items(schema.get(key), this::schema);
+        }
+    }
+
+    private void ref(Map<String, ?> node) {
+        if (!(node.get(REF) instanceof String ref)) {
+            return;
+        }
+        var hashIndex = ref.indexOf('#');
+        var path = hashIndex < 0 ? ref : ref.substring(0, hashIndex);
+        var fragment = hashIndex < 0 ? "" : ref.substring(hashIndex + 1);
+        if (path.isEmpty()) {
+            if (!root) {
+                ((Map<String, Object>) node).put(REF, "%s#%s".formatted(base, fragment));
+            }
+            return;
+        }
+        URI uri;
+        try {
+            uri = base == null ? URI.create(path) : base.resolve(path);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid external ref: %s".formatted(ref), e);
+        }
+        if (!uri.isAbsolute()) {
+            throw new BadRequestException(
+                "Cannot resolve relative ref without base location: %s (see open-api-tool.ref.base-dir)".formatted(ref));
+        }
+        uri = uri.normalize();
+        ((Map<String, Object>) node).put(REF, "%s#%s".formatted(uri, fragment));
+        // 根文件以完整路徑參照自己時同樣回傳，由 ExternalRefResolver 以根文件建立索引
+        if (root || !uri.equals(base)) {
+            references.add(uri);
+        }
+    }
+
+    private static boolean isSchema(Map<String, ?> node) {
+        return node.containsKey(REF) || node.containsKey("type") || node.containsKey("properties")
+            || node.containsKey("items") || COMPOSITIONS.stream().anyMatch(node::containsKey);
+    }
+
+    private static void values(Object node, Consumer<Map<String, ?>> visitor) {
+        if (node instanceof Map<?, ?> map) {
+            for (Object value : map.values()) {
+                if (value instanceof Map<?, ?> child) {
+                    visitor.accept((Map<String, ?>) child);
+                }
+            }
+        }
+    }
+
+    private static void items(Object node, Consumer<Map<String, ?>> visitor) {
+        if (node instanceof List<?> list) {
+            for (Object item : list) {
+                if (item instanceof Map<?, ?> child) {
+                    visitor.accept((Map<String, ?>) child);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,365 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.model.open_api.Parameter;
+import com.example.openapitool.model.open_api.ParameterPath;
+import com.example.openapitool.model.open_api.RefEnum;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// 每份文件建立一個，每個 $ref 只展開一次並快取為相對位置的模板，被參照時只需接到父欄位的 path 下
+// 以完整的祖先 ref 判斷循環參照，並以最大層數、最大參數數量限制展開結果，超過時在欄位說明加上標記
+// 同一個 ref 的 payload 參數清單只產生一次，由所有參照的 API 共用 (不可修改)
+@Slf4j
+@SuppressWarnings("unchecked")
+class SchemaResolver {
+
+    private static final int NO_CUT = Integer.MAX_VALUE;
+    private static final String MAX_DEPTH_MARKER = "(truncated: max depth %d)";
+    private static final String MAX_PARAMETERS_MARKER = "(truncated: max %d parameters)";
+
+    private final ComponentIndex componentIndex;
+    private final StringPool stringPool;
+    private final int maxDepth;
+    private final int maxParameters;
+    private final Map<String, Expansion> templates = new ConcurrentHashMap<>();
+    private final Map<String, List<Parameter>> payloads = new ConcurrentHashMap<>();
+    // 位於循環參照上的 ref，展開結果與所在位置有關，改以所在位置剩餘的層數與數量展開
+    private final Set<String> cyclicRefs = ConcurrentHashMap.newKeySet();
+    // 解析過的 $ref 數量 (含快取命中)，作為指標
+    private final LongAdder resolvedRefs = new LongAdder();
+
+    // maxDepth, maxParameters 為 0 表示不限制
+    SchemaResolver(ComponentIndex componentIndex, StringPool stringPool, int maxDepth, int maxParameters) {
+        this.componentIndex = componentIndex;
+        this.stringPool = stringPool;
+        this.maxDepth = maxDepth > 0 ? maxDepth : Integer.MAX_VALUE;
+        this.maxParameters = maxParameters > 0 ? maxParameters : Integer.MAX_VALUE;
+    }
+
+    // 回傳的清單與參數會被多個 API 共用，不可修改
+    List<Parameter> getPayloadParameter(String ref) {
+        if (ref == null) {
+            return Collections.emptyList();
+        }
+        var parameters = payloads.get(ref);
+        if (parameters == null) {
+            // 最外層以完整的限制展開，結果與所在位置無關，重複計算的結果相同
+            parameters = toPayloadParameter(expandRef(ref, new ArrayList<>(), maxDepth, maxParameters));
+            var previous = payloads.putIfAbsent(ref, parameters);
+            return previous == null ? parameters : previous;
+        }
+        resolvedRefs.increment();
+        return parameters;
+    }
+
+    // 模板的參數直接共用，只有需要加上數量標記的最後一個參數另外複製
+    private List<Parameter> toPayloadParameter(Expansion expansion) {
+        var rows = expansion.rows();
+        if (!expansion.capacityLimited() || rows.isEmpty()) {
+            return rows;
+        }
+        var parameters = new ArrayList<>(rows);
+        var last = copy(rows.get(rows.size() - 1), rows.get(rows.size() - 1).getPath());
+        addMarker(last, MAX_PARAMETERS_MARKER.formatted(maxParameters));
+        parameters.set(parameters.size() - 1, last);
+        return Collections.unmodifiableList(parameters);
+    }
+
+    long getResolvedRefCount() {
+        return resolvedRefs.sum();
+    }
+
+    RefEnum getRefEnum(String ref) {
+        var components = componentIndex.get(ref);
+        if (components == null) {
+            return null;
+        }
+        var enumValues = (List<Object>) components.get("enum");
+        if (enumValues == null) {
+            return null;
+        }
+        var type = (String) components.get("type");
+        return RefEnum.builder()
+            .type(type)
+            .enumValues(enumValues)
+            .build();
+    }
+
+    // depthLimit, capacity 為所在位置剩餘的層數與數量，只有不受所在位置影響的結果才會快取
+    private Expansion expandRef(String ref, List<String> ancestors, int depthLimit, int capacity) {
+        resolvedRefs.increment();
+        var template = templates.get(ref);
+        // 模板內展開過的 ref 是祖先時，重新展開才會在祖先截斷
+        if (template != null && Collections.disjoint(ancestors, template.refs())) {
+            return template;
+        }
+        var components = componentIndex.get(ref);
+        if (components == null) {
+            log.warn("Cannot resolve ref: {}", ref);
+            return Expansion.EMPTY;
+        }
+        var required = (List<String>) components.get("required");
+        var properties = (LinkedHashMap<String, LinkedHashMap<String, ?>>) components.get("properties");
+        if (properties == null) {
+            return Expansion.EMPTY;
+        }
+
+        // 一般的 ref 以完整的限制展開以便快取，由呼叫端依所在位置裁切
+        var inContext = cyclicRefs.contains(ref);
+        var limitDepth = inContext ? depthLimit : maxDepth;
+        var limitCapacity = inContext ? capacity : maxParameters;
+        var depth = ancestors.size();
+        var builder = new TemplateBuilder(ancestors, limitDepth, limitCapacity);
+        ancestors.add(ref);
+        try {
+            builder.addProperties(properties, required, null);
+        } finally {
+            ancestors.remove(depth);
+        }
+        var expansion = builder.build();
+
+        // 截斷到祖先 (不含自己) 的循環參照，或受到比預設更小的限制時，結果與所在位置有關
+        // 截斷在自己 (A -> B -> A) 的循環參照在模板內部結束，與祖先無關
+        var cacheable = expansion.cutDepth() >= depth
+            && (!expansion.depthLimited() || limitDepth == maxDepth)
+            && (!expansion.capacityLimited() || limitCapacity == maxParameters);
+        if (cacheable) {
+            // 模板內部的循環參照與祖先無關
+            expansion = new Expansion(
+                expansion.rows(), NO_CUT, expansion.depthLimited(), expansion.capacityLimited(), expansion.refs());
+            templates.putIfAbsent(ref, expansion);
+        }
+        return expansion;
+    }
+
+    private boolean hasProperties(String ref) {
+        var components = componentIndex.get(ref);
+        if (components == null) {
+            return false;
+        }
+        var properties = (Map<String, ?>) components.get("properties");
+        return properties != null && !properties.isEmpty();
+    }
+
+    private static boolean isRequired(List<String> requiredFieldName, String fieldName) {
+        if (requiredFieldName == null) {
+            return false;
+        }
+        return requiredFieldName.contains(fieldName);
+    }
+
+    private static Parameter copy(Parameter parameter, ParameterPath path) {
+        return new Parameter(
+            path,
+            parameter.getName(),
+            parameter.getType(),
+            parameter.getDescription(),
+            parameter.getRequired(),
+            parameter.getEnumValues(),
+            parameter.getMinLength(),
+            parameter.getMaxLength(),
+            parameter.getExample());
+    }
+
+    private static void addMarker(Parameter parameter, String marker) {
+        var description = parameter.getDescription();
+        parameter.setDescription(description == null ? marker : "%s %s".formatted(description, marker));
+    }
+
+    private class TemplateBuilder {
+        private final List<String> ancestors;
+        private final int depthLimit;
+        private final int capacity;
+        private final List<Parameter> rows = new ArrayList<>();
+        // 循環參照截斷處的祖先位置
+        private int cutDepth = NO_CUT;
+        private boolean depthLimited;
+        private boolean capacityLimited;
+        // 展開過的 ref (含子模板)
+        private final Set<String> refs = new HashSet<>();
+
+        TemplateBuilder(List<String> ancestors, int depthLimit, int capacity) {
+            this.ancestors = ancestors;
+            this.depthLimit = depthLimit;
+            this.capacity = capacity;
+        }
+
+        Expansion build() {
+            return new Expansion(List.copyOf(rows), cutDepth, depthLimited, capacityLimited, Set.copyOf(refs));
+        }
+
+        void addProperties(
+            LinkedHashMap<String, LinkedHashMap<String, ?>> properties,
+            List<String> requiredFieldName,
+            ParameterPath parentPath) {
+            int index = 1;
+            for (Map.Entry<String, LinkedHashMap<String, ?>> entry : properties.entrySet()) {
+                if (rows.size() >= capacity) {
+                    capacityLimited = true;
+                    return;
+                }
+                String fieldName = entry.getKey();
+                LinkedHashMap<String, ?> property = entry.getValue();
+                var subRef = (String) property.get("$ref");
+                var description = (String) property.get("description");
+                var type = (String) property.get("type");
+                var required = isRequired(requiredFieldName, fieldName);
+                var example = property.get("example");
+                var enumValue = (List<Object>) property.get("enum");
+                var refEnum = getRefEnum(subRef);
+                // 判斷是不是 ENUM
+                if (refEnum != null) {
+                    type = refEnum.getType();
+                    enumValue = refEnum.getEnumValues();
+                    subRef = null;
+                }
+
+                if (subRef != null) {
+                    type = "object";
+                }
+
+                if ("array".equals(type)) {
+                    var items = (LinkedHashMap<?, ?>) property.get("items");
+                    var itemsType = (String) items.get("type");
+                    var itemsRef = (String) items.get("$ref");
+                    if (itemsRef == null) {
+                        type = stringPool.arrayLabel(itemsType);
+                    } else {
+                        var subRefEnum = getRefEnum(itemsRef);
+                        if (subRefEnum != null) {
+                            type = stringPool.arrayLabel(subRefEnum.getType());
+                            enumValue = subRefEnum.getEnumValues();
+                        } else {
+                            type = "array[object]";
+                            subRef = itemsRef;
+                        }
+                    }
+                }
+
+                if (subRef == null) {
+                    type = stringPool.typeLabel(type, (String) property.get("format"));
+                    if (type == null && property.get("oneOf") != null) {
+                        // oneOf 比較複雜，先不實作，固定傳 object
+                        type = "object";
+                    }
+                } else {
+                    enumValue = null;
+                }
+
+                var path = parentPath == null ? ParameterPath.root(index) : parentPath.child(index);
+                var depth = path.getDepth();
+                var parameter = new Parameter();
+                parameter.setPath(path);
+                parameter.setName(fieldName);
+                parameter.setType(type);
+                parameter.setDescription(description);
+                parameter.setRequired(required);
+                parameter.setEnumValues(enumValue);
+                parameter.setExample(example);
+                rows.add(parameter);
+
+                if (subRef != null) {
+                    addRef(subRef, parameter);
+                } else if ("object".equals(type)) {
+                    var subProperties = (LinkedHashMap<String, LinkedHashMap<String, ?>>) property.get("properties");
+                    if (subProperties != null && !subProperties.isEmpty()) {
+                        if (depth >= depthLimit) {
+                            markDepthLimited(parameter);
+                        } else {
+                            addProperties(subProperties, null, path);
+                        }
+                    }
+                }
+                index++;
+            }
+        }
+
+        private void addRef(String ref, Parameter parameter) {
+            var depth = parameter.getPath().getDepth();
+            var ancestorIndex = ancestors.lastIndexOf(ref);
+            if (ancestorIndex >= 0) {
+                // 祖先中已有相同的 ref 就不再展開，避免無限迴圈造成 StackOverflowError
+                // 直接參照自己 (A -> A) 的結果與所在位置無關，不影響快取
+                if (ancestorIndex < ancestors.size() - 1) {
+                    cutDepth = Math.min(cutDepth, ancestorIndex);
+                    cyclicRefs.addAll(ancestors.subList(ancestorIndex, ancestors.size()));
+                }
+                return;
+            }
+            if (depth >= depthLimit) {
+                if (hasProperties(ref)) {
+                    markDepthLimited(parameter);
+                }
+                return;
+            }
+            var expansion = expandRef(ref, ancestors, depthLimit - depth, capacity - rows.size());
+            refs.add(ref);
+            refs.addAll(expansion.refs());
+            cutDepth = Math.min(cutDepth, expansion.cutDepth());
+            depthLimited |= expansion.depthLimited();
+            capacityLimited |= expansion.capacityLimited();
+            append(expansion.rows(), parameter.getPath());
+        }
+
+        // 將子模板接到 parentPath 下後加入，模板依先序排列，以各層最後一個節點作為下一層的父節點
+        private void append(List<Parameter> childRows, ParameterPath parentPath) {
+            var depth = parentPath.getDepth();
+            var parents = new ArrayList<ParameterPath>();
+            parents.add(parentPath);
+            for (int i = 0; i < childRows.size(); i++) {
+                var row = childRows.get(i);
+                var rowPath = row.getPath();
+                var rowDepth = depth + rowPath.getDepth();
+                if (rowDepth > depthLimit) {
+                    depthLimited = true;
+                    continue;
+                }
+                if (rows.size() >= capacity) {
+                    capacityLimited = true;
+                    return;
+                }
+                var path = parents.get(rowPath.getDepth() - 1).child(rowPath.getIndex());
+                if (rowPath.getDepth() < parents.size()) {
+                    parents.set(rowPath.getDepth(), path);
+                } else {
+                    parents.add(path);
+                }
+                var parameter = copy(row, path);
+                if (rowDepth == depthLimit && hasChildren(childRows, i)) {
+                    markDepthLimited(parameter);
+                }
+                rows.add(parameter);
+            }
+        }
+
+        private boolean hasChildren(List<Parameter> rows, int index) {
+            return index + 1 < rows.size()
+                && rows.get(index + 1).getPath().getDepth() > rows.get(index).getPath().getDepth();
+        }
+
+        private void markDepthLimited(Parameter parameter) {
+            depthLimited = true;
+            addMarker(parameter, MAX_DEPTH_MARKER.formatted(maxDepth));
+        }
+    }
+
+    // rows 依先序排列，parameter 的 path 為相對於模板的位置，refs 為展開過的 ref (不含自己)
+    private record Expansion(
+        List<Parameter> rows,
+        int cutDepth,
+        boolean depthLimited,
+        boolean capacityLimited,
+        Set<String> refs) {
+        static final Expansion EMPTY = new Expansion(List.of(), NO_CUT, false, false, Set.of());
+    }
+
+}
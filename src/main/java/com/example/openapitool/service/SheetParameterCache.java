@@ -0,0 +1,121 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.model.sheet.OtherParameter;
+import com.example.openapitool.model.sheet.PayloadParameter;
+import com.example.openapitool.model.sheet.SheetParameter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+
+// 以 API 的 fingerprint 快取轉換後的 SheetParameter (LRU)，文件更新時只需重新轉換有異動的 API
+// 與 ConversionCache 相同以估計的總 byte 數為上限，另外限制筆數
+@Component
+public class SheetParameterCache {
+
+    // 物件 header、欄位與 List 參照的估計大小
+    private static final int OBJECT_OVERHEAD = 64;
+
+    @Value("${open-api-tool.cache.enabled:true}")
+    boolean enabled;
+
+    @Value("${open-api-tool.cache.operation-max-entries:20000}")
+    int maxEntries;
+
+    @Value("${open-api-tool.cache.operation-max-size:64MB}")
+    DataSize maxSize;
+
+    private final LinkedHashMap<String, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    // 快取的 SheetParameter 會被多次轉換共用，取出後只能複製不能修改
+    public SheetParameter get(String fingerprint) {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (cache) {
+            var entry = cache.get(fingerprint);
+            return entry == null ? null : entry.sheetParameter();
+        }
+    }
+
+    public void put(String fingerprint, SheetParameter sheetParameter) {
+        if (!enabled) {
+            return;
+        }
+        var entrySize = estimate(sheetParameter);
+        // 超過上限的 API 不快取
+        if (entrySize > maxSize.toBytes()) {
+            return;
+        }
+        synchronized (cache) {
+            var previous = cache.put(fingerprint, new Entry(sheetParameter, entrySize));
+            if (previous != null) {
+                size -= previous.size();
+            }
+            size += entrySize;
+            var iterator = cache.values().iterator();
+            while ((cache.size() > maxEntries || size > maxSize.toBytes()) && iterator.hasNext()) {
+                size -= iterator.next().size();
+                iterator.remove();
+            }
+        }
+    }
+
+    long size() {
+        synchronized (cache) {
+            return size;
+        }
+    }
+
+    // 同一份文件中相同 schema 的參數會共用，這裡分別計算，估計值偏大
+    static long estimate(SheetParameter sheetParameter) {
+        long bytes = OBJECT_OVERHEAD
+            + sizeOf(sheetParameter.getPath())
+            + sizeOf(sheetParameter.getSummary())
+            + sizeOf(sheetParameter.getHttpMethod())
+            + sizeOf(sheetParameter.getContentType())
+            + sizeOf(sheetParameter.getMemo())
+            + sizeOf(sheetParameter.getRequestExample())
+            + sizeOf(sheetParameter.getResponseExample());
+        if (sheetParameter.getOtherParameters() != null) {
+            for (OtherParameter parameter : sheetParameter.getOtherParameters()) {
+                bytes += OBJECT_OVERHEAD
+                    + sizeOf(parameter.getIn())
+                    + sizeOf(parameter.getName())
+                    + sizeOf(parameter.getType())
+                    + sizeOf(parameter.getRequired())
+                    + sizeOf(parameter.getDescription());
+            }
+        }
+        bytes += sizeOf(sheetParameter.getRequestParameters());
+        bytes += sizeOf(sheetParameter.getResponseParameters());
+        return bytes;
+    }
+
+    private static long sizeOf(List<? extends PayloadParameter> parameters) {
+        if (parameters == null) {
+            return 0;
+        }
+        long bytes = 0;
+        for (PayloadParameter parameter : parameters) {
+            // path 與列舉值以固定大小估計
+            bytes += OBJECT_OVERHEAD * 2
+                + sizeOf(parameter.getName())
+                + sizeOf(parameter.getType())
+                + sizeOf(parameter.getDescription())
+                + (parameter.getEnumValues() == null ? 0 : (long) parameter.getEnumValues().size() * OBJECT_OVERHEAD);
+        }
+        return bytes;
+    }
+
+    private static long sizeOf(String value) {
+        return value == null ? 0 : OBJECT_OVERHEAD + (long) value.length() * 2;
+    }
+
+    private record Entry(SheetParameter sheetParameter, long size) {
+    }
+
+}
@@ -1,29 +1,38 @@
 package com.example.openapitool.service;
 
-import com.example.openapitool.constant.TemplateType;
+import com.example.openapitool.constant.OutputFormat;
+import com.example.openapitool.constant.RenderEngine;
+import com.example.openapitool.constant.XlsxCompression;
+import com.example.openapitool.exception.BadRequestException;
+import com.example.openapitool.model.ConvertOption;
+import com.example.openapitool.model.SpecContent;
 import com.example.openapitool.model.open_api.*;
 import com.example.openapitool.model.sheet.*;
-import com.example.openapitool.util.JsonUtils;
-import com.example.openapitool.util.YamlUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.openapitool.service.render.SheetRenderer;
+import com.example.openapitool.service.render.StreamingSheetWriter;
+import com.example.openapitool.service.render.TemplateRegistry;
+import com.example.openapitool.util.HashUtils;
+import com.example.openapitool.util.SizeLimitInputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jxls.common.Context;
-import org.jxls.util.JxlsHelper;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
+import org.springframework.boot.info.BuildProperties;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.unit.DataSize;
 
+import java.io.InputStream;
 import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @SuppressWarnings("unchecked")
@@ -32,74 +41,238 @@ import java.util.stream.Collectors;
 @Service
 public class SheetService {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
     private final OpenApiSpecService openApiSpecService;
+    private final StreamingSheetWriter streamingSheetWriter;
+    private final TemplateRegistry templateRegistry;
+    private final ConversionCache conversionCache;
+    private final ConversionAdmission conversionAdmission;
+    private final ConversionMetrics conversionMetrics;
+    private final SheetParameterCache sheetParameterCache;
+    private final List<SheetRenderer> sheetRenderers;
+    private final ObjectProvider<BuildProperties> buildProperties;
+
+    @Value("${open-api-tool.input.max-size:50MB}")
+    DataSize maxInputSize;
+
+    @Value("${open-api-tool.render.engine:AUTO}")
+    RenderEngine renderEngine;
+
+    // AUTO 模式下，API 數量達到門檻時改用 STREAMING 輸出
+    @Value("${open-api-tool.render.streaming-threshold:1000}")
+    int streamingThreshold;
+
+    // xlsx 的壓縮等級，可由請求指定
+    @Value("${open-api-tool.render.compression:DEFAULT}")
+    XlsxCompression compression;
+
+    public void convertOpenApiToSheet(ConvertOption option, InputStream openApiInputStream, OutputStream outputStream) {
+        convertOpenApiToSheet(option, readSpec(openApiInputStream), outputStream);
+    }
+
+    @SneakyThrows
+    public SpecContent readSpec(InputStream openApiInputStream) {
+        try (var inputStream = new SizeLimitInputStream(openApiInputStream, maxInputSize.toBytes())) {
+            var content = inputStream.readAllBytes();
+            return new SpecContent(content, HashUtils.sha256Normalized(content));
+        }
+    }
 
-    @Value("classpath:templates/api-spec-template.xlsx")
-    Resource dafaultTemplateResource;
+    // 相同內容 (與位置，相對路徑的外部 $ref 依位置解析)、參照的外部文件內容與輸出選項會得到相同的 key，同時作為回應的 ETag
+    // key 包含模板內容與程式的建置版本，升級後不會沿用磁碟快取中舊版本產生的檔案
+    public String getCacheKey(SpecContent spec, ConvertOption option) {
+        return getCacheKey(new PreparedSpec(spec), option);
+    }
 
-    @Value("classpath:templates/api-spec-template-simple.xlsx")
-    Resource simpleTemplateResource;
+    // 同一個請求先計算 ETag 再轉換時傳入同一個 PreparedSpec，外部 $ref 只解析一次
+    public String getCacheKey(PreparedSpec prepared, ConvertOption option) {
+        var spec = prepared.getSpec();
+        var template = templateRegistry.get(option.getTemplateType());
+        var engine = option.getRenderEngine() == null ? renderEngine : option.getRenderEngine();
+        return HashUtils.sha256(
+            spec.getContentHash(),
+            String.valueOf(spec.getLocation()),
+            String.valueOf(openApiSpecService.getExternalRefHash(prepared)),
+            template.name(),
+            template.contentHash(),
+            getBuildVersion(),
+            engine.name(),
+            option.getOutputFormat().name(),
+            getCompression(option.getCompression()).name());
+    }
 
-    @SneakyThrows
-    public void convertOpenApiToSheet(TemplateType templateType, byte[] openApiBytes, OutputStream outputStream) {
-        var content = readFileContent(openApiBytes);
-        convertOpenApiToSheet(templateType, content, outputStream);
+    // 未產生 build-info (例如在 IDE 中執行) 時以 dev 代替
+    private String getBuildVersion() {
+        var properties = buildProperties.getIfAvailable();
+        return properties == null ? "dev" : "%s@%s".formatted(properties.getVersion(), properties.getTime());
+    }
+
+    public void convertOpenApiToSheet(ConvertOption option, SpecContent spec, OutputStream outputStream) {
+        convertOpenApiToSheet(option, new PreparedSpec(spec), outputStream);
     }
 
     @SneakyThrows
-    public void convertOpenApiToSheet(TemplateType templateType, String openApiContent, OutputStream outputStream) {
-        var content = readJsonContent(openApiContent);
-        var openApiDoc = openApiSpecService.getOpenApiDoc(content);
-        var sheetParameters = convertToSheetParameter(openApiDoc);
-        // 輸出到 excel
-        try (var inputStream = getTemplateResource(templateType).getInputStream()) {
-            var context = new Context();
-            context.putVar("sheetParameters", sheetParameters);
-            JxlsHelper.getInstance().processTemplate(inputStream, outputStream, context);
+    public void convertOpenApiToSheet(ConvertOption option, PreparedSpec prepared, OutputStream outputStream) {
+        var spec = prepared.getSpec();
+        var cacheKey = option.isCacheDisabled() ? null : getCacheKey(prepared, option);
+        var cached = cacheKey == null ? null : conversionCache.get(cacheKey);
+        if (cached != null) {
+            outputStream.write(cached);
+            return;
+        }
+        var recorder = startMetrics(option);
+        recorder.recordInputBytes(spec.getContent().length);
+        // 快取命中不佔用記憶體預算，只有實際解析與輸出時才需要放行
+        try (var ignored = conversionAdmission.acquire(spec)) {
+            // 已有轉換結果的 API 不需要展開 $ref，取出的結果保留到輸出為止，不受快取淘汰影響
+            var reused = new ConcurrentHashMap<String, SheetParameter>();
+            var openApiDoc = openApiSpecService.getOpenApiDoc(prepared, recorder, fingerprint -> {
+                var sheetParameter = sheetParameterCache.get(fingerprint);
+                if (sheetParameter == null) {
+                    return false;
+                }
+                reused.put(fingerprint, sheetParameter);
+                return true;
+            });
+            if (cacheKey == null) {
+                convertOpenApiToSheet(option, openApiDoc, outputStream, recorder, reused);
+                return;
+            }
+            var entryOutputStream = conversionCache.newEntryStream(outputStream);
+            convertOpenApiToSheet(option, openApiDoc, entryOutputStream, recorder, reused);
+            conversionCache.put(cacheKey, entryOutputStream);
         }
     }
 
-    @SneakyThrows
-    private String readFileContent(byte[] txtBytes) {
-        var tmpFile = Paths.get(FileUtils.getTempDirectory().getPath(), UUID.randomUUID().toString()).toFile();
-        FileUtils.writeByteArrayToFile(tmpFile, txtBytes);
-        var content = FileUtils.readFileToString(tmpFile, StandardCharsets.UTF_8);
-        tmpFile.delete();
-        return content;
+    public void convertOpenApiToSheet(ConvertOption option, OpenApiDoc openApiDoc, OutputStream outputStream) {
+        convertOpenApiToSheet(option, openApiDoc, outputStream, startMetrics(option), Map.of());
     }
 
-    private String readJsonContent(String content) {
-        if (!JsonUtils.isJson(content)) {
-            content = YamlUtils.convertYamlToJson(content);
+    @SneakyThrows
+    private void convertOpenApiToSheet(
+        ConvertOption option,
+        OpenApiDoc openApiDoc,
+        OutputStream outputStream,
+        ConversionMetrics.Recorder recorder,
+        Map<String, SheetParameter> reused) {
+        var sheetParameters = convertToSheetParameter(openApiDoc, recorder, reused);
+        var template = templateRegistry.get(option.getTemplateType());
+        var countingOutputStream = new CountingOutputStream(outputStream);
+        var xlsxCompression = getCompression(option.getCompression());
+        var start = System.nanoTime();
+        // 文字格式不經過 workbook，直接輸出
+        if (option.getOutputFormat() != OutputFormat.XLSX) {
+            getSheetRenderer(option.getOutputFormat()).render(sheetParameters, countingOutputStream);
+        } else if (getRenderEngine(option.getRenderEngine(), sheetParameters.size()) == RenderEngine.STREAMING) {
+            streamingSheetWriter.write(template, sheetParameters, xlsxCompression, countingOutputStream);
+        } else {
+            // POI 收到 ZipArchiveOutputStream 時會直接寫入，不會再建立預設壓縮等級的 zip stream
+            try (var zipOutputStream = new ZipArchiveOutputStream(countingOutputStream)) {
+                zipOutputStream.setLevel(xlsxCompression.getLevel());
+                var context = new Context();
+                context.putVar("sheetParameters", sheetParameters);
+                template.jxlsTemplate().process(context, zipOutputStream);
+            }
         }
-        return content;
+        recorder.recordStage("render", start);
+        recorder.recordOutputBytes(countingOutputStream.getByteCount());
+    }
+
+    private ConversionMetrics.Recorder startMetrics(ConvertOption option) {
+        return conversionMetrics.start(templateRegistry.get(option.getTemplateType()).name(), option.getEndpoint());
+    }
+
+    private SheetRenderer getSheetRenderer(OutputFormat outputFormat) {
+        return sheetRenderers.stream()
+            .filter(sheetRenderer -> sheetRenderer.getOutputFormat() == outputFormat)
+            .findFirst()
+            .orElseThrow(() -> new BadRequestException("Unsupported output format: %s".formatted(outputFormat)));
+    }
+
+    private XlsxCompression getCompression(XlsxCompression requestCompression) {
+        return requestCompression == null ? compression : requestCompression;
     }
 
-    private Resource getTemplateResource(TemplateType templateType) {
-        if (templateType == null) {
-            return dafaultTemplateResource;
+    private RenderEngine getRenderEngine(RenderEngine requestEngine, int apiCount) {
+        var engine = requestEngine == null ? renderEngine : requestEngine;
+        if (engine == RenderEngine.AUTO) {
+            return apiCount >= streamingThreshold ? RenderEngine.STREAMING : RenderEngine.JXLS;
         }
-        return switch (templateType) {
-            case DEFAULT -> dafaultTemplateResource;
-            case SIMPLE -> simpleTemplateResource;
-        };
+        return engine;
     }
 
-    private List<SheetParameter> convertToSheetParameter(OpenApiDoc openApiDoc) {
+    List<SheetParameter> convertToSheetParameter(OpenApiDoc openApiDoc) {
+        return convertToSheetParameter(openApiDoc, ConversionMetrics.Recorder.NOOP, Map.of());
+    }
+
+    // 內容未異動的 API (fingerprint 相同) 直接使用快取的 SheetParameter，reused 為解析時已取出 (沒有展開 $ref) 的結果
+    private List<SheetParameter> convertToSheetParameter(
+        OpenApiDoc openApiDoc,
+        ConversionMetrics.Recorder recorder,
+        Map<String, SheetParameter> reused) {
+        var start = System.nanoTime();
         var sheetParameterList = new ArrayList<SheetParameter>();
+        var sharedParameters = new SharedParameters();
+        long rows = 0;
         int index = 1;
         for (Group group : openApiDoc.getGroups()) {
             for (Api api : group.getApis()) {
-                sheetParameterList.add(getSheetParameter(index, api));
+                var fingerprint = api.getFingerprint();
+                var cached = fingerprint == null ? null : reused.get(fingerprint);
+                if (cached == null && fingerprint != null) {
+                    cached = sheetParameterCache.get(fingerprint);
+                }
+                SheetParameter sheetParameter;
+                if (cached != null) {
+                    sheetParameter = withIndex(cached, index);
+                } else {
+                    sheetParameter = getSheetParameter(index, api, sharedParameters);
+                    if (fingerprint != null) {
+                        sheetParameterCache.put(fingerprint, sheetParameter);
+                    }
+                }
+                rows += countRows(sheetParameter);
+                sheetParameterList.add(sheetParameter);
                 index++;
             }
         }
+        recorder.recordStage("sheet", start);
+        recorder.recordRows(rows);
         return sheetParameterList;
     }
 
-    private SheetParameter getSheetParameter(int index, Api api) {
-        var otherParameterList = getOtherParameters(api);
+    // 快取的 SheetParameter 會被共用，只複製外層並設定序號
+    private static SheetParameter withIndex(SheetParameter sheetParameter, int index) {
+        return new SheetParameter(
+            index,
+            sheetParameter.getPath(),
+            sheetParameter.getSummary(),
+            sheetParameter.getHttpMethod(),
+            sheetParameter.getContentType(),
+            sheetParameter.getMemo(),
+            sheetParameter.getOtherParameters(),
+            sheetParameter.getRequestParameters(),
+            sheetParameter.getRequestExample(),
+            sheetParameter.getResponseParameters(),
+            sheetParameter.getResponseExample(),
+            sheetParameter.getShowOtherParameters(),
+            sheetParameter.getShowRequestParameters(),
+            sheetParameter.getShowRequestExample(),
+            sheetParameter.getShowResponseParameters(),
+            sheetParameter.getShowResponseExample());
+    }
+
+    private static long countRows(SheetParameter sheetParameter) {
+        return sizeOf(sheetParameter.getOtherParameters())
+            + sizeOf(sheetParameter.getRequestParameters())
+            + sizeOf(sheetParameter.getResponseParameters());
+    }
+
+    private static int sizeOf(Collection<?> collection) {
+        return collection == null ? 0 : collection.size();
+    }
+
+    private SheetParameter getSheetParameter(int index, Api api, SharedParameters sharedParameters) {
+        var otherParameterList = getOtherParameters(api, sharedParameters);
         var sheetParameter = new SheetParameter();
         sheetParameter.setIndex(index);
         sheetParameter.setPath(api.getPath());
@@ -108,31 +281,36 @@ public class SheetService {
         sheetParameter.setContentType("application/json");
         sheetParameter.setMemo(BooleanUtils.isTrue(api.getDeprecated()) ? "deprecated" : null);
         sheetParameter.setOtherParameters(otherParameterList);
-        setRequestParametersAndExample(sheetParameter, api.getRequestPayloads());
-        setResponseParametersAndExample(sheetParameter, api.getResponsePayloads());
+        setRequestParametersAndExample(sheetParameter, api.getRequestPayloads(), sharedParameters);
+        setResponseParametersAndExample(sheetParameter, api.getResponsePayloads(), sharedParameters);
         setShow(sheetParameter);
         return sheetParameter;
     }
 
-    private void setRequestParametersAndExample(SheetParameter sheetParameter, List<RequestPayload> requestPayloads) {
+    private void setRequestParametersAndExample(
+        SheetParameter sheetParameter,
+        List<RequestPayload> requestPayloads,
+        SharedParameters sharedParameters) {
         if (!CollectionUtils.isEmpty(requestPayloads)) {
             var requestPayload = requestPayloads.get(0);
             var parameter = requestPayload.getParameters();
-            var requestParameter = toRequestParameter(parameter);
+            var requestParameter = sharedParameters.requestParameters
+                .computeIfAbsent(parameter, key -> toRequestParameter(key, sharedParameters));
             sheetParameter.setRequestParameters(requestParameter);
             var payloadExamples = requestPayload.getPayloadExamples();
             if (!CollectionUtils.isEmpty(payloadExamples)) {
                 var payloadExample = payloadExamples.get(0);
                 sheetParameter.setRequestExample(payloadExample.getValue());
             } else {
-                sheetParameter.setRequestExample(getDefaultExampleFromRequest(requestParameter));
+                sheetParameter.setRequestExample(requestPayload.getDefaultExample());
             }
         }
     }
 
     private void setResponseParametersAndExample(
         SheetParameter sheetParameter,
-        List<ResponsePayload> responsePayloads) {
+        List<ResponsePayload> responsePayloads,
+        SharedParameters sharedParameters) {
         if (!CollectionUtils.isEmpty(responsePayloads)) {
             // 只顯示 200 的 response
             var successResponsePayloads = responsePayloads.stream()
@@ -141,107 +319,101 @@ public class SheetService {
             if (!CollectionUtils.isEmpty(successResponsePayloads)) {
                 var responsePayload = successResponsePayloads.get(0);
                 var parameter = responsePayload.getParameters();
-                var responseParameter = toResponseParameter(parameter);
+                var responseParameter = sharedParameters.responseParameters
+                    .computeIfAbsent(parameter, key -> toResponseParameter(key, sharedParameters));
                 var payloadExample = responsePayload.getPayloadExample();
                 sheetParameter.setResponseParameters(responseParameter);
                 if (payloadExample != null) {
                     sheetParameter.setResponseExample(payloadExample);
                 } else {
-                    sheetParameter.setResponseExample(getDefaultExampleFromResponse(responseParameter));
+                    sheetParameter.setResponseExample(responsePayload.getDefaultExample());
                 }
             }
         }
     }
 
-    private ArrayList<OtherParameter> getOtherParameters(Api api) {
+    private ArrayList<OtherParameter> getOtherParameters(Api api, SharedParameters sharedParameters) {
         var otherParameterList = new ArrayList<OtherParameter>();
 
         var requestsPathParameters = api.getRequestsPathParameters();
         if (!CollectionUtils.isEmpty(requestsPathParameters)) {
             requestsPathParameters.forEach(pathParameter ->
-                otherParameterList.add(toOtherParameter("path", pathParameter))
+                otherParameterList.add(toOtherParameter("path", pathParameter, sharedParameters))
             );
         }
 
         var requestsHeaderParameters = api.getRequestsHeaderParameters();
         if (!CollectionUtils.isEmpty(requestsHeaderParameters)) {
             requestsHeaderParameters.forEach(pathParameter ->
-                otherParameterList.add(toOtherParameter("header", pathParameter))
+                otherParameterList.add(toOtherParameter("header", pathParameter, sharedParameters))
             );
         }
 
         var requestsQueryParameters = api.getRequestsQueryParameters();
         if (!CollectionUtils.isEmpty(requestsQueryParameters)) {
             requestsQueryParameters.forEach(pathParameter ->
-                otherParameterList.add(toOtherParameter("query", pathParameter))
+                otherParameterList.add(toOtherParameter("query", pathParameter, sharedParameters))
             );
         }
         return otherParameterList;
     }
 
-    private OtherParameter toOtherParameter(String in, Parameter parameter) {
+    private OtherParameter toOtherParameter(String in, Parameter parameter, SharedParameters sharedParameters) {
         var otherParameter = new OtherParameter();
         otherParameter.setIn(in);
         otherParameter.setName(parameter.getName());
         otherParameter.setType(parameter.getType());
         otherParameter.setMaxLength(parameter.getMaxLength());
         otherParameter.setRequired(toYN(parameter.getRequired()));
-        otherParameter.setDescription(getDescription(parameter));
+        otherParameter.setDescription(getDescription(parameter, sharedParameters));
         return otherParameter;
     }
 
-    private List<RequestParameter> toRequestParameter(List<Parameter> parameters) {
+    private List<RequestParameter> toRequestParameter(List<Parameter> parameters, SharedParameters sharedParameters) {
         if (CollectionUtils.isEmpty(parameters)) {
             return Collections.emptyList();
         }
         return parameters.stream().map(parameter -> {
             var requestParameter = new RequestParameter();
-            requestParameter.setSequence(parameter.getSequence());
+            requestParameter.setPath(parameter.getPath());
             requestParameter.setName(parameter.getName());
             requestParameter.setType(parameter.getType());
             requestParameter.setMaxLength(parameter.getMaxLength());
             requestParameter.setRequired(toYN(parameter.getRequired()));
-            requestParameter.setDescription(getDescription(parameter));
+            requestParameter.setDescription(getDescription(parameter, sharedParameters));
             requestParameter.setEnumValues(parameter.getEnumValues());
             return requestParameter;
         }).toList();
     }
 
-    private List<ResponseParameter> toResponseParameter(List<Parameter> parameters) {
+    private List<ResponseParameter> toResponseParameter(List<Parameter> parameters, SharedParameters sharedParameters) {
         if (CollectionUtils.isEmpty(parameters)) {
             return Collections.emptyList();
         }
         return parameters.stream().map(parameter -> {
             var responseParameter = new ResponseParameter();
-            responseParameter.setSequence(parameter.getSequence());
+            responseParameter.setPath(parameter.getPath());
             responseParameter.setName(parameter.getName());
             responseParameter.setType(parameter.getType());
             responseParameter.setMaxLength(parameter.getMaxLength());
-            responseParameter.setDescription(getDescription(parameter));
+            responseParameter.setDescription(getDescription(parameter, sharedParameters));
             responseParameter.setEnumValues(parameter.getEnumValues());
             return responseParameter;
         }).toList();
     }
 
-    private String getDescription(Parameter parameter) {
+    private String getDescription(Parameter parameter, SharedParameters sharedParameters) {
         var description = parameter.getDescription();
         if (CollectionUtils.isEmpty(parameter.getEnumValues())) {
             return description;
         }
-        var allowValue = parameter.getEnumValues().stream().map(Object::toString)
-            .collect(Collectors.joining(","));
+        // 同一個 enum 的可用值只組一次
+        var allowValue = sharedParameters.allowValues.computeIfAbsent(parameter.getEnumValues(), enumValues ->
+            enumValues.stream().map(Object::toString).collect(Collectors.joining(",")));
         if (StringUtils.isEmpty(description)) {
-            return "allowable values: %s".formatted(allowValue);
+            return sharedParameters.stringPool.intern("allowable values: %s".formatted(allowValue));
         }
-        return "%s (allowable values: %s)".formatted(description, allowValue);
-    }
-
-    private String getDefaultExampleFromRequest(List<RequestParameter> parameters) {
-        return getDefaultExample(parameters.stream().map(PayloadParameter.class::cast).toList());
-    }
-
-    private String getDefaultExampleFromResponse(List<ResponseParameter> parameters) {
-        return getDefaultExample(parameters.stream().map(PayloadParameter.class::cast).toList());
+        return sharedParameters.stringPool.intern("%s (allowable values: %s)".formatted(description, allowValue));
     }
 
     private void setShow(SheetParameter sheetParameter) {
@@ -252,69 +424,6 @@ public class SheetService {
         sheetParameter.setShowResponseExample(!StringUtils.isEmpty(sheetParameter.getResponseExample()));
     }
 
-    private String getDefaultExample(List<PayloadParameter> parameters) {
-        if (CollectionUtils.isEmpty(parameters)) {
-            return null;
-        }
-
-        try {
-            var defaultMap = new LinkedHashMap<String, Object>();
-            var tmpLevelMap = new LinkedHashMap<Integer, LinkedHashMap<String, Object>>();
-            tmpLevelMap.put(1, defaultMap);
-            for (PayloadParameter parameter : parameters) {
-                var type = parameter.getType();
-                boolean isArray = isArray(type);
-                if (isArray) {
-                    type = getArrayType(type);
-                }
-                var value = getExampleValue(parameter, type);
-                var level = getLevel(parameter.getSequence());
-                if (type.equals("object")) {
-                    tmpLevelMap.put(level + 1, (LinkedHashMap<String, Object>) value);
-                }
-                tmpLevelMap.get(level).put(parameter.getName(), isArray ? List.of(value) : value);
-            }
-            return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(defaultMap);
-        } catch (Exception e) {
-            log.warn(e.getMessage(), e);
-            return null;
-        }
-    }
-
-    private static Object getExampleValue(PayloadParameter parameter, String type) {
-        Object value;
-        if(!CollectionUtils.isEmpty(parameter.getEnumValues())){
-            value = parameter.getEnumValues().get(0);
-        }else {
-            // 目前只列出有用到的類型，後續可依需求擴充
-            value = switch (type) {
-                case "string", "string($byte)", "string($binary)" -> "string";
-                case "string($date)" -> "2023-12-31";
-                case "string($date-time)" -> "2023-12-31T00:00:00.000Z";
-                case "number", "number($bigdecimal)" -> 1;
-                case "integer", "integer($int32)", "integer($int64)" -> 0;
-                case "boolean" -> true;
-                case "object" -> new LinkedHashMap<String, Object>();
-                default -> throw new IllegalStateException("Unexpected value: " + type);
-            };
-        }
-        return value;
-    }
-
-    private int getLevel(String sequence) {
-        return sequence.split("\\.").length;
-    }
-
-    private boolean isArray(String type) {
-        return type.startsWith("array");
-    }
-
-    private String getArrayType(String type) {
-        return type.replace("array", "")
-            .replace("[", "")
-            .replace("]", "");
-    }
-
     private String toYN(Boolean bool) {
         if (bool == null) {
             return null;
@@ -322,4 +431,13 @@ public class SheetService {
         return bool ? "Y" : "N";
     }
 
+    // 一次轉換中共用的結果，多個 API 參照同一個 schema 時 (payload 參數清單為同一個實例) 只轉換一次
+    // 轉換後的清單會被多個 SheetParameter 共用，不可修改
+    private static class SharedParameters {
+        private final Map<List<Parameter>, List<RequestParameter>> requestParameters = new IdentityHashMap<>();
+        private final Map<List<Parameter>, List<ResponseParameter>> responseParameters = new IdentityHashMap<>();
+        private final Map<List<Object>, String> allowValues = new IdentityHashMap<>();
+        private final StringPool stringPool = new StringPool();
+    }
+
 }
@@ -0,0 +1,68 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.model.SpecContent;
+import com.example.openapitool.model.SpecDiff;
+import com.example.openapitool.model.open_api.Api;
+import com.example.openapitool.model.open_api.Group;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// 比較兩份文件各 API 的 fingerprint，不需要輸出 excel
+@RequiredArgsConstructor
+@Service
+public class SpecDiffService {
+
+    private final OpenApiSpecService openApiSpecService;
+    private final ConversionAdmission conversionAdmission;
+
+    public SpecDiff diff(SpecContent base, SpecContent target) {
+        var baseFingerprints = getFingerprints(base);
+        var targetFingerprints = getFingerprints(target);
+        var added = new ArrayList<String>();
+        var removed = new ArrayList<String>();
+        var changed = new ArrayList<String>();
+        int unchanged = 0;
+        for (Map.Entry<String, String> entry : targetFingerprints.entrySet()) {
+            var baseFingerprint = baseFingerprints.get(entry.getKey());
+            if (baseFingerprint == null) {
+                added.add(entry.getKey());
+            } else if (!Objects.equals(baseFingerprint, entry.getValue())) {
+                changed.add(entry.getKey());
+            } else {
+                unchanged++;
+            }
+        }
+        baseFingerprints.keySet().stream()
+            .filter(key -> !targetFingerprints.containsKey(key))
+            .forEach(removed::add);
+        return SpecDiff.builder()
+            .added(added)
+            .removed(removed)
+            .changed(changed)
+            .unchanged(unchanged)
+            .build();
+    }
+
+    // 一次只解析一份文件，fingerprint 以原始內容計算，不需要展開 $ref
+    // key 為 "<HTTP METHOD> <path>"，有多個 tag 的 API 只計算一次
+    private Map<String, String> getFingerprints(SpecContent spec) {
+        try (var ignored = conversionAdmission.acquire(spec)) {
+            var openApiDoc = openApiSpecService.getOpenApiDoc(
+                new PreparedSpec(spec), ConversionMetrics.Recorder.NOOP, fingerprint -> true);
+            var fingerprints = new LinkedHashMap<String, String>();
+            for (Group group : openApiDoc.getGroups()) {
+                for (Api api : group.getApis()) {
+                    fingerprints.putIfAbsent(
+                        OperationFingerprinter.getOperationKey(api.getHttpMethod(), api.getPath()), api.getFingerprint());
+                }
+            }
+            return fingerprints;
+        }
+    }
+
+}
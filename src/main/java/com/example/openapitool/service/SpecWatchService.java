@@ -0,0 +1,296 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.constant.OutputFormat;
+import com.example.openapitool.exception.BadRequestException;
+import com.example.openapitool.exception.NotFoundException;
+import com.example.openapitool.exception.ServiceUnavailableException;
+import com.example.openapitool.model.ConvertOption;
+import com.example.openapitool.model.SpecContent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+// 監看 open-api-tool.watch.dir 目錄中的 open api 檔案，異動後 (debounce) 在背景依設定的模板轉換，
+// 結果以 <檔名 (含副檔名)>.<模板>.xlsx 寫在 spec 旁 (先寫暫存檔再 atomic move)，下載時直接讀取檔案，不在請求中轉換
+// 同一個 spec 的轉換依序執行，後來的異動不會被先前較慢的轉換覆寫；結果已保存為檔案，不放入轉換結果快取
+// 轉換同樣經過 ConversionAdmission，排隊逾時則在 retry-delay 後重試
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class SpecWatchService {
+
+    private static final List<String> SPEC_EXTENSIONS = List.of(".json", ".yaml", ".yml");
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final SheetService sheetService;
+
+    // 未設定時不監看
+    @Value("${open-api-tool.watch.dir:}")
+    String watchDir;
+
+    // 每個 spec 要預先轉換的模板
+    @Value("${open-api-tool.watch.templates:DEFAULT}")
+    List<String> templates;
+
+    // 檔案異動後等待的時間，期間再次異動會重新計時
+    @Value("${open-api-tool.watch.debounce:2s}")
+    Duration debounce;
+
+    @Value("${open-api-tool.watch.pool-size:1}")
+    int poolSize;
+
+    // 轉換名額不足 (排隊逾時) 時，等待後重新轉換
+    @Value("${open-api-tool.watch.retry-delay:1s}")
+    Duration retryDelay;
+
+    // 結束時等待進行中的轉換完成 (轉換不會因中斷而停止)，完成前仍佔用轉換名額
+    @Value("${open-api-tool.watch.shutdown-timeout:30s}")
+    Duration shutdownTimeout;
+
+    // key 為 spec 檔名 (含副檔名)，pets.json 與 pets.yaml 分別轉換
+    private final Map<String, Rendered> renderedSpecs = new ConcurrentHashMap<>();
+    private final Map<String, Object> renderLocks = new ConcurrentHashMap<>();
+    private final Map<Path, ScheduledFuture<?>> pending = new ConcurrentHashMap<>();
+    private Path dir;
+    private WatchService watchService;
+    private ExecutorService watcher;
+    private ScheduledExecutorService renderer;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!StringUtils.hasText(watchDir)) {
+            return;
+        }
+        dir = Files.createDirectories(Path.of(watchDir)).toRealPath();
+        renderer = Executors.newScheduledThreadPool(poolSize, new CustomizableThreadFactory("spec-render-"));
+        watchService = dir.getFileSystem().newWatchService();
+        dir.register(watchService,
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY,
+            StandardWatchEventKinds.ENTRY_DELETE);
+        watcher = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("spec-watch-"));
+        watcher.execute(this::watch);
+        scan();
+        log.info("Watching open api specs: {}, templates: {}", dir, templates);
+    }
+
+    @PreDestroy
+    public void destroy() throws IOException, InterruptedException {
+        if (dir == null) {
+            return;
+        }
+        watcher.shutdownNow();
+        watchService.close();
+        renderer.shutdownNow();
+        if (!renderer.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Spec render is still running after {}", shutdownTimeout);
+        }
+    }
+
+    public boolean isEnabled() {
+        return dir != null;
+    }
+
+    // 已轉換的 spec 檔名與模板
+    public Map<String, Set<String>> getRenderedSpecs() {
+        var result = new TreeMap<String, Set<String>>();
+        renderedSpecs.forEach((name, rendered) -> result.put(name, rendered.files().keySet()));
+        return result;
+    }
+
+    // 只回傳已轉換完成的檔案，name 為 spec 檔名 (只有一個同名的 spec 時可省略副檔名)
+    public Path getRenderedFile(String name, String templateType) {
+        var template = StringUtils.hasText(templateType) ? templateType : templates.get(0);
+        var rendered = isEnabled() ? findRendered(name) : null;
+        var file = rendered == null ? null : rendered.files().get(template);
+        if (file == null || !Files.exists(file)) {
+            throw new NotFoundException("Rendered spec not found: %s, template: %s".formatted(name, template));
+        }
+        return file;
+    }
+
+    private Rendered findRendered(String name) {
+        var rendered = renderedSpecs.get(name);
+        if (rendered != null) {
+            return rendered;
+        }
+        var matches = renderedSpecs.keySet().stream()
+            .filter(fileName -> getBaseName(fileName).equals(name))
+            .sorted()
+            .toList();
+        if (matches.size() > 1) {
+            throw new BadRequestException("Ambiguous spec name: %s, use one of %s".formatted(name, matches));
+        }
+        return matches.isEmpty() ? null : renderedSpecs.get(matches.get(0));
+    }
+
+    private void watch() {
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // 遺失事件時重新掃描整個目錄
+                    scan();
+                } else if (isSpec((Path) event.context())) {
+                    schedule(dir.resolve((Path) event.context()), debounce);
+                }
+            }
+            if (!key.reset()) {
+                log.warn("Watch directory is no longer accessible: {}", dir);
+                return;
+            }
+        }
+    }
+
+    private void scan() {
+        try (var stream = Files.list(dir)) {
+            stream.filter(path -> isSpec(path.getFileName()) && Files.isRegularFile(path))
+                .forEach(path -> schedule(path, Duration.ZERO));
+        } catch (IOException e) {
+            log.warn("Cannot list watch directory: {}", dir, e);
+        }
+    }
+
+    // 同一個檔案在 debounce 期間的異動只轉換一次
+    private void schedule(Path spec, Duration delay) {
+        pending.compute(spec, (key, existing) -> {
+            if (existing != null) {
+                existing.cancel(false);
+            }
+            return renderer.schedule(() -> {
+                pending.remove(key);
+                render(key);
+            }, delay.toMillis(), TimeUnit.MILLISECONDS);
+        });
+    }
+
+    // pool-size 大於 1 時，同一個 spec 較早開始的轉換可能較晚完成，因此同一個 spec 的轉換依序執行
+    void render(Path specFile) {
+        var name = specFile.getFileName().toString();
+        synchronized (renderLocks.computeIfAbsent(name, key -> new Object())) {
+            renderSpec(specFile, name);
+        }
+    }
+
+    private void renderSpec(Path specFile, String name) {
+        if (!Files.exists(specFile)) {
+            var rendered = renderedSpecs.remove(name);
+            if (rendered != null) {
+                rendered.files().values().forEach(SpecWatchService::deleteQuietly);
+            }
+            return;
+        }
+        try {
+            var files = new LinkedHashMap<String, Path>();
+            for (String template : templates) {
+                files.put(template, specFile.resolveSibling(
+                    "%s.%s%s".formatted(name, template, OutputFormat.XLSX.getExtension())));
+            }
+            // 啟動時已有比 spec 新的結果就不重新轉換
+            var previous = renderedSpecs.get(name);
+            if (previous == null && isUpToDate(specFile, files.values())) {
+                renderedSpecs.put(name, new Rendered(null, files));
+                return;
+            }
+            SpecContent content;
+            try (var inputStream = Files.newInputStream(specFile)) {
+                content = sheetService.readSpec(inputStream);
+            }
+            // 只有修改時間異動 (內容相同) 時不重新轉換
+            if (previous != null && content.getContentHash().equals(previous.contentHash())
+                && files.values().stream().allMatch(Files::exists)) {
+                return;
+            }
+            // 相對路徑的外部 $ref 依檔案位置解析
+            var spec = new SpecContent(content.getContent(), content.getContentHash(), specFile.toUri().toString());
+            var start = System.nanoTime();
+            for (Map.Entry<String, Path> entry : files.entrySet()) {
+                write(spec, entry.getKey(), entry.getValue());
+            }
+            renderedSpecs.put(name, new Rendered(spec.getContentHash(), files));
+            log.info("Rendered open api spec: {}, {} ms",
+                specFile, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (ServiceUnavailableException e) {
+            // 背景轉換與請求共用轉換名額，不能因為一時忙碌就放棄，之後再試 (期間 spec 異動會重新排程)
+            log.info("Open api spec render postponed: {}, {}", specFile, e.getMessage());
+            if (!renderer.isShutdown()) {
+                schedule(specFile, retryDelay);
+            }
+        } catch (Exception e) {
+            log.warn("Cannot render open api spec: {}", specFile, e);
+        }
+    }
+
+    // 暫存檔以 . 開頭且名稱不重複，不會被當成 spec，也不會與同時進行的轉換互相覆寫
+    private void write(SpecContent spec, String template, Path file) throws IOException {
+        var option = ConvertOption.builder()
+            .templateType(template)
+            .outputFormat(OutputFormat.XLSX)
+            .endpoint("watch")
+            .cacheDisabled(true)
+            .build();
+        var tempFile = Files.createTempFile(file.getParent(), "." + file.getFileName(), TEMP_SUFFIX);
+        try {
+            try (var outputStream = Files.newOutputStream(tempFile)) {
+                sheetService.convertOpenApiToSheet(option, spec, outputStream);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    private static boolean isUpToDate(Path spec, Collection<Path> files) throws IOException {
+        var modifiedTime = Files.getLastModifiedTime(spec);
+        for (Path file : files) {
+            if (!Files.exists(file) || Files.getLastModifiedTime(file).compareTo(modifiedTime) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSpec(Path fileName) {
+        var name = fileName.toString().toLowerCase(Locale.ROOT);
+        return !name.startsWith(".") && SPEC_EXTENSIONS.stream().anyMatch(name::endsWith);
+    }
+
+    private static String getBaseName(String fileName) {
+        var lowerCase = fileName.toLowerCase(Locale.ROOT);
+        for (String extension : SPEC_EXTENSIONS) {
+            if (lowerCase.endsWith(extension)) {
+                return fileName.substring(0, fileName.length() - extension.length());
+            }
+        }
+        return fileName;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Cannot delete rendered file: {}", path, e);
+        }
+    }
+
+    // contentHash 為轉換時的內容，啟動時沿用既有結果則為 null
+    private record Rendered(String contentHash, Map<String, Path> files) {
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.example.openapitool.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 每份文件 (或每次轉換) 建立一個，重複出現的字串 (型別、media type、enum 說明等) 只保留一份
+// 型別的顯示文字依 type、format 快取，相同組合不需要重新組字串
+class StringPool {
+
+    private final Map<String, String> strings = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, String>> typeLabels = new ConcurrentHashMap<>();
+    private final Map<String, String> arrayLabels = new ConcurrentHashMap<>();
+
+    String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        var previous = strings.putIfAbsent(value, value);
+        return previous == null ? value : previous;
+    }
+
+    // 例如 string($date-time)，沒有 format 時為原本的 type
+    String typeLabel(String type, String format) {
+        if (format == null) {
+            return intern(type);
+        }
+        return typeLabels.computeIfAbsent(String.valueOf(type), key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(format, key -> intern("%s($%s)".formatted(type, format)));
+    }
+
+    // 例如 array[string]
+    String arrayLabel(String itemsType) {
+        return arrayLabels.computeIfAbsent(String.valueOf(itemsType), key -> intern("array[%s]".formatted(itemsType)));
+    }
+
+}
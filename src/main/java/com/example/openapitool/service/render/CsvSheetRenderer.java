@@ -0,0 +1,90 @@
+package com.example.openapitool.service.render;
+
+import com.example.openapitool.constant.OutputFormat;
+import com.example.openapitool.model.sheet.OtherParameter;
+import com.example.openapitool.model.sheet.PayloadParameter;
+import com.example.openapitool.model.sheet.RequestParameter;
+import com.example.openapitool.model.sheet.SheetParameter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+// 每個參數一列 (RFC 4180)，以 section 區分 parameter / request / response，範例不輸出
+@Component
+public class CsvSheetRenderer extends TextSheetRenderer {
+
+    private static final List<String> HEADERS = List.of(
+        "index", "method", "path", "summary", "section", "in", "sequence",
+        "name", "type", "required", "maxLength", "description");
+
+    @Override
+    public OutputFormat getOutputFormat() {
+        return OutputFormat.CSV;
+    }
+
+    @Override
+    void writeHeader(Writer writer) throws IOException {
+        // 加上 BOM，excel 開啟時才會以 UTF-8 顯示中文
+        writer.write('\uFEFF');
+        writeRow(writer, HEADERS);
+    }
+
+    @Override
+    void writeApi(Writer writer, SheetParameter sheetParameter) throws IOException {
+        if (sheetParameter.getOtherParameters() != null) {
+            for (OtherParameter parameter : sheetParameter.getOtherParameters()) {
+                writeRow(writer, List.of(
+                    toText(sheetParameter.getIndex()), toText(sheetParameter.getHttpMethod()),
+                    toText(sheetParameter.getPath()), toText(sheetParameter.getSummary()),
+                    "parameter", toText(parameter.getIn()), "",
+                    toText(parameter.getName()), toText(parameter.getType()), toText(parameter.getRequired()),
+                    toText(parameter.getMaxLength()), toText(parameter.getDescription())));
+            }
+        }
+        writePayloadParameters(writer, sheetParameter, "request", sheetParameter.getRequestParameters());
+        writePayloadParameters(writer, sheetParameter, "response", sheetParameter.getResponseParameters());
+    }
+
+    private void writePayloadParameters(
+        Writer writer,
+        SheetParameter sheetParameter,
+        String section,
+        List<? extends PayloadParameter> parameters) throws IOException {
+        if (parameters == null) {
+            return;
+        }
+        for (PayloadParameter parameter : parameters) {
+            var required = parameter instanceof RequestParameter requestParameter ? requestParameter.getRequired() : null;
+            writeRow(writer, List.of(
+                toText(sheetParameter.getIndex()), toText(sheetParameter.getHttpMethod()),
+                toText(sheetParameter.getPath()), toText(sheetParameter.getSummary()),
+                section, "", toText(parameter.getSequence()),
+                toText(parameter.getName()), toText(parameter.getType()), toText(required),
+                toText(parameter.getMaxLength()), toText(parameter.getDescription())));
+        }
+    }
+
+    private void writeRow(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeValue(writer, values.get(i));
+        }
+        writer.write("\r\n");
+    }
+
+    // 含逗號、引號或換行時以引號包住，引號重複一次
+    private void writeValue(Writer writer, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.example.openapitool.service.render;
+
+import com.example.openapitool.constant.OutputFormat;
+import com.example.openapitool.model.sheet.OtherParameter;
+import com.example.openapitool.model.sheet.RequestParameter;
+import com.example.openapitool.model.sheet.ResponseParameter;
+import com.example.openapitool.model.sheet.SheetParameter;
+import org.apache.commons.lang3.BooleanUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+// 單一 html 檔，每個 API 一個區塊，參數以表格輸出
+@Component
+public class HtmlSheetRenderer extends TextSheetRenderer {
+
+    private static final String HEADER = """
+        <!DOCTYPE html>
+        <html>
+        <head>
+        <meta charset="UTF-8">
+        <title>API Spec</title>
+        <style>
+        table { border-collapse: collapse; margin-bottom: 1em; }
+        th, td { border: 1px solid #999; padding: 4px 8px; text-align: left; vertical-align: top; white-space: pre-wrap; }
+        th { background: #eee; }
+        pre { background: #f6f6f6; padding: 8px; }
+        </style>
+        </head>
+        <body>
+        """;
+
+    private static final String FOOTER = """
+        </body>
+        </html>
+        """;
+
+    @Override
+    public OutputFormat getOutputFormat() {
+        return OutputFormat.HTML;
+    }
+
+    @Override
+    void writeHeader(Writer writer) throws IOException {
+        writer.write(HEADER);
+    }
+
+    @Override
+    void writeApi(Writer writer, SheetParameter sheetParameter) throws IOException {
+        writer.write("<section>\n<h2>%d. %s %s</h2>\n".formatted(
+            sheetParameter.getIndex(),
+            escape(toText(sheetParameter.getHttpMethod()).toUpperCase(Locale.ROOT)),
+            escape(toText(sheetParameter.getPath()))));
+        if (sheetParameter.getSummary() != null) {
+            writer.write("<p>%s</p>\n".formatted(escape(sheetParameter.getSummary())));
+        }
+        if (sheetParameter.getMemo() != null) {
+            writer.write("<p><em>%s</em></p>\n".formatted(escape(sheetParameter.getMemo())));
+        }
+        if (BooleanUtils.isTrue(sheetParameter.getShowOtherParameters())) {
+            writer.write("<h3>Parameters</h3>\n<table>\n");
+            writeTableRow(writer, "th", List.of("In", "Name", "Type", "Required", "Max Length", "Description"));
+            for (OtherParameter parameter : sheetParameter.getOtherParameters()) {
+                writeTableRow(writer, "td", List.of(
+                    toText(parameter.getIn()), toText(parameter.getName()), toText(parameter.getType()),
+                    toText(parameter.getRequired()), toText(parameter.getMaxLength()), toText(parameter.getDescription())));
+            }
+            writer.write("</table>\n");
+        }
+        if (BooleanUtils.isTrue(sheetParameter.getShowRequestParameters())) {
+            writer.write("<h3>Request</h3>\n<table>\n");
+            writeTableRow(writer, "th", List.of("Seq", "Name", "Type", "Required", "Max Length", "Description"));
+            for (RequestParameter parameter : sheetParameter.getRequestParameters()) {
+                writeTableRow(writer, "td", List.of(
+                    toText(parameter.getSequence()), toText(parameter.getName()), toText(parameter.getType()),
+                    toText(parameter.getRequired()), toText(parameter.getMaxLength()), toText(parameter.getDescription())));
+            }
+            writer.write("</table>\n");
+        }
+        if (BooleanUtils.isTrue(sheetParameter.getShowRequestExample())) {
+            writeExample(writer, "Request Example", sheetParameter.getRequestExample());
+        }
+        if (BooleanUtils.isTrue(sheetParameter.getShowResponseParameters())) {
+            writer.write("<h3>Response</h3>\n<table>\n");
+            writeTableRow(writer, "th", List.of("Seq", "Name", "Type", "Max Length", "Description"));
+            for (ResponseParameter parameter : sheetParameter.getResponseParameters()) {
+                writeTableRow(writer, "td", List.of(
+                    toText(parameter.getSequence()), toText(parameter.getName()), toText(parameter.getType()),
+                    toText(parameter.getMaxLength()), toText(parameter.getDescription())));
+            }
+            writer.write("</table>\n");
+        }
+        if (BooleanUtils.isTrue(sheetParameter.getShowResponseExample())) {
+            writeExample(writer, "Response Example", sheetParameter.getResponseExample());
+        }
+        writer.write("</section>\n");
+    }
+
+    @Override
+    void writeFooter(Writer writer) throws IOException {
+        writer.write(FOOTER);
+    }
+
+    private void writeTableRow(Writer writer, String cellTag, List<String> values) throws IOException {
+        writer.write("<tr>");
+        for (String value : values) {
+            writer.write("<%s>%s</%s>".formatted(cellTag, escape(value), cellTag));
+        }
+        writer.write("</tr>\n");
+    }
+
+    private void writeExample(Writer writer, String title, String example) throws IOException {
+        writer.write("<h3>%s</h3>\n<pre>%s</pre>\n".formatted(title, escape(example)));
+    }
+
+    private static String escape(String value) {
+        return HtmlUtils.htmlEscape(value);
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.example.openapitool.service.render;
+
+import org.jxls.area.Area;
+import org.jxls.builder.xls.XlsCommentAreaBuilder;
+import org.jxls.common.CellRef;
+import org.jxls.common.Context;
+import org.jxls.formula.FastFormulaProcessor;
+import org.jxls.transform.Transformer;
+import org.jxls.util.JxlsHelper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+// JXLS 模板只快取模板內容 (不需要每次讀取檔案)，Transformer 與 Area 會保存輸出過程的狀態，
+// 每次輸出都以 XlsCommentAreaBuilder 重新建立，同時輸出之間不共用 JXLS 的物件
+public class JxlsTemplate {
+
+    private final byte[] content;
+
+    private JxlsTemplate(byte[] content) {
+        this.content = content;
+    }
+
+    // 載入時先解析一次指令，格式錯誤的模板在載入時就回報
+    static JxlsTemplate of(byte[] content) {
+        var template = new JxlsTemplate(content);
+        var areas = template.buildAreas(template.createTransformer(OutputStream.nullOutputStream()));
+        if (areas.isEmpty()) {
+            throw new IllegalArgumentException("Template has no jx:area command");
+        }
+        return template;
+    }
+
+    // 與 JxlsHelper.processTemplate 相同: 套用所有 Area 後處理公式再輸出
+    public void process(Context context, OutputStream outputStream) throws IOException {
+        var transformer = createTransformer(outputStream);
+        var areas = buildAreas(transformer);
+        for (Area area : areas) {
+            area.applyAt(new CellRef(area.getStartCellRef().getCellName()), context);
+        }
+        for (Area area : areas) {
+            area.setFormulaProcessor(new FastFormulaProcessor());
+            area.processFormulas();
+        }
+        transformer.write();
+    }
+
+    private Transformer createTransformer(OutputStream outputStream) {
+        return JxlsHelper.getInstance().createTransformer(new ByteArrayInputStream(content), outputStream);
+    }
+
+    private List<Area> buildAreas(Transformer transformer) {
+        return new XlsCommentAreaBuilder(transformer).build();
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.example.openapitool.service.render;
+
+import com.example.openapitool.constant.OutputFormat;
+import com.example.openapitool.model.sheet.OtherParameter;
+import com.example.openapitool.model.sheet.RequestParameter;
+import com.example.openapitool.model.sheet.ResponseParameter;
+import com.example.openapitool.model.sheet.SheetParameter;
+import org.apache.commons.lang3.BooleanUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Locale;
+
+// 每個 API 一個標題，參數以表格輸出，範例以 json 區塊輸出
+@Component
+public class MarkdownSheetRenderer extends TextSheetRenderer {
+
+    @Override
+    public OutputFormat getOutputFormat() {
+        return OutputFormat.MARKDOWN;
+    }
+
+    @Override
+    void writeApi(Writer writer, SheetParameter sheetParameter) throws IOException {
+        writer.write("## %d. %s %s\n\n".formatted(
+            sheetParameter.getIndex(),
+            toText(sheetParameter.getHttpMethod()).toUpperCase(Locale.ROOT),
+            escape(toText(sheetParameter.getPath()))));
+        if (sheetParameter.getSummary() != null) {
+            writer.write(escape(sheetParameter.getSummary()) + "\n\n");
+        }
+        if (sheetParameter.getMemo() != null) {
+            writer.write("> " + escape(sheetParameter.getMemo()) + "\n\n");
+        }
+        if (BooleanUtils.isTrue(sheetParameter.getShowOtherParameters())) {
+            writer.write("### Parameters\n\n");
+            writeTableHeader(writer, List.of("In", "Name", "Type", "Required", "Max Length", "Description"));
+            for (OtherParameter parameter : sheetParameter.getOtherParameters()) {
+                writeTableRow(writer, List.of(
+                    toText(parameter.getIn()), toText(parameter.getName()), toText(parameter.getType()),
+                    toText(parameter.getRequired()), toText(parameter.getMaxLength()), toText(parameter.getDescription())));
+            }
+            writer.write('\n');
+        }
+        if (BooleanUtils.isTrue(sheetParameter.getShowRequestParameters())) {
+            writer.write("### Request\n\n");
+            writeTableHeader(writer, List.of("Seq", "Name", "Type", "Required", "Max Length", "Description"));
+            for (RequestParameter parameter : sheetParameter.getRequestParameters()) {
+                writeTableRow(writer, List.of(
+                    toText(parameter.getSequence()), toText(parameter.getName()), toText(parameter.getType()),
+                    toText(parameter.getRequired()), toText(parameter.getMaxLength()), toText(parameter.getDescription())));
+            }
+            writer.write('\n');
+        }
+        if (BooleanUtils.isTrue(sheetParameter.getShowRequestExample())) {
+            writeExample(writer, "Request Example", sheetParameter.getRequestExample());
+        }
+        if (BooleanUtils.isTrue(sheetParameter.getShowResponseParameters())) {
+            writer.write("### Response\n\n");
+            writeTableHeader(writer, List.of("Seq", "Name", "Type", "Max Length", "Description"));
+            for (ResponseParameter parameter : sheetParameter.getResponseParameters()) {
+                writeTableRow(writer, List.of(
+                    toText(parameter.getSequence()), toText(parameter.getName()), toText(parameter.getType()),
+                    toText(parameter.getMaxLength()), toText(parameter.getDescription())));
+            }
+            writer.write('\n');
+        }
+        if (BooleanUtils.isTrue(sheetParameter.getShowResponseExample())) {
+            writeExample(writer, "Response Example", sheetParameter.getResponseExample());
+        }
+    }
+
+    private void writeTableHeader(Writer writer, List<String> headers) throws IOException {
+        writeTableRow(writer, headers);
+        writer.write('|');
+        writer.write(" --- |".repeat(headers.size()));
+        writer.write('\n');
+    }
+
+    private void writeTableRow(Writer writer, List<String> values) throws IOException {
+        writer.write('|');
+        for (String value : values) {
+            writer.write(' ');
+            writer.write(escape(value));
+            writer.write(" |");
+        }
+        writer.write('\n');
+    }
+
+    // 範例內可能有 ```，圍欄使用比內容中最長的連續 ` 更長的長度
+    private void writeExample(Writer writer, String title, String example) throws IOException {
+        var fence = "`".repeat(Math.max(3, longestBacktickRun(example) + 1));
+        writer.write("### %s\n\n%sjson\n".formatted(title, fence));
+        writer.write(example);
+        writer.write("\n%s\n\n".formatted(fence));
+    }
+
+    private static int longestBacktickRun(String value) {
+        int longest = 0;
+        int current = 0;
+        for (int i = 0; i < value.length(); i++) {
+            current = value.charAt(i) == '`' ? current + 1 : 0;
+            longest = Math.max(longest, current);
+        }
+        return longest;
+    }
+
+    // 內容中的 html 標籤不輸出為 html，表格內不能有 | 與換行
+    private static String escape(String value) {
+        return value.replace("&", "&amp;")
+            .replace("<", "&lt;")
+            .replace(">", "&gt;")
+            .replace("|", "\\|")
+            .replace("\r\n", "<br>")
+            .replace("\n", "<br>");
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.example.openapitool.service.render;
+
+import com.example.openapitool.constant.OutputFormat;
+import com.example.openapitool.model.sheet.SheetParameter;
+
+import java.io.OutputStream;
+import java.util.List;
+
+// 不使用 excel 模板的輸出格式，將 SheetParameter 直接寫入 outputStream，實作為 Spring bean 即可加入新的格式
+public interface SheetRenderer {
+
+    OutputFormat getOutputFormat();
+
+    // 不關閉 outputStream
+    void render(List<SheetParameter> sheetParameters, OutputStream outputStream);
+
+}
@@ -0,0 +1,6 @@
+package com.example.openapitool.service.render;
+
+// 預先載入的模板：jxlsTemplate 供 JXLS 輸出使用，layout (含樣式) 供 StreamingSheetWriter 使用
+// contentHash 為模板檔案內容的 hash，內建模板沒有修改時間，以內容判斷模板是否異動
+public record SheetTemplate(String name, JxlsTemplate jxlsTemplate, XlsxTemplate layout, long lastModified, String contentHash) {
+}
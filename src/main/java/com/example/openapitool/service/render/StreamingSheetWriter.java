@@ -0,0 +1,152 @@
+package com.example.openapitool.service.render;
+
+import com.example.openapitool.constant.XlsxCompression;
+import com.example.openapitool.model.sheet.SheetParameter;
+import lombok.SneakyThrows;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// 以 SXSSF 逐列輸出 excel，記憶體中只保留 windowSize 列，沿用 JXLS 模板的樣式與版面
+@Component
+public class StreamingSheetWriter {
+
+    @Value("${open-api-tool.render.window-size:100}")
+    int windowSize;
+
+    @SneakyThrows
+    public void write(
+        SheetTemplate sheetTemplate,
+        List<SheetParameter> sheetParameters,
+        XlsxCompression compression,
+        OutputStream outputStream) {
+        var template = sheetTemplate.layout();
+        // 不重新載入模板，樣式由預先解析的 layout 複製到空的 workbook
+        var workbook = new SXSSFWorkbook(new XSSFWorkbook(), windowSize) {
+            // 輸出的 zip 使用指定的壓縮等級
+            @Override
+            protected ZipArchiveOutputStream createArchiveOutputStream(OutputStream stream) {
+                var zipOutputStream = super.createArchiveOutputStream(stream);
+                zipOutputStream.setLevel(compression.getLevel());
+                return zipOutputStream;
+            }
+        };
+        try {
+            var sheet = workbook.createSheet(template.getSheetName());
+            var vars = new HashMap<String, Object>();
+            vars.put("sheetParameters", sheetParameters);
+            new RowWriter(template, workbook, sheet).writeBlock(template.getRoot(), vars);
+            workbook.write(outputStream);
+        } finally {
+            workbook.dispose();
+        }
+    }
+
+    private static class RowWriter {
+        private final XlsxTemplate template;
+        private final SXSSFSheet sheet;
+        private final CellStyle[] styles;
+        private int rowIndex;
+
+        RowWriter(XlsxTemplate template, SXSSFWorkbook workbook, SXSSFSheet sheet) {
+            this.template = template;
+            this.sheet = sheet;
+            // 依模板的樣式 index 建立對應的樣式，index 0 為 workbook 預設樣式
+            var cellStyles = template.getCellStyles();
+            this.styles = new CellStyle[cellStyles.length];
+            for (int i = 0; i < styles.length; i++) {
+                styles[i] = i == 0 ? workbook.getCellStyleAt(0) : workbook.createCellStyle();
+                styles[i].cloneStyleFrom(cellStyles[i]);
+            }
+            sheet.setDefaultRowHeight(template.getDefaultRowHeight());
+            var columnWidths = template.getColumnWidths();
+            for (int c = 0; c < columnWidths.length; c++) {
+                sheet.setColumnWidth(c, columnWidths[c]);
+            }
+        }
+
+        void writeBlock(XlsxTemplate.Block block, Map<String, Object> vars) {
+            switch (block.getCommand()) {
+                case "each" -> {
+                    var items = block.getItems().evaluate(vars);
+                    if (items instanceof Iterable<?> iterable) {
+                        var previous = vars.get(block.getVar());
+                        for (Object item : iterable) {
+                            vars.put(block.getVar(), item);
+                            writeRows(block, vars);
+                        }
+                        vars.put(block.getVar(), previous);
+                    }
+                }
+                case "if" -> {
+                    if (Boolean.TRUE.equals(block.getCondition().evaluate(vars))) {
+                        writeRows(block, vars);
+                    }
+                }
+                default -> writeRows(block, vars);
+            }
+        }
+
+        private void writeRows(XlsxTemplate.Block block, Map<String, Object> vars) {
+            var children = block.getChildren();
+            int childIndex = 0;
+            int templateRow = block.getFirstRow();
+            while (templateRow <= block.getLastRow()) {
+                if (childIndex < children.size() && children.get(childIndex).getFirstRow() == templateRow) {
+                    var child = children.get(childIndex++);
+                    writeBlock(child, vars);
+                    templateRow = child.getLastRow() + 1;
+                } else {
+                    writeRow(template.getRows()[templateRow], vars);
+                    templateRow++;
+                }
+            }
+        }
+
+        private void writeRow(XlsxTemplate.RowTemplate rowTemplate, Map<String, Object> vars) {
+            var row = sheet.createRow(rowIndex);
+            if (rowTemplate != null) {
+                if (rowTemplate.height() >= 0) {
+                    row.setHeight(rowTemplate.height());
+                }
+                for (XlsxTemplate.CellTemplate cellTemplate : rowTemplate.cells()) {
+                    var cell = row.createCell(cellTemplate.column());
+                    cell.setCellStyle(styles[cellTemplate.styleIndex()]);
+                    if (cellTemplate.value() != null) {
+                        setCellValue(cell, cellTemplate.value().evaluate(vars));
+                    }
+                }
+                for (XlsxTemplate.MergeTemplate merge : rowTemplate.merges()) {
+                    sheet.addMergedRegionUnsafe(new CellRangeAddress(
+                        rowIndex, rowIndex + merge.rowSpan() - 1, merge.firstColumn(), merge.lastColumn()));
+                }
+            }
+            rowIndex++;
+        }
+
+        private void setCellValue(Cell cell, Object value) {
+            if (value == null) {
+                return;
+            }
+            if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+            } else if (value instanceof Boolean bool) {
+                cell.setCellValue(bool);
+            } else {
+                cell.setCellValue(value.toString());
+            }
+        }
+    }
+
+}
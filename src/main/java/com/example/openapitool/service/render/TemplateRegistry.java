@@ -0,0 +1,126 @@
+package com.example.openapitool.service.render;
+
+import com.example.openapitool.constant.TemplateType;
+import com.example.openapitool.exception.BadRequestException;
+import com.example.openapitool.util.HashUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// 模板在啟動時 (外部目錄則在檔案異動時) 載入並預先解析一次，每次輸出只需取用快取
+@Slf4j
+@Component
+public class TemplateRegistry {
+
+    private static final String TEMPLATE_EXTENSION = ".xlsx";
+
+    @Value("${open-api-tool.template.dir:}")
+    String templateDir;
+
+    @Value("${open-api-tool.template.refresh-interval:10s}")
+    Duration refreshInterval;
+
+    private final Map<String, SheetTemplate> builtInTemplates = new LinkedHashMap<>();
+    private volatile Map<String, SheetTemplate> externalTemplates = Map.of();
+    private volatile long lastRefreshTime;
+
+    @PostConstruct
+    public void init() throws IOException {
+        for (TemplateType templateType : TemplateType.values()) {
+            try (var inputStream = new ClassPathResource(templateType.getPath()).getInputStream()) {
+                builtInTemplates.put(templateType.name(), load(templateType.name(), inputStream.readAllBytes(), 0));
+            }
+        }
+        refreshExternalTemplates(true);
+    }
+
+    public SheetTemplate get(String name) {
+        var templateName = StringUtils.hasText(name) ? name : TemplateType.DEFAULT.name();
+        refreshExternalTemplates(false);
+        var template = externalTemplates.get(templateName);
+        if (template == null) {
+            template = builtInTemplates.get(templateName);
+        }
+        if (template == null) {
+            throw new BadRequestException("Unknown template: %s, available: %s".formatted(templateName, getTemplateNames()));
+        }
+        return template;
+    }
+
+    public List<String> getTemplateNames() {
+        refreshExternalTemplates(false);
+        var names = new ArrayList<>(builtInTemplates.keySet());
+        externalTemplates.keySet().stream()
+            .filter(name -> !builtInTemplates.containsKey(name))
+            .forEach(names::add);
+        return names;
+    }
+
+    private void refreshExternalTemplates(boolean force) {
+        if (!StringUtils.hasText(templateDir)) {
+            return;
+        }
+        if (!force && System.currentTimeMillis() - lastRefreshTime < refreshInterval.toMillis()) {
+            return;
+        }
+        synchronized (this) {
+            if (!force && System.currentTimeMillis() - lastRefreshTime < refreshInterval.toMillis()) {
+                return;
+            }
+            externalTemplates = scanTemplateDir();
+            lastRefreshTime = System.currentTimeMillis();
+        }
+    }
+
+    private Map<String, SheetTemplate> scanTemplateDir() {
+        var templates = new LinkedHashMap<String, SheetTemplate>();
+        List<Path> files;
+        try (var stream = Files.list(Path.of(templateDir))) {
+            files = stream.filter(file -> file.getFileName().toString().endsWith(TEMPLATE_EXTENSION))
+                .sorted()
+                .toList();
+        } catch (IOException e) {
+            log.warn("Cannot read template dir: {}", templateDir, e);
+            return externalTemplates;
+        }
+        for (Path file : files) {
+            var fileName = file.getFileName().toString();
+            var name = fileName.substring(0, fileName.length() - TEMPLATE_EXTENSION.length());
+            try {
+                var lastModified = Files.getLastModifiedTime(file).toMillis();
+                var cached = externalTemplates.get(name);
+                if (cached != null && cached.lastModified() == lastModified) {
+                    templates.put(name, cached);
+                } else {
+                    templates.put(name, load(name, Files.readAllBytes(file), lastModified));
+                    log.info("Load template: {}", file);
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("Skip invalid template: {}", file, e);
+            }
+        }
+        return templates;
+    }
+
+    // workbook 不關閉，layout 保留其中的樣式供輸出時複製 (由記憶體載入，不佔用檔案)
+    private SheetTemplate load(String name, byte[] content, long lastModified) throws IOException {
+        var workbook = new XSSFWorkbook(new ByteArrayInputStream(content));
+        var layout = XlsxTemplate.parse(workbook.getSheetAt(0));
+        return new SheetTemplate(name, JxlsTemplate.of(content), layout, lastModified, HashUtils.sha256(content));
+    }
+
+}
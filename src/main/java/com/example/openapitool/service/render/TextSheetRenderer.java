@@ -0,0 +1,41 @@
+package com.example.openapitool.service.render;
+
+import com.example.openapitool.model.sheet.SheetParameter;
+import lombok.SneakyThrows;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// 文字格式共用的流程：以 UTF-8 逐一寫出每個 API，只經過固定大小的 buffer
+abstract class TextSheetRenderer implements SheetRenderer {
+
+    @SneakyThrows
+    @Override
+    public void render(List<SheetParameter> sheetParameters, OutputStream outputStream) {
+        var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writeHeader(writer);
+        for (SheetParameter sheetParameter : sheetParameters) {
+            writeApi(writer, sheetParameter);
+        }
+        writeFooter(writer);
+        writer.flush();
+    }
+
+    void writeHeader(Writer writer) throws IOException {
+    }
+
+    abstract void writeApi(Writer writer, SheetParameter sheetParameter) throws IOException;
+
+    void writeFooter(Writer writer) throws IOException {
+    }
+
+    static String toText(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+}
@@ -0,0 +1,270 @@
+package com.example.openapitool.service.render;
+
+import lombok.Getter;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Comment;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellAddress;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.springframework.beans.BeanUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// 解析 JXLS 模板的版面 (樣式、欄寬、合併儲存格) 與 jx:area / jx:each / jx:if 指令，解析結果不可變，可重複用於輸出
+// 只支援以整列為範圍的指令，與 resources/templates 內的模板相同
+@Getter
+public class XlsxTemplate {
+
+    private static final Pattern COMMAND_PATTERN = Pattern.compile("jx:(\\w+)\\((.*)\\)");
+    private static final Pattern ATTRIBUTE_PATTERN = Pattern.compile("(\\w+)\\s*=\\s*\"([^\"]*)\"");
+    private static final Pattern EXPRESSION_PATTERN = Pattern.compile("\\$\\{([^}]+)}");
+    private static final Map<Class<?>, Map<String, Method>> getterCache = new ConcurrentHashMap<>();
+
+    private final String sheetName;
+    private final short defaultRowHeight;
+    private final int[] columnWidths;
+    private final RowTemplate[] rows;
+    private final Block root;
+    // 模板 workbook 的樣式，依 index 對應 CellTemplate.styleIndex，輸出時複製到新的 workbook，只讀取不修改
+    private final CellStyle[] cellStyles;
+
+    private XlsxTemplate(
+        String sheetName,
+        short defaultRowHeight,
+        int[] columnWidths,
+        RowTemplate[] rows,
+        Block root,
+        CellStyle[] cellStyles) {
+        this.sheetName = sheetName;
+        this.defaultRowHeight = defaultRowHeight;
+        this.columnWidths = columnWidths;
+        this.rows = rows;
+        this.root = root;
+        this.cellStyles = cellStyles;
+    }
+
+    public static XlsxTemplate parse(Sheet sheet) {
+        var lastRow = sheet.getLastRowNum();
+        var rows = new RowTemplate[lastRow + 1];
+        int lastColumn = 0;
+        for (int r = 0; r <= lastRow; r++) {
+            var row = sheet.getRow(r);
+            if (row != null) {
+                rows[r] = toRowTemplate(sheet, row);
+                lastColumn = Math.max(lastColumn, row.getLastCellNum());
+            }
+        }
+        for (CellRangeAddress region : sheet.getMergedRegions()) {
+            var rowTemplate = rows[region.getFirstRow()];
+            if (rowTemplate != null) {
+                rowTemplate.merges.add(new MergeTemplate(
+                    region.getFirstColumn(),
+                    region.getLastColumn(),
+                    region.getLastRow() - region.getFirstRow() + 1));
+            }
+        }
+
+        var columnWidths = new int[lastColumn];
+        for (int c = 0; c < lastColumn; c++) {
+            columnWidths[c] = sheet.getColumnWidth(c);
+        }
+
+        var root = new Block("area", 0, lastRow, Collections.emptyMap());
+        buildBlockTree(root, parseCommands(sheet));
+        var workbook = sheet.getWorkbook();
+        var cellStyles = new CellStyle[workbook.getNumCellStyles()];
+        for (int i = 0; i < cellStyles.length; i++) {
+            cellStyles[i] = workbook.getCellStyleAt(i);
+        }
+        return new XlsxTemplate(sheet.getSheetName(), sheet.getDefaultRowHeight(), columnWidths, rows, root, cellStyles);
+    }
+
+    private static RowTemplate toRowTemplate(Sheet sheet, Row row) {
+        var height = row.getHeight() == sheet.getDefaultRowHeight() ? -1 : row.getHeight();
+        var cells = new ArrayList<CellTemplate>();
+        for (Cell cell : row) {
+            cells.add(new CellTemplate(cell.getColumnIndex(), cell.getCellStyle().getIndex(), toValueTemplate(cell)));
+        }
+        return new RowTemplate((short) height, cells, new ArrayList<>());
+    }
+
+    private static ValueTemplate toValueTemplate(Cell cell) {
+        if (cell.getCellType() == CellType.NUMERIC) {
+            return new ValueTemplate(cell.getNumericCellValue(), null);
+        }
+        if (cell.getCellType() == CellType.BOOLEAN) {
+            return new ValueTemplate(cell.getBooleanCellValue(), null);
+        }
+        if (cell.getCellType() != CellType.STRING) {
+            return null;
+        }
+        var text = cell.getStringCellValue();
+        var matcher = EXPRESSION_PATTERN.matcher(text);
+        var segments = new ArrayList<Object>();
+        int start = 0;
+        while (matcher.find()) {
+            if (matcher.start() > start) {
+                segments.add(text.substring(start, matcher.start()));
+            }
+            segments.add(Expression.parse(matcher.group(1)));
+            start = matcher.end();
+        }
+        if (segments.isEmpty()) {
+            return new ValueTemplate(text, null);
+        }
+        if (start < text.length()) {
+            segments.add(text.substring(start));
+        }
+        return new ValueTemplate(null, segments);
+    }
+
+    private static List<Block> parseCommands(Sheet sheet) {
+        var blocks = new ArrayList<Block>();
+        for (Map.Entry<CellAddress, ? extends Comment> entry : sheet.getCellComments().entrySet()) {
+            var firstRow = entry.getKey().getRow();
+            for (String line : entry.getValue().getString().getString().split("\\R")) {
+                var commandMatcher = COMMAND_PATTERN.matcher(line.trim());
+                if (!commandMatcher.matches()) {
+                    continue;
+                }
+                var attributes = new HashMap<String, String>();
+                var attributeMatcher = ATTRIBUTE_PATTERN.matcher(commandMatcher.group(2));
+                while (attributeMatcher.find()) {
+                    attributes.put(attributeMatcher.group(1), attributeMatcher.group(2));
+                }
+                var lastCell = attributes.get("lastCell");
+                var lastRow = lastCell == null ? firstRow : new CellReference(lastCell).getRow();
+                blocks.add(new Block(commandMatcher.group(1), firstRow, lastRow, attributes));
+            }
+        }
+        return blocks;
+    }
+
+    private static void buildBlockTree(Block root, List<Block> blocks) {
+        // 範圍大的在前，相同範圍時 area 在前，確保外層區塊先入堆疊
+        blocks.sort(Comparator.comparingInt(Block::getFirstRow)
+            .thenComparing(Comparator.comparingInt(Block::getLastRow).reversed())
+            .thenComparing(block -> !"area".equals(block.getCommand())));
+        var stack = new ArrayDeque<Block>();
+        stack.push(root);
+        for (Block block : blocks) {
+            while (!stack.peek().contains(block)) {
+                stack.pop();
+            }
+            stack.peek().children.add(block);
+            stack.push(block);
+        }
+    }
+
+    private static Object getProperty(Object bean, String property) {
+        if (bean == null) {
+            return null;
+        }
+        if (bean instanceof Map<?, ?> map) {
+            return map.get(property);
+        }
+        var getters = getterCache.computeIfAbsent(bean.getClass(), clazz -> {
+            var methods = new HashMap<String, Method>();
+            for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(clazz)) {
+                if (descriptor.getReadMethod() != null) {
+                    methods.put(descriptor.getName(), descriptor.getReadMethod());
+                }
+            }
+            return methods;
+        });
+        var getter = getters.get(property);
+        if (getter == null) {
+            return null;
+        }
+        try {
+            return getter.invoke(bean);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot read property: " + property, e);
+        }
+    }
+
+    @Getter
+    public static class Block {
+        private final String command;
+        private final int firstRow;
+        private final int lastRow;
+        private final String var;
+        private final Expression items;
+        private final Expression condition;
+        private final List<Block> children = new ArrayList<>();
+
+        Block(String command, int firstRow, int lastRow, Map<String, String> attributes) {
+            this.command = command;
+            this.firstRow = firstRow;
+            this.lastRow = lastRow;
+            this.var = attributes.get("var");
+            this.items = attributes.containsKey("items") ? Expression.parse(attributes.get("items")) : null;
+            this.condition = attributes.containsKey("condition") ? Expression.parse(attributes.get("condition")) : null;
+        }
+
+        boolean contains(Block block) {
+            return firstRow <= block.firstRow && block.lastRow <= lastRow;
+        }
+    }
+
+    public record RowTemplate(short height, List<CellTemplate> cells, List<MergeTemplate> merges) {
+    }
+
+    public record CellTemplate(int column, short styleIndex, ValueTemplate value) {
+    }
+
+    public record MergeTemplate(int firstColumn, int lastColumn, int rowSpan) {
+    }
+
+    // constant 與 segments 擇一：segments 由字串與 Expression 組成
+    public record ValueTemplate(Object constant, List<Object> segments) {
+
+        public Object evaluate(Map<String, Object> vars) {
+            if (segments == null) {
+                return constant;
+            }
+            if (segments.size() == 1 && segments.get(0) instanceof Expression expression) {
+                // 單一運算式保留原本的型別 (例如數字)
+                return expression.evaluate(vars);
+            }
+            var builder = new StringBuilder();
+            for (Object segment : segments) {
+                if (segment instanceof Expression expression) {
+                    var value = expression.evaluate(vars);
+                    if (value != null) {
+                        builder.append(value);
+                    }
+                } else {
+                    builder.append(segment);
+                }
+            }
+            return builder.toString();
+        }
+    }
+
+    // 只支援 var.property.property 形式的屬性存取
+    public record Expression(String var, String[] properties) {
+
+        static Expression parse(String expression) {
+            var tokens = expression.trim().split("\\.");
+            return new Expression(tokens[0], Arrays.copyOfRange(tokens, 1, tokens.length));
+        }
+
+        public Object evaluate(Map<String, Object> vars) {
+            var value = vars.get(var);
+            for (String property : properties) {
+                value = getProperty(value, property);
+            }
+            return value;
+        }
+    }
+
+}
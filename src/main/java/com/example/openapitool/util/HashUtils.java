@@ -0,0 +1,52 @@
+package com.example.openapitool.util;
+
+import lombok.SneakyThrows;
+import lombok.experimental.UtilityClass;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+@UtilityClass
+public class HashUtils {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    // 略過開頭的 UTF-8 BOM 與所有 \r，只有換行格式不同的內容會得到相同的 hash
+    @SneakyThrows
+    public static String sha256Normalized(byte[] content) {
+        var digest = MessageDigest.getInstance(ALGORITHM);
+        int start = hasUtf8Bom(content) ? 3 : 0;
+        for (int i = start; i < content.length; i++) {
+            if (content[i] == '\r') {
+                digest.update(content, start, i - start);
+                start = i + 1;
+            }
+        }
+        digest.update(content, start, content.length - start);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    @SneakyThrows
+    public static String sha256(byte[] content) {
+        return HexFormat.of().formatHex(MessageDigest.getInstance(ALGORITHM).digest(content));
+    }
+
+    @SneakyThrows
+    public static String sha256(String... values) {
+        var digest = MessageDigest.getInstance(ALGORITHM);
+        for (String value : values) {
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static boolean hasUtf8Bom(byte[] content) {
+        return content.length >= 3
+            && (content[0] & 0xFF) == 0xEF
+            && (content[1] & 0xFF) == 0xBB
+            && (content[2] & 0xFF) == 0xBF;
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.example.openapitool.util;
+
+import com.example.openapitool.exception.PayloadTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// 讀取超過 maxSize 時拋出 PayloadTooLargeException，避免過大的內容被完整讀入
+public class SizeLimitInputStream extends FilterInputStream {
+
+    private final long maxSize;
+    private long count;
+
+    public SizeLimitInputStream(InputStream in, long maxSize) {
+        super(in);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        var b = super.read();
+        if (b != -1) {
+            addCount(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        var n = super.read(b, off, len);
+        if (n > 0) {
+            addCount(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        var skipped = super.skip(n);
+        addCount(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void addCount(long n) {
+        count += n;
+        if (count > maxSize) {
+            throw new PayloadTooLargeException("Open api spec exceeds the max size of %s bytes".formatted(maxSize));
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.example.openapitool.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import lombok.experimental.UtilityClass;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// 依內容開頭第一個非空白字元判斷 json / yaml，直接建立對應的 parser，內容只會被解析一次
+@UtilityClass
+public class SpecParserUtils {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final YAMLFactory YAML_FACTORY = new YAMLFactory();
+    // 判斷格式時最多往後讀取的 byte 數
+    private static final int SNIFF_LIMIT = 1024;
+
+    public static JsonParser createParser(String content) throws IOException {
+        return isJson(content) ? JSON_FACTORY.createParser(content) : YAML_FACTORY.createParser(content);
+    }
+
+    public static JsonParser createParser(InputStream inputStream) throws IOException {
+        var in = inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream);
+        return isJson(in) ? JSON_FACTORY.createParser(in) : YAML_FACTORY.createParser(in);
+    }
+
+    private static boolean isJson(String content) {
+        for (int i = 0; i < content.length(); i++) {
+            var c = content.charAt(i);
+            if (!Character.isWhitespace(c) && c != '\uFEFF') {
+                return isJsonStart(c);
+            }
+        }
+        return false;
+    }
+
+    private static boolean isJson(InputStream in) throws IOException {
+        in.mark(SNIFF_LIMIT);
+        try {
+            for (int i = 0; i < SNIFF_LIMIT; i++) {
+                var b = in.read();
+                if (b == -1) {
+                    return false;
+                }
+                // 略過空白、UTF-8 / UTF-16 BOM 與 UTF-16 的 0x00
+                if (!Character.isWhitespace(b) && b != 0x00 && b != 0xEF && b != 0xBB && b != 0xBF && b != 0xFE && b != 0xFF) {
+                    return isJsonStart((char) b);
+                }
+            }
+            return false;
+        } finally {
+            in.reset();
+        }
+    }
+
+    // yaml 的 flow mapping 同樣可能以 "{" 開頭，但 open api 文件實務上不會這樣撰寫
+    private static boolean isJsonStart(char c) {
+        return c == '{' || c == '[';
+    }
+
+}
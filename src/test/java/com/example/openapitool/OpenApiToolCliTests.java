@@ -0,0 +1,104 @@
+package com.example.openapitool;
+
+import com.example.openapitool.constant.SpecFormat;
+import com.example.openapitool.generator.OpenApiSpecGenerator;
+import com.example.openapitool.model.SpecGeneratorOption;
+import com.example.openapitool.service.SheetService;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenApiToolCliTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void convertsGlobMatchesWithoutWebContext() throws IOException {
+        var option = SpecGeneratorOption.builder().operations(5).build();
+        Files.createDirectories(tempDir.resolve("specs/nested"));
+        Files.writeString(tempDir.resolve("specs/pets.json"), OpenApiSpecGenerator.generate(option, SpecFormat.JSON));
+        Files.writeString(tempDir.resolve("specs/nested/users.yaml"), OpenApiSpecGenerator.generate(option, SpecFormat.YAML));
+        Files.writeString(tempDir.resolve("specs/broken.json"), "{");
+        var output = tempDir.resolve("out");
+
+        var options = OpenApiToolCli.Options.parse(new String[]{
+            tempDir.resolve("specs") + "/*.json",
+            tempDir.resolve("specs/nested/users.yaml").toString(),
+            "--template=DEFAULT,SIMPLE",
+            "--output=" + output,
+            "--compression=fast",
+            "--parallelism=2",
+            "--open-api-tool.render.engine=STREAMING"});
+        assertEquals(List.of(
+            tempDir.resolve("specs/broken.json"),
+            tempDir.resolve("specs/pets.json"),
+            tempDir.resolve("specs/nested/users.yaml")), options.specs());
+        assertEquals(List.of("--open-api-tool.render.engine=STREAMING"), options.springArgs());
+        // 轉換開始時才建立輸出目錄
+        assertFalse(Files.exists(output));
+
+        var out = new ByteArrayOutputStream();
+        boolean succeeded;
+        try (var context = OpenApiToolCli.application().run(options.springArgs().toArray(String[]::new))) {
+            assertFalse(context instanceof WebServerApplicationContext);
+            succeeded = OpenApiToolCli.convert(
+                context.getBean(SheetService.class), options, new PrintStream(out, true, StandardCharsets.UTF_8));
+        }
+
+        assertFalse(succeeded);
+        var lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).startsWith("FAILED " + tempDir.resolve("specs/broken.json")));
+        assertTrue(lines.get(1).startsWith("OK " + tempDir.resolve("specs/pets.json")));
+        assertTrue(lines.get(2).startsWith("OK " + tempDir.resolve("specs/nested/users.yaml")));
+        for (String name : List.of("pets.DEFAULT.xlsx", "pets.SIMPLE.xlsx", "users.DEFAULT.xlsx", "users.SIMPLE.xlsx")) {
+            try (var workbook = new XSSFWorkbook(Files.newInputStream(output.resolve(name)))) {
+                assertTrue(workbook.getNumberOfSheets() > 0);
+            }
+        }
+        try (var stream = Files.list(output)) {
+            assertEquals(4, stream.count());
+        }
+    }
+
+    @Test
+    void rejectsSpecsWithSameOutput() throws IOException {
+        Files.createDirectories(tempDir.resolve("a"));
+        Files.createDirectories(tempDir.resolve("b"));
+        Files.writeString(tempDir.resolve("a/pets.json"), "{}");
+        Files.writeString(tempDir.resolve("b/pets.yaml"), "{}");
+        var specs = tempDir + "/*/pets.*";
+
+        // 寫在各自的 spec 旁時不衝突
+        assertEquals(2, OpenApiToolCli.Options.parse(new String[]{specs}).specs().size());
+        var exception = assertThrows(IllegalArgumentException.class,
+            () -> OpenApiToolCli.Options.parse(new String[]{specs, "--output=" + tempDir.resolve("out")}));
+        assertTrue(exception.getMessage().startsWith("Duplicate output"));
+        // 參數錯誤時不建立輸出目錄
+        assertFalse(Files.exists(tempDir.resolve("out")));
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> OpenApiToolCli.Options.parse(new String[]{"--template=DEFAULT"}));
+        assertThrows(IllegalArgumentException.class,
+            () -> OpenApiToolCli.Options.parse(new String[]{tempDir.resolve("missing.json").toString()}));
+        assertThrows(IllegalArgumentException.class, () -> OpenApiToolCli.Options.parse(new String[]{"--server.port=0"}));
+        assertThrows(IllegalArgumentException.class, () -> OpenApiToolCli.Options.parse(new String[]{
+            "--output=" + tempDir.resolve("out"), tempDir.resolve("missing.json").toString()}));
+        assertFalse(Files.exists(tempDir.resolve("out")));
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.example.openapitool.controller;
+
+import com.example.openapitool.constant.SpecFormat;
+import com.example.openapitool.generator.OpenApiSpecGenerator;
+import com.example.openapitool.model.SpecGeneratorOption;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OpenApiControllerTests {
+
+    private static final MockMultipartFile OPEN_API = new MockMultipartFile(
+        "openApi",
+        "api.yaml",
+        "application/yaml",
+        OpenApiSpecGenerator.generate(SpecGeneratorOption.builder().operations(3).build(), SpecFormat.YAML)
+            .getBytes(StandardCharsets.UTF_8));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void returnsNotModifiedForMatchingEtag() throws Exception {
+        var result = mockMvc.perform(convert())
+            .andExpect(status().isOk())
+            .andReturn();
+        var etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertTrue(result.getResponse().getContentAsByteArray().length > 0);
+
+        for (String ifNoneMatch : new String[]{etag, "W/" + etag, "\"other\", " + etag}) {
+            var notModified = mockMvc.perform(convert().header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andReturn();
+            assertEquals(0, notModified.getResponse().getContentAsByteArray().length);
+        }
+    }
+
+    @Test
+    void convertsWhenEtagDoesNotMatch() throws Exception {
+        // POST 的 If-None-Match: * 不視為相符
+        for (String ifNoneMatch : new String[]{"*", "\"other\""}) {
+            var result = mockMvc.perform(convert().header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                .andExpect(status().isOk())
+                .andReturn();
+            assertTrue(result.getResponse().getContentAsByteArray().length > 0);
+        }
+    }
+
+    private static MockMultipartHttpServletRequestBuilder convert() {
+        var builder = multipart("/api/open-api/excel/file").file(OPEN_API);
+        builder.param("outputFormat", "CSV");
+        return builder;
+    }
+
+}
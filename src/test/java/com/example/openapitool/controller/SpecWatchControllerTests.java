@@ -0,0 +1,61 @@
+package com.example.openapitool.controller;
+
+import com.example.openapitool.service.SpecWatchService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(SpecWatchController.class)
+class SpecWatchControllerTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SpecWatchService specWatchService;
+
+    @Test
+    void downloadsRenderedFile() throws Exception {
+        var content = "rendered workbook".getBytes();
+        var file = Files.write(tempDir.resolve("pets.json.DEFAULT.xlsx"), content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1_700_000_000_000L));
+        when(specWatchService.getRenderedFile("pets", null)).thenReturn(file);
+
+        var result = mockMvc.perform(get("/api/open-api/excel/watch/pets"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, String.valueOf(content.length)))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename*=UTF-8''pets.json.DEFAULT.xlsx"))
+            .andReturn();
+        assertArrayEquals(content, result.getResponse().getContentAsByteArray());
+        var lastModified = result.getResponse().getHeader(HttpHeaders.LAST_MODIFIED);
+
+        mockMvc.perform(get("/api/open-api/excel/watch/pets").header(HttpHeaders.IF_MODIFIED_SINCE, lastModified))
+            .andExpect(status().isNotModified());
+        // 格式錯誤的 If-Modified-Since 視為沒有
+        mockMvc.perform(get("/api/open-api/excel/watch/pets").header(HttpHeaders.IF_MODIFIED_SINCE, "yesterday"))
+            .andExpect(status().isOk());
+        var partial = mockMvc.perform(get("/api/open-api/excel/watch/pets").header(HttpHeaders.RANGE, "bytes=0-7"))
+            .andExpect(status().isPartialContent())
+            .andReturn();
+        assertEquals("rendered", partial.getResponse().getContentAsString());
+    }
+
+}
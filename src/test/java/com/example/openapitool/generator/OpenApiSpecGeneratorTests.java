@@ -0,0 +1,54 @@
+package com.example.openapitool.generator;
+
+import com.example.openapitool.constant.ParserEngine;
+import com.example.openapitool.constant.SpecFormat;
+import com.example.openapitool.model.SpecGeneratorOption;
+import com.example.openapitool.model.open_api.Api;
+import com.example.openapitool.model.open_api.Group;
+import com.example.openapitool.model.open_api.OpenApiDoc;
+import com.example.openapitool.service.OpenApiSpecService;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class OpenApiSpecGeneratorTests {
+
+    private final OpenApiSpecService openApiSpecService = new OpenApiSpecService();
+
+    @Test
+    void sameSeedGeneratesSameSpec() {
+        var option = SpecGeneratorOption.builder().seed(42).operations(50).directCycles(2).build();
+
+        assertEquals(
+            OpenApiSpecGenerator.generate(option, SpecFormat.JSON),
+            OpenApiSpecGenerator.generate(option, SpecFormat.JSON));
+        assertNotEquals(
+            OpenApiSpecGenerator.generate(option, SpecFormat.JSON),
+            OpenApiSpecGenerator.generate(SpecGeneratorOption.builder().seed(43).operations(50).build(), SpecFormat.JSON));
+    }
+
+    @Test
+    void generatedSpecCanBeParsedInJsonAndYaml() {
+        var option = SpecGeneratorOption.builder().operations(200).directCycles(2).build();
+        var json = OpenApiSpecGenerator.generate(option, SpecFormat.JSON);
+        var yaml = OpenApiSpecGenerator.generate(option, SpecFormat.YAML);
+
+        var expected = openApiSpecService.getOpenApiDoc(json, ParserEngine.JSON_PATH);
+
+        assertEquals(200, countApis(expected));
+        assertEquals(expected, openApiSpecService.getOpenApiDoc(json, ParserEngine.STREAMING));
+        assertEquals(expected, openApiSpecService.getOpenApiDoc(yaml, ParserEngine.JSON_PATH));
+        assertEquals(expected, openApiSpecService.getOpenApiDoc(yaml, ParserEngine.STREAMING));
+    }
+
+    private long countApis(OpenApiDoc openApiDoc) {
+        // 有多個 tag 的 API 會出現在多個 group
+        return openApiDoc.getGroups().stream()
+            .map(Group::getApis)
+            .flatMap(apis -> apis.stream().map(Api::getSummary))
+            .distinct()
+            .count();
+    }
+
+}
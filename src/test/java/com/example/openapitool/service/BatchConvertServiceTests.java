@@ -0,0 +1,83 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.constant.SpecFormat;
+import com.example.openapitool.generator.OpenApiSpecGenerator;
+import com.example.openapitool.model.ConvertOption;
+import com.example.openapitool.model.SpecGeneratorOption;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(properties = "open-api-tool.batch.pool-size=2")
+class BatchConvertServiceTests {
+
+    @Autowired
+    private BatchConvertService batchConvertService;
+
+    @Test
+    void convertsFilesAndZipEntriesAndRecordsFailures() throws IOException {
+        var option = SpecGeneratorOption.builder().operations(20).build();
+        var json = OpenApiSpecGenerator.generate(option, SpecFormat.JSON).getBytes(StandardCharsets.UTF_8);
+        var yaml = OpenApiSpecGenerator.generate(option, SpecFormat.YAML).getBytes(StandardCharsets.UTF_8);
+        var files = List.of(
+            new BatchConvertService.BatchFile("a.json", new ByteArrayResource(json)),
+            new BatchConvertService.BatchFile("broken.json", new ByteArrayResource("{".getBytes(StandardCharsets.UTF_8))),
+            new BatchConvertService.BatchFile("specs.zip", new ByteArrayResource(zip("a.yaml", yaml))));
+
+        var outputStream = new ByteArrayOutputStream();
+        batchConvertService.convertToZip(new ConvertOption(), files, outputStream);
+
+        var entryNames = new ArrayList<String>();
+        List<BatchConvertService.ManifestEntry> manifest = null;
+        try (var zipInputStream = new ZipInputStream(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                entryNames.add(entry.getName());
+                if ("manifest.json".equals(entry.getName())) {
+                    manifest = new ObjectMapper().readValue(zipInputStream.readAllBytes(), new TypeReference<>() {
+                    });
+                }
+            }
+        }
+
+        // 完成順序不固定，manifest 固定在最後
+        assertEquals("manifest.json", entryNames.get(entryNames.size() - 1));
+        assertEquals(List.of("a-2.xlsx", "a.xlsx", "manifest.json"), entryNames.stream().sorted().toList());
+        assertNotNull(manifest);
+        var statuses = manifest.stream()
+            .collect(Collectors.toMap(BatchConvertService.ManifestEntry::file, BatchConvertService.ManifestEntry::status));
+        assertEquals(Map.of("a.json", "SUCCESS", "specs.zip/a.yaml", "SUCCESS", "broken.json", "FAILED"), statuses);
+        manifest.stream()
+            .filter(entry -> "FAILED".equals(entry.status()))
+            .forEach(entry -> assertNotNull(entry.error()));
+    }
+
+    private byte[] zip(String name, byte[] content) throws IOException {
+        var outputStream = new ByteArrayOutputStream();
+        try (var zipOutputStream = new ZipOutputStream(outputStream)) {
+            zipOutputStream.putNextEntry(new ZipEntry(name));
+            zipOutputStream.write(content);
+            zipOutputStream.closeEntry();
+        }
+        return outputStream.toByteArray();
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.example.openapitool.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComponentIndexTests {
+
+    private static final Map<String, Object> NAME = Map.of("type", "string");
+    private static final Map<String, Object> TAG = Map.of("type", "integer");
+    private static final Map<String, Object> PET = Map.of(
+        "type", "object",
+        "properties", Map.of("name", NAME),
+        "allOf", List.of(Map.of("$ref", "#/components/schemas/Base"), TAG));
+    private static final Map<String, Object> SLASHED = Map.of("type", "boolean");
+    private static final Map<String, Object> SPACED = Map.of("type", "number");
+    private static final Map<String, Object> COMPONENTS = Map.of("schemas", Map.of(
+        "Pet", PET,
+        "a/b~c", SLASHED,
+        "Pet Info", SPACED,
+        "100%", NAME));
+
+    @Test
+    void findsNestedNodes() {
+        var index = ComponentIndex.of(COMPONENTS);
+
+        assertSame(COMPONENTS, index.get("#/components"));
+        assertSame(PET, index.get("#/components/schemas/Pet"));
+        assertSame(NAME, index.get("#/components/schemas/Pet/properties/name"));
+        // 陣列中的物件以 index 作為 token
+        assertSame(TAG, index.get("#/components/schemas/Pet/allOf/1"));
+        assertNull(index.get("#/components/schemas/Pet/allOf/2"));
+        assertNull(index.get("#/components/schemas/Missing"));
+        assertNull(index.get(null));
+        assertNull(ComponentIndex.of(null).get("#/components/schemas/Pet"));
+    }
+
+    @Test
+    void escapesTildeAndSlashInKeys() {
+        var index = ComponentIndex.of(COMPONENTS);
+
+        assertSame(SLASHED, index.get("#/components/schemas/a~1b~0c"));
+        // 沒有跳脫的 "/" 被視為 pointer 的分隔
+        assertNull(index.get("#/components/schemas/a/b~c"));
+        assertNull(index.get("#/components/schemas/a~1b~c"));
+    }
+
+    @Test
+    void decodesPercentEncodedRefs() {
+        var index = ComponentIndex.of(COMPONENTS);
+
+        assertSame(SPACED, index.get("#/components/schemas/Pet%20Info"));
+        assertSame(SLASHED, index.get("#/components/schemas/a%7E1b%7E0c"));
+        // 含 "%" 的 key 先以原文比對
+        assertSame(NAME, index.get("#/components/schemas/100%"));
+        assertSame(NAME, index.get("#/components/schemas/100%25"));
+        assertNull(index.get("#/components/schemas/50%"));
+        assertNull(index.get("#/components/schemas/50%zz"));
+    }
+
+    @Test
+    void findsNodesOfExternalDocuments() {
+        var uri = "https://example.com/common.yaml";
+        var document = Map.<String, Object>of("components", COMPONENTS);
+        var index = ComponentIndex.of(Map.of(), Map.of(uri, ComponentIndex.ofDocument(uri, document)));
+
+        assertSame(document, index.get(uri + "#"));
+        assertSame(NAME, index.get(uri + "#/components/schemas/Pet/properties/name"));
+        assertSame(SPACED, index.get(uri + "#/components/schemas/Pet%20Info"));
+        assertNull(index.get("https://example.com/other.yaml#/components/schemas/Pet"));
+        // 外部文件的節點不會出現在本文件的索引中
+        assertNull(index.get("#/components/schemas/Pet"));
+    }
+
+}
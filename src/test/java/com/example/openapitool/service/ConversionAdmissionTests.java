@@ -0,0 +1,136 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.exception.ServiceUnavailableException;
+import com.example.openapitool.model.SpecContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversionAdmissionTests {
+
+    private ConversionAdmission conversionAdmission;
+
+    @BeforeEach
+    void setUp() {
+        conversionAdmission = new ConversionAdmission();
+        conversionAdmission.enabled = true;
+        conversionAdmission.memoryBudget = DataSize.ofKilobytes(1000);
+        conversionAdmission.maxConcurrent = 3;
+        conversionAdmission.queueTimeout = Duration.ofMillis(100);
+        conversionAdmission.reserveAfter = Duration.ofSeconds(10);
+        conversionAdmission.bytesPerInputByte = 1;
+        conversionAdmission.bytesPerOperation = DataSize.ofBytes(0);
+        conversionAdmission.init();
+    }
+
+    @Test
+    void smallSpecsFlowWhileLargeSpecsWaitForBudget() throws Exception {
+        var large = spec(DataSize.ofKilobytes(800));
+        var small = spec(DataSize.ofKilobytes(100));
+
+        var largePermit = conversionAdmission.acquire(large);
+        var smallPermit = conversionAdmission.acquire(small);
+        assertThrows(ServiceUnavailableException.class, () -> conversionAdmission.acquire(large));
+
+        var stats = conversionAdmission.getStats();
+        assertEquals(2, stats.running());
+        assertEquals(DataSize.ofKilobytes(900).toBytes(), stats.inFlightBytes());
+        assertEquals(1, stats.rejected());
+
+        // 等待中的轉換在預算歸還後放行
+        conversionAdmission.queueTimeout = Duration.ofSeconds(10);
+        var waiting = CompletableFuture.supplyAsync(() -> conversionAdmission.acquire(large));
+        awaitQueueDepth(1);
+        largePermit.close();
+        waiting.get(10, TimeUnit.SECONDS).close();
+        smallPermit.close();
+
+        stats = conversionAdmission.getStats();
+        assertEquals(0, stats.running());
+        assertEquals(0, stats.inFlightBytes());
+        assertEquals(0, stats.queueDepth());
+    }
+
+    @Test
+    void smallSpecsPassWaitingLargeSpec() throws Exception {
+        var large = spec(DataSize.ofKilobytes(800));
+        var small = spec(DataSize.ofKilobytes(100));
+        var largePermit = conversionAdmission.acquire(large);
+
+        conversionAdmission.queueTimeout = Duration.ofSeconds(10);
+        var waiting = CompletableFuture.supplyAsync(() -> conversionAdmission.acquire(large));
+        awaitQueueDepth(1);
+        // 預算足夠的小檔案不需要等待前面的大檔案
+        try (var ignored = conversionAdmission.acquire(small)) {
+            assertEquals(2, conversionAdmission.getStats().running());
+            assertEquals(1, conversionAdmission.getStats().queueDepth());
+        }
+        assertFalse(waiting.isDone());
+
+        largePermit.close();
+        waiting.get(10, TimeUnit.SECONDS).close();
+        assertEquals(0, conversionAdmission.getStats().queueDepth());
+    }
+
+    @Test
+    void waitingLargeSpecReservesBudgetAfterDelay() throws Exception {
+        var large = spec(DataSize.ofKilobytes(960));
+        var small = spec(DataSize.ofKilobytes(50));
+        var smallPermit = conversionAdmission.acquire(small);
+
+        conversionAdmission.reserveAfter = Duration.ofMillis(50);
+        conversionAdmission.queueTimeout = Duration.ofSeconds(10);
+        var waiting = CompletableFuture.supplyAsync(() -> conversionAdmission.acquire(large));
+        awaitQueueDepth(1);
+        Thread.sleep(100);
+        // 等待超過 reserve-after 後保留預算，剩餘預算放不下的小檔案不能再插隊
+        conversionAdmission.queueTimeout = Duration.ofMillis(100);
+        assertThrows(ServiceUnavailableException.class, () -> conversionAdmission.acquire(small));
+
+        smallPermit.close();
+        waiting.get(10, TimeUnit.SECONDS).close();
+        assertEquals(0, conversionAdmission.getStats().running());
+    }
+
+    @Test
+    void specLargerThanBudgetRunsAlone() {
+        try (var ignored = conversionAdmission.acquire(spec(DataSize.ofMegabytes(2)))) {
+            assertEquals(DataSize.ofKilobytes(1000).toBytes(), conversionAdmission.getStats().inFlightBytes());
+            assertThrows(ServiceUnavailableException.class,
+                () -> conversionAdmission.acquire(spec(DataSize.ofKilobytes(1))));
+        }
+    }
+
+    @Test
+    void limitsConcurrentConversions() {
+        var tiny = spec(DataSize.ofBytes(1));
+        var permits = new ConversionAdmission.Permit[3];
+        for (int i = 0; i < permits.length; i++) {
+            permits[i] = conversionAdmission.acquire(tiny);
+        }
+        assertThrows(ServiceUnavailableException.class, () -> conversionAdmission.acquire(tiny));
+        for (ConversionAdmission.Permit permit : permits) {
+            permit.close();
+        }
+        conversionAdmission.acquire(tiny).close();
+    }
+
+    private void awaitQueueDepth(int queueDepth) throws InterruptedException {
+        var deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (conversionAdmission.getStats().queueDepth() != queueDepth) {
+            assertTrue(System.nanoTime() < deadline, "timeout");
+            Thread.sleep(10);
+        }
+    }
+
+    private static SpecContent spec(DataSize size) {
+        return new SpecContent(new byte[(int) size.toBytes()], "hash");
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.example.openapitool.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConversionCacheTests {
+
+    private static final int ENTRY_SIZE = 40;
+
+    @TempDir
+    Path tempDir;
+
+    private ConversionCache conversionCache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        conversionCache = newCache("");
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesByBytes() throws IOException {
+        put("a");
+        put("b");
+        assertNotNull(conversionCache.get("a"));
+        put("c");
+
+        // 上限 100 bytes，b 最久未使用
+        assertNull(conversionCache.get("b"));
+        assertArrayEquals(entry("a"), conversionCache.get("a"));
+        assertArrayEquals(entry("c"), conversionCache.get("c"));
+        var stats = conversionCache.getStats();
+        assertEquals(2, stats.memoryEntries());
+        assertEquals(ENTRY_SIZE * 2, stats.memorySize());
+        assertEquals(1, stats.evictions());
+        assertEquals(3, stats.memoryHits());
+        assertEquals(1, stats.misses());
+    }
+
+    @Test
+    void skipsEntriesLargerThanLimits() throws IOException {
+        var entryOutputStream = conversionCache.newEntryStream(OutputStream.nullOutputStream());
+        entryOutputStream.write(new byte[(int) conversionCache.entryMaxSize.toBytes() + 1]);
+        conversionCache.put("large", entryOutputStream);
+
+        assertNull(conversionCache.get("large"));
+        assertEquals(0, conversionCache.getStats().memoryEntries());
+        assertEquals(0, conversionCache.getStats().evictions());
+    }
+
+    @Test
+    void promotesDiskEntriesAndEvictsDiskByBytes() throws IOException {
+        // 記憶體只放得下一筆，磁碟放得下兩筆
+        conversionCache = newCache(tempDir.toString());
+        conversionCache.memoryMaxSize = DataSize.ofBytes(ENTRY_SIZE + 10);
+        put("a");
+        put("b");
+
+        assertArrayEquals(entry("a"), conversionCache.get("a"));
+        assertEquals(1, conversionCache.getStats().diskHits());
+        // a 由磁碟放回記憶體
+        assertArrayEquals(entry("a"), conversionCache.get("a"));
+        assertEquals(1, conversionCache.getStats().memoryHits());
+
+        put("c");
+
+        // 磁碟上 b 最久未使用
+        assertFalse(Files.exists(tempDir.resolve("b.cache")));
+        assertTrue(Files.exists(tempDir.resolve("a.cache")));
+        assertTrue(Files.exists(tempDir.resolve("c.cache")));
+        var stats = conversionCache.getStats();
+        assertEquals(2, stats.diskEntries());
+        assertEquals(ENTRY_SIZE * 2, stats.diskSize());
+        // 記憶體淘汰 a、b、a，磁碟淘汰 b
+        assertEquals(4, stats.evictions());
+        assertNull(conversionCache.get("b"));
+        assertEquals(1, conversionCache.getStats().misses());
+    }
+
+    @Test
+    void reloadsDiskEntriesAfterRestart() throws IOException {
+        conversionCache = newCache(tempDir.toString());
+        put("a");
+        put("b");
+
+        var restarted = newCache(tempDir.toString());
+
+        assertEquals(2, restarted.getStats().diskEntries());
+        assertEquals(ENTRY_SIZE * 2, restarted.getStats().diskSize());
+        assertArrayEquals(entry("b"), restarted.get("b"));
+        assertEquals(1, restarted.getStats().diskHits());
+    }
+
+    private ConversionCache newCache(String cacheDir) throws IOException {
+        var cache = new ConversionCache();
+        cache.enabled = true;
+        cache.memoryMaxSize = DataSize.ofBytes(ENTRY_SIZE * 2 + 20);
+        cache.entryMaxSize = DataSize.ofBytes(ENTRY_SIZE * 2);
+        cache.cacheDir = cacheDir;
+        cache.diskMaxSize = DataSize.ofBytes(ENTRY_SIZE * 2 + 20);
+        cache.init();
+        return cache;
+    }
+
+    private void put(String key) throws IOException {
+        var entryOutputStream = conversionCache.newEntryStream(OutputStream.nullOutputStream());
+        entryOutputStream.write(entry(key));
+        conversionCache.put(key, entryOutputStream);
+    }
+
+    private static byte[] entry(String key) {
+        return key.repeat(ENTRY_SIZE).getBytes();
+    }
+
+}
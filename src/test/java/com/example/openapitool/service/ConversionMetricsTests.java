@@ -0,0 +1,54 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.constant.SpecFormat;
+import com.example.openapitool.generator.OpenApiSpecGenerator;
+import com.example.openapitool.model.ConvertOption;
+import com.example.openapitool.model.SpecGeneratorOption;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "open-api-tool.cache.enabled=false")
+class ConversionMetricsTests {
+
+    @Autowired
+    private SheetService sheetService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void recordsStagesAndSizesByTemplateAndEndpoint() {
+        var yaml = OpenApiSpecGenerator.generate(SpecGeneratorOption.builder().operations(20).build(), SpecFormat.YAML);
+        var spec = sheetService.readSpec(new ByteArrayInputStream(yaml.getBytes(StandardCharsets.UTF_8)));
+        var option = ConvertOption.builder().templateType("SIMPLE").endpoint("file").build();
+        var outputStream = new ByteArrayOutputStream();
+
+        sheetService.convertOpenApiToSheet(option, spec, outputStream);
+
+        for (String stage : new String[]{"parse", "resolve", "sheet", "example", "render"}) {
+            var timer = meterRegistry.find(ConversionMetrics.STAGE_TIMER)
+                .tags("template", "SIMPLE", "endpoint", "file", "stage", stage)
+                .timer();
+            assertTrue(timer != null && timer.count() > 0, stage);
+        }
+        assertEquals(yaml.getBytes(StandardCharsets.UTF_8).length, summaryTotal(ConversionMetrics.INPUT_SIZE));
+        assertEquals(20, summaryTotal(ConversionMetrics.OPERATIONS));
+        assertTrue(summaryTotal(ConversionMetrics.RESOLVED_REFS) > 0);
+        assertTrue(summaryTotal(ConversionMetrics.ROWS) > 0);
+        assertEquals(outputStream.size(), summaryTotal(ConversionMetrics.OUTPUT_SIZE));
+    }
+
+    private long summaryTotal(String name) {
+        return (long) meterRegistry.get(name).tags("template", "SIMPLE", "endpoint", "file").summary().totalAmount();
+    }
+
+}
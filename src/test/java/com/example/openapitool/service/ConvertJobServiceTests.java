@@ -0,0 +1,168 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.constant.JobStatus;
+import com.example.openapitool.constant.SpecFormat;
+import com.example.openapitool.exception.ConflictException;
+import com.example.openapitool.exception.NotFoundException;
+import com.example.openapitool.exception.TooManyRequestsException;
+import com.example.openapitool.generator.OpenApiSpecGenerator;
+import com.example.openapitool.model.ConvertJobStatus;
+import com.example.openapitool.model.ConvertOption;
+import com.example.openapitool.model.SpecContent;
+import com.example.openapitool.model.SpecGeneratorOption;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+    "open-api-tool.job.pool-size=1",
+    "open-api-tool.job.queue-capacity=1",
+    "open-api-tool.job.retry-after=5s"})
+class ConvertJobServiceTests {
+
+    @Autowired
+    private ConvertJobService convertJobService;
+
+    @Autowired
+    private SheetService sheetService;
+
+    @Test
+    void rejectsWhenQueueIsFullAndCompletesQueuedJobs() throws Exception {
+        var json = OpenApiSpecGenerator.generate(SpecGeneratorOption.builder().operations(10).build(), SpecFormat.JSON);
+        var release = new CountDownLatch(1);
+        try (var server = new MockWebServer()) {
+            // 下載 url 時卡住唯一的 worker，直到測試放行
+            server.setDispatcher(new Dispatcher() {
+                @NotNull
+                @Override
+                public MockResponse dispatch(@NotNull RecordedRequest request) throws InterruptedException {
+                    release.await(10, TimeUnit.SECONDS);
+                    return new MockResponse().setBody(json);
+                }
+            });
+            server.start();
+            var spec = readSpec(json);
+
+            var running = convertJobService.submit(new ConvertOption(), server.url("/open-api.json").toString());
+            awaitRunning(running.getJobId());
+            var queued = convertJobService.submit(new ConvertOption(), spec);
+            assertEquals(JobStatus.QUEUED, queued.getStatus());
+            assertThrows(ConflictException.class, () -> convertJobService.openResult(queued.getJobId()));
+
+            var rejected = assertThrows(TooManyRequestsException.class,
+                () -> convertJobService.submit(new ConvertOption(), spec));
+            assertEquals("5", rejected.getResponseHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+            release.countDown();
+            assertEquals(JobStatus.SUCCEEDED, awaitFinished(running.getJobId()).getStatus());
+            var status = awaitFinished(queued.getJobId());
+            assertEquals(JobStatus.SUCCEEDED, status.getStatus());
+            assertNotNull(status.getExpireTime());
+            try (var result = convertJobService.openResult(queued.getJobId())) {
+                assertTrue(result.getSize() > 0);
+            }
+            assertEquals(0, convertJobService.getQueuedBytes());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void rejectsWhenQueuedContentIsTooLarge() throws Exception {
+        var json = OpenApiSpecGenerator.generate(SpecGeneratorOption.builder().operations(10).build(), SpecFormat.JSON);
+        var spec = readSpec(json);
+        var release = new CountDownLatch(1);
+        var maxQueuedSize = convertJobService.maxQueuedSize;
+        try (var server = new MockWebServer()) {
+            server.setDispatcher(new Dispatcher() {
+                @NotNull
+                @Override
+                public MockResponse dispatch(@NotNull RecordedRequest request) throws InterruptedException {
+                    release.await(10, TimeUnit.SECONDS);
+                    return new MockResponse().setBody(json);
+                }
+            });
+            server.start();
+            convertJobService.maxQueuedSize = DataSize.ofBytes(spec.getContent().length + 1);
+
+            var running = convertJobService.submit(new ConvertOption(), server.url("/open-api.json").toString());
+            awaitRunning(running.getJobId());
+            var queued = convertJobService.submit(new ConvertOption(), spec);
+            assertEquals(spec.getContent().length, convertJobService.getQueuedBytes());
+            // 排隊中的內容已接近上限，即使佇列還有空間也拒絕
+            var rejected = assertThrows(TooManyRequestsException.class,
+                () -> convertJobService.submit(new ConvertOption(), spec));
+            assertTrue(rejected.getMessage().contains("max queued size"));
+
+            release.countDown();
+            assertEquals(JobStatus.SUCCEEDED, awaitFinished(running.getJobId()).getStatus());
+            assertEquals(JobStatus.SUCCEEDED, awaitFinished(queued.getJobId()).getStatus());
+            assertEquals(0, convertJobService.getQueuedBytes());
+        } finally {
+            release.countDown();
+            convertJobService.maxQueuedSize = maxQueuedSize;
+        }
+    }
+
+    @Test
+    void keepsExpiredResultUntilDownloadIsClosed() throws Exception {
+        var spec = readSpec(OpenApiSpecGenerator.generate(SpecGeneratorOption.builder().operations(3).build(), SpecFormat.JSON));
+        var jobId = convertJobService.submit(new ConvertOption(), spec).getJobId();
+        assertEquals(JobStatus.SUCCEEDED, awaitFinished(jobId).getStatus());
+
+        var ttl = convertJobService.ttl;
+        try (var result = convertJobService.openResult(jobId)) {
+            convertJobService.ttl = Duration.ZERO;
+            Thread.sleep(10);
+            convertJobService.removeExpiredJobs();
+            // 過期後不能再開始下載，已開始的下載可以讀完
+            assertThrows(NotFoundException.class, () -> convertJobService.openResult(jobId));
+            assertEquals(result.getSize(), result.getInputStream().readAllBytes().length);
+        } finally {
+            convertJobService.removeExpiredJobs();
+            convertJobService.ttl = ttl;
+        }
+        assertThrows(NotFoundException.class, () -> convertJobService.getStatus(jobId));
+    }
+
+    private SpecContent readSpec(String json) {
+        return sheetService.readSpec(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // worker 取出工作後佇列才有空間
+    private void awaitRunning(String jobId) throws InterruptedException {
+        var deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (convertJobService.getStatus(jobId).getStatus() == JobStatus.QUEUED) {
+            assertTrue(System.currentTimeMillis() < deadline, "Job not started: " + jobId);
+            Thread.sleep(50);
+        }
+    }
+
+    private ConvertJobStatus awaitFinished(String jobId) throws InterruptedException {
+        var deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (System.currentTimeMillis() < deadline) {
+            var status = convertJobService.getStatus(jobId);
+            if (status.getStatus() == JobStatus.SUCCEEDED || status.getStatus() == JobStatus.FAILED) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        return fail("Job not finished: " + jobId);
+    }
+
+}
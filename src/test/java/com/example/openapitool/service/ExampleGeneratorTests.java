@@ -0,0 +1,75 @@
+package com.example.openapitool.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SuppressWarnings("unchecked")
+class ExampleGeneratorTests {
+
+    private static final String PET = "#/components/schemas/Pet";
+    private static final String OWNER = "#/components/schemas/Owner";
+
+    private ComponentIndex componentIndex;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        var components = """
+            {"schemas": {
+              "Pet": {"type": "object", "properties": {
+                "id": {"type": "integer", "format": "int64"},
+                "name": {"type": "string"},
+                "tags": {"type": "array", "items": {"$ref": "#/components/schemas/Tag"}},
+                "status": {"$ref": "#/components/schemas/Status"},
+                "born": {"type": "string", "format": "date"},
+                "parent": {"$ref": "#/components/schemas/Pet"},
+                "owner": {"$ref": "#/components/schemas/Owner"}}},
+              "Owner": {"type": "object", "properties": {
+                "pets": {"type": "array", "items": {"$ref": "#/components/schemas/Pet"}}}},
+              "Tag": {"type": "object", "properties": {"label": {"type": "string", "example": "vip"}}},
+              "Status": {"type": "string", "enum": ["A", "B"]}
+            }}
+            """;
+        componentIndex = ComponentIndex.of(new ObjectMapper().readValue(components, Map.class));
+    }
+
+    @Test
+    void cutsCyclesAtAncestorsRegardlessOfCache() {
+        var exampleGenerator = new ExampleGenerator(componentIndex, 16, 2000, 1);
+
+        assertEquals(
+            "{\"id\":0,\"name\":\"string\",\"tags\":[{\"label\":\"string\"}],\"status\":\"A\",\"born\":\"2023-12-31\","
+                + "\"parent\":{},\"owner\":{\"pets\":[{}]}}",
+            compact(exampleGenerator.getExample(PET)));
+        // Pet 在循環參照上，不會以快取的結果展開在 Owner 底下
+        var owner = exampleGenerator.getExample(OWNER);
+        assertEquals(
+            "{\"pets\":[{\"id\":0,\"name\":\"string\",\"tags\":[{\"label\":\"string\"}],\"status\":\"A\","
+                + "\"born\":\"2023-12-31\",\"parent\":{},\"owner\":{}}]}",
+            compact(owner));
+        assertEquals(owner, new ExampleGenerator(componentIndex, 16, 2000, 1).getExample(OWNER));
+    }
+
+    @Test
+    void limitsDepthPropertiesAndArraySamples() {
+        assertEquals(
+            "{\"id\":0,\"name\":\"string\",\"tags\":[{}],\"status\":\"A\",\"born\":\"2023-12-31\",\"parent\":{},\"owner\":{}}",
+            compact(new ExampleGenerator(componentIndex, 1, 2000, 1).getExample(PET)));
+        assertEquals(
+            "{\"id\":0,\"name\":\"string\"}",
+            compact(new ExampleGenerator(componentIndex, 16, 2, 1).getExample(PET)));
+        // 欄位數用完後陣列只保留一個樣本
+        assertEquals(
+            "{\"pets\":[{\"id\":0,\"name\":\"string\",\"tags\":[{},{},{}]}]}",
+            compact(new ExampleGenerator(componentIndex, 2, 4, 3).getExample(OWNER)));
+    }
+
+    private static String compact(String json) {
+        return json.replaceAll("\\s+", "");
+    }
+
+}
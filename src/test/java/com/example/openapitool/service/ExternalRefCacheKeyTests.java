@@ -0,0 +1,108 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.constant.OutputFormat;
+import com.example.openapitool.model.ConvertOption;
+import com.example.openapitool.model.SpecContent;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 轉換結果快取維持開啟，外部文件不快取，確認外部文件異動後 key (ETag) 與輸出都會改變
+@SpringBootTest(properties = "open-api-tool.ref.cache-ttl=0s")
+class ExternalRefCacheKeyTests {
+
+    private static final String ROOT = """
+        openapi: 3.0.3
+        info:
+          title: pets
+        paths:
+          /pets:
+            get:
+              tags: [pet]
+              operationId: getPet
+              responses:
+                '200':
+                  description: ok
+                  content:
+                    application/json:
+                      schema:
+                        $ref: 'common.yaml#/components/schemas/Pet'
+        """;
+
+    @Autowired
+    private SheetService sheetService;
+
+    private MockWebServer server;
+    private final AtomicReference<String> common = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setBody(common.get());
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void changesKeyAndOutputWhenExternalDocumentChanges() {
+        var location = server.url("/specs/api.yaml").toString();
+        var spec = sheetService.readSpec(new ByteArrayInputStream(ROOT.getBytes(StandardCharsets.UTF_8)));
+        spec = new SpecContent(spec.getContent(), spec.getContentHash(), location);
+        var option = ConvertOption.builder().outputFormat(OutputFormat.CSV).build();
+
+        common.set(pet("name"));
+        var firstKey = sheetService.getCacheKey(spec, option);
+        var first = convert(spec, option);
+        assertEquals(firstKey, sheetService.getCacheKey(spec, option));
+
+        common.set(pet("nickname"));
+        var secondKey = sheetService.getCacheKey(spec, option);
+        var second = convert(spec, option);
+
+        assertNotEquals(firstKey, secondKey);
+        assertTrue(first.contains("name") && !first.contains("nickname"));
+        assertTrue(second.contains("nickname"));
+    }
+
+    private String convert(SpecContent spec, ConvertOption option) {
+        var outputStream = new ByteArrayOutputStream();
+        sheetService.convertOpenApiToSheet(option, spec, outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    private static String pet(String property) {
+        return """
+            components:
+              schemas:
+                Pet:
+                  type: object
+                  properties:
+                    %s:
+                      type: string
+            """.formatted(property);
+    }
+
+}
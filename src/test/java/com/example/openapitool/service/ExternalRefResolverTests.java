@@ -0,0 +1,320 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.exception.BadRequestException;
+import com.example.openapitool.exception.InternalServerErrorException;
+import com.example.openapitool.model.SpecContent;
+import com.example.openapitool.model.open_api.OpenApiDoc;
+import com.example.openapitool.model.open_api.Parameter;
+import com.example.openapitool.model.open_api.ResponsePayload;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalRefResolverTests {
+
+    private static final long DELAY_MILLIS = 500;
+
+    @TempDir
+    Path tempDir;
+
+    private MockWebServer server;
+    private ExternalRefResolver externalRefResolver;
+    private OpenApiSpecService openApiSpecService;
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                var path = request.getPath();
+                requestCounts.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+                var body = switch (path) {
+                    case "/specs/api.yaml" -> rootDocument("common.yaml#/components/schemas/Pet", "models/owner.yaml");
+                    case "/specs/common.yaml" -> common();
+                    case "/specs/models/owner.yaml" -> schema("owner", "string");
+                    case "/specs/models/tag.yaml" -> schema("tag", "string");
+                    case "/specs/slow.yaml" -> {
+                        // 超過讀取時間上限的文件
+                        try {
+                            Thread.sleep(DELAY_MILLIS * 4);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        yield schema("slow", "string");
+                    }
+                    default -> null;
+                };
+                if (body == null) {
+                    return new MockResponse().setResponseCode(404);
+                }
+                return new MockResponse().setBody(body).setBodyDelay(DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+
+        var openApiFetchService = new OpenApiFetchService(new OkHttpClient());
+        openApiFetchService.maxResponseSize = DataSize.ofMegabytes(1);
+        openApiFetchService.cacheSize = 10;
+        openApiFetchService.init();
+        externalRefResolver = new ExternalRefResolver(openApiFetchService);
+        externalRefResolver.enabled = true;
+        externalRefResolver.maxInFlight = 4;
+        externalRefResolver.maxDocuments = 10;
+        externalRefResolver.cacheTtl = Duration.ofMinutes(5);
+        externalRefResolver.timeout = Duration.ofSeconds(10);
+        externalRefResolver.baseDir = tempDir.toString();
+        externalRefResolver.maxInputSize = DataSize.ofMegabytes(1);
+        externalRefResolver.allowedHosts = List.of();
+        externalRefResolver.init();
+        openApiSpecService = new OpenApiSpecService();
+        openApiSpecService.externalRefResolver = externalRefResolver;
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        externalRefResolver.destroy();
+        server.shutdown();
+    }
+
+    @Test
+    void resolvesLocalFileRefsUnderBaseDir() throws IOException {
+        Files.writeString(tempDir.resolve("common.yaml"), common());
+        Files.createDirectories(tempDir.resolve("models"));
+        Files.writeString(tempDir.resolve("models/owner.yaml"), schema("owner", "string"));
+        Files.writeString(tempDir.resolve("models/tag.yaml"), schema("tag", "string"));
+        var content = rootDocument("common.yaml#/components/schemas/Pet", "models/owner.yaml");
+
+        var parameters = getResponseParameters(openApiSpecService.getOpenApiDoc(content));
+
+        assertEquals(List.of("id", "category", "name", "tag", "tag", "owner", "owner"), names(parameters.get(0)));
+        assertEquals(List.of("owner"), names(parameters.get(1)));
+    }
+
+    @Test
+    void resolvesUrlRefsConcurrentlyAndCachesDocuments() {
+        var location = server.url("/specs/api.yaml").toString();
+        var spec = new SpecContent(rootDocument("common.yaml#/components/schemas/Pet", "models/owner.yaml")
+            .getBytes(StandardCharsets.UTF_8), "hash", location);
+
+        var start = System.nanoTime();
+        var parameters = getResponseParameters(openApiSpecService.getOpenApiDoc(spec));
+        var elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        openApiSpecService.getOpenApiDoc(spec);
+
+        assertEquals(List.of("id", "category", "name", "tag", "tag", "owner", "owner"), names(parameters.get(0)));
+        assertEquals(List.of("owner"), names(parameters.get(1)));
+        // common.yaml 與 owner.yaml 同時讀取，tag.yaml 在 common.yaml 之後，循序讀取需要 3 倍的延遲
+        assertTrue(elapsedMillis < DELAY_MILLIS * 3, "elapsed: " + elapsedMillis);
+        // owner.yaml 同時被根文件與 common.yaml 參照，第二次轉換使用快取
+        assertEquals(1, requestCounts.get("/specs/common.yaml").get());
+        assertEquals(1, requestCounts.get("/specs/models/owner.yaml").get());
+        assertEquals(1, requestCounts.get("/specs/models/tag.yaml").get());
+    }
+
+    @Test
+    void rejectsFileOutsideBaseDir() throws IOException {
+        Files.writeString(tempDir.getParent().resolve("outside.yaml"), schema("outside", "string"));
+        var content = rootDocument("../outside.yaml", "../outside.yaml");
+
+        assertThrows(BadRequestException.class, () -> openApiSpecService.getOpenApiDoc(content));
+    }
+
+    @Test
+    void rejectsLocalFileWithoutBaseDir() throws IOException {
+        externalRefResolver.destroy();
+        externalRefResolver.baseDir = "";
+        externalRefResolver.init();
+        var content = rootDocument(tempDir.resolve("common.yaml").toUri().toString(), "#/components/schemas/Local");
+
+        assertThrows(BadRequestException.class, () -> openApiSpecService.getOpenApiDoc(content));
+    }
+
+    @Test
+    void ignoresRefsInExamples() {
+        var content = rootDocument("#/components/schemas/Local", "#/components/schemas/Local") + """
+                Example:
+                  type: object
+                  example:
+                    $ref: '%s'
+            """.formatted(server.url("/specs/common.yaml"));
+
+        var parameters = getResponseParameters(openApiSpecService.getOpenApiDoc(content));
+
+        assertEquals(List.of("id"), names(parameters.get(0)));
+        assertEquals(0, server.getRequestCount());
+    }
+
+    @Test
+    void fetchesRemoteRefsOfUploadsOnlyFromAllowedHosts() {
+        var content = rootDocument(server.url("/specs/common.yaml") + "#/components/schemas/Pet", "#/components/schemas/Local");
+
+        assertThrows(BadRequestException.class, () -> openApiSpecService.getOpenApiDoc(content));
+        assertEquals(0, server.getRequestCount());
+
+        externalRefResolver.allowedHosts = List.of(server.getHostName());
+        var parameters = getResponseParameters(openApiSpecService.getOpenApiDoc(content));
+        assertEquals(List.of("id", "category", "name", "tag", "tag", "owner", "owner"), names(parameters.get(0)));
+    }
+
+    @Test
+    void resolvesRefsToRootDocumentWithoutFetchingIt() {
+        var location = server.url("/specs/api.yaml").toString();
+        var spec = new SpecContent(rootDocument("api.yaml#/components/schemas/Local", "#/components/schemas/Local")
+            .getBytes(StandardCharsets.UTF_8), "hash", location);
+
+        var parameters = getResponseParameters(openApiSpecService.getOpenApiDoc(spec));
+
+        assertEquals(List.of("id"), names(parameters.get(0)));
+        assertEquals(List.of("id"), names(parameters.get(1)));
+        assertEquals(0, server.getRequestCount());
+    }
+
+    @Test
+    void parsesAndResolvesOncePerPreparedSpec() {
+        var location = server.url("/specs/api.yaml").toString();
+        var spec = new PreparedSpec(new SpecContent(rootDocument("common.yaml#/components/schemas/Pet", "models/owner.yaml")
+            .getBytes(StandardCharsets.UTF_8), "hash", location));
+        externalRefResolver.cacheTtl = Duration.ZERO;
+
+        var hash = openApiSpecService.getExternalRefHash(spec);
+        var parameters = getResponseParameters(openApiSpecService.getOpenApiDoc(spec, ConversionMetrics.Recorder.NOOP));
+
+        assertNotNull(hash);
+        assertEquals(hash, openApiSpecService.getExternalRefHash(spec));
+        assertEquals(List.of("id", "category", "name", "tag", "tag", "owner", "owner"), names(parameters.get(0)));
+        // 外部文件不快取，仍只在計算 hash 時讀取一次
+        assertEquals(1, requestCounts.get("/specs/common.yaml").get());
+        assertEquals(1, requestCounts.get("/specs/models/tag.yaml").get());
+    }
+
+    @Test
+    void skipsParsingWithoutExternalRefs() {
+        var spec = new PreparedSpec(new SpecContent(rootDocument("#/components/schemas/Local", "#/components/schemas/Local")
+            .getBytes(StandardCharsets.UTF_8), "hash"));
+
+        assertNull(openApiSpecService.getExternalRefHash(spec));
+        assertNull(spec.root);
+        assertFalse(ExternalRefResolver.hasNonLocalRef("{\"$ref\": \"#/components/schemas/Local\"}".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(ExternalRefResolver.hasNonLocalRef("{\"$ref\" : \"common.json\"}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void timesOutEachFetch() {
+        externalRefResolver.timeout = Duration.ofMillis(DELAY_MILLIS);
+        var location = server.url("/specs/api.yaml").toString();
+        var spec = new SpecContent(rootDocument("slow.yaml", "#/components/schemas/Local")
+            .getBytes(StandardCharsets.UTF_8), "hash", location);
+
+        var start = System.nanoTime();
+        assertThrows(InternalServerErrorException.class, () -> openApiSpecService.getOpenApiDoc(spec));
+        var elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis < DELAY_MILLIS * 3, "elapsed: " + elapsedMillis);
+    }
+
+    private static List<List<Parameter>> getResponseParameters(OpenApiDoc doc) {
+        return doc.getGroups().stream()
+            .flatMap(group -> group.getApis().stream())
+            .flatMap(api -> api.getResponsePayloads().stream())
+            .map(ResponsePayload::getParameters)
+            .toList();
+    }
+
+    private static List<String> names(List<Parameter> parameters) {
+        return parameters.stream().map(Parameter::getName).toList();
+    }
+
+    private static String rootDocument(String petRef, String ownerRef) {
+        return """
+            openapi: 3.0.3
+            info:
+              title: pets
+            paths:
+              /pets:
+                get:
+                  tags: [pet]
+                  operationId: getPet
+                  responses:
+                    '200':
+                      description: ok
+                      content:
+                        application/json:
+                          schema:
+                            $ref: '%s'
+              /owners:
+                get:
+                  tags: [pet]
+                  operationId: getOwner
+                  responses:
+                    '200':
+                      description: ok
+                      content:
+                        application/json:
+                          schema:
+                            $ref: '%s'
+            components:
+              schemas:
+                Local:
+                  type: object
+                  properties:
+                    id:
+                      type: string
+            """.formatted(petRef, ownerRef);
+    }
+
+    // Pet 參照同一份文件的 Category 與其他文件的 tag.yaml、owner.yaml
+    private static String common() {
+        return """
+            components:
+              schemas:
+                Pet:
+                  type: object
+                  properties:
+                    id:
+                      type: integer
+                    category:
+                      $ref: '#/components/schemas/Category'
+                    tag:
+                      $ref: 'models/tag.yaml'
+                    owner:
+                      $ref: './models/owner.yaml'
+                Category:
+                  type: object
+                  properties:
+                    name:
+                      type: string
+            """;
+    }
+
+    private static String schema(String property, String type) {
+        return """
+            type: object
+            properties:
+              %s:
+                type: %s
+            """.formatted(property, type);
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.exception.PayloadTooLargeException;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpenApiFetchServiceTests {
+
+    private MockWebServer server;
+    private OpenApiFetchService openApiFetchService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        openApiFetchService = new OpenApiFetchService(new OkHttpClient());
+        openApiFetchService.maxResponseSize = DataSize.ofMegabytes(1);
+        openApiFetchService.cacheSize = 10;
+        openApiFetchService.init();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    void reusesCachedSpecWhenNotModified() throws Exception {
+        server.enqueue(new MockResponse().setHeader("ETag", "\"v1\"").setBody(readTestFile("test_files/open-api.json")));
+        server.enqueue(new MockResponse().setResponseCode(304));
+        var url = server.url("/v3/api-docs").toString();
+
+        var first = openApiFetchService.fetch(url);
+        var second = openApiFetchService.fetch(url);
+
+        assertSame(first, second);
+        assertNull(server.takeRequest().getHeader("If-None-Match"));
+        assertEquals("\"v1\"", server.takeRequest().getHeader("If-None-Match"));
+    }
+
+    @Test
+    void rejectsResponseOverMaxSize() {
+        openApiFetchService.maxResponseSize = DataSize.ofBytes(10);
+        server.enqueue(new MockResponse().setBody("{\"openapi\": \"3.0.3\"}"));
+        var url = server.url("/v3/api-docs").toString();
+
+        assertThrows(PayloadTooLargeException.class, () -> openApiFetchService.fetch(url));
+    }
+
+    private String readTestFile(String path) throws IOException {
+        try (var inputStream = new ClassPathResource(path).getInputStream()) {
+            return StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+        }
+    }
+
+}
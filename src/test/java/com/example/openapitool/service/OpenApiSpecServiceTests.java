@@ -0,0 +1,424 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.constant.ParserEngine;
+import com.example.openapitool.constant.SpecFormat;
+import com.example.openapitool.generator.OpenApiSpecGenerator;
+import com.example.openapitool.model.SpecContent;
+import com.example.openapitool.model.SpecGeneratorOption;
+import com.example.openapitool.model.open_api.Api;
+import com.example.openapitool.model.open_api.OpenApiDoc;
+import com.example.openapitool.model.open_api.Parameter;
+import com.example.openapitool.model.open_api.ParameterPath;
+import com.example.openapitool.model.open_api.ResponsePayload;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SuppressWarnings("unchecked")
+class OpenApiSpecServiceTests {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final OpenApiSpecService openApiSpecService = new OpenApiSpecService();
+
+    @Test
+    void streamingParserMatchesJsonPathParser() throws IOException {
+        var content = readTestFile("test_files/open-api.json");
+
+        var expected = openApiSpecService.getOpenApiDoc(content, ParserEngine.JSON_PATH);
+        var actual = openApiSpecService.getOpenApiDoc(content, ParserEngine.STREAMING);
+
+        assertFalse(expected.getGroups().isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void streamingParserKeepsComposedSchemas() {
+        var content = """
+            {
+              "openapi": "3.0.3",
+              "paths": {
+                "/pets": {
+                  "get": {
+                    "tags": ["pet"],
+                    "responses": {
+                      "200": {"description": "ok", "content": {"application/json": {"schema": {"$ref": "#/components/schemas/Pet"}}}}
+                    }
+                  }
+                }
+              },
+              "components": {
+                "schemas": {
+                  "Pet": {
+                    "type": "object",
+                    "properties": {
+                      "owner": {"anyOf": [{"type": "string"}, {"type": "integer"}]},
+                      "tag": {"allOf": [{"type": "string"}]}
+                    }
+                  }
+                }
+              }
+            }
+            """;
+
+        var expected = openApiSpecService.getOpenApiDoc(content, ParserEngine.JSON_PATH);
+        var actual = openApiSpecService.getOpenApiDoc(content, ParserEngine.STREAMING);
+
+        assertEquals(expected, actual);
+        var example = findResponsePayloads(actual).get(0).getDefaultExample();
+        assertTrue(example.contains("\"owner\" : { }") && example.contains("\"tag\" : { }"), example);
+    }
+
+    @Test
+    void generatesDefaultExampleForEveryResponse() {
+        var content = """
+            {
+              "openapi": "3.0.3",
+              "paths": {
+                "/pets": {
+                  "get": {
+                    "tags": ["pet"],
+                    "responses": {
+                      "200": {"description": "pet", "content": {"application/json": {
+                        "schema": {"$ref": "#/components/schemas/Pet"},
+                        "examples": {"cat": {"value": {"name": "cat"}}}
+                      }}},
+                      "404": {"description": "not found", "content": {"application/json": {"schema": {"$ref": "#/components/schemas/Pet"}}}}
+                    }
+                  }
+                },
+                "/users": {
+                  "get": {
+                    "tags": ["user"],
+                    "responses": {
+                      "200": {"description": "user", "content": {"application/json": {"schema": {"$ref": "#/components/schemas/Pet"}}}},
+                      "500": {"description": "error", "content": {"application/json": {"schema": {"$ref": "#/components/schemas/Pet"}}}}
+                    }
+                  }
+                }
+              },
+              "components": {
+                "schemas": {
+                  "Pet": {"type": "object", "properties": {"name": {"type": "string", "example": "kitty"}}}
+                }
+              }
+            }
+            """;
+
+        var payloads = findResponsePayloads(openApiSpecService.getOpenApiDoc(content));
+
+        payloads.sort(Comparator.comparing(ResponsePayload::getDescription));
+        assertEquals(List.of("500", "404", "200", "200"), payloads.stream().map(ResponsePayload::getHttpCode).toList());
+        // 與原本的輸出相同: response 的 examples 不讀取，範例一律由 schema 產生 (不使用欄位的 example)
+        for (ResponsePayload payload : payloads) {
+            assertNull(payload.getPayloadExample());
+            assertEquals("{\"name\":\"string\"}", payload.getDefaultExample().replaceAll("\\s+", ""));
+        }
+    }
+
+    @Test
+    void parallelParsingMatchesSequentialParsing() throws IOException {
+        var content = readTestFile("test_files/open-api.json");
+        var expected = openApiSpecService.getOpenApiDoc(content, ParserEngine.JSON_PATH);
+
+        var parallelService = new OpenApiSpecService();
+        parallelService.parallelEnabled = true;
+        parallelService.parallelThreshold = 0;
+        parallelService.init();
+        try {
+            assertEquals(expected, parallelService.getOpenApiDoc(content, ParserEngine.JSON_PATH));
+        } finally {
+            parallelService.destroy();
+        }
+    }
+
+    @Test
+    void parallelParsingOfCyclicSpecIsDeterministic() throws IOException {
+        var content = cyclicSpec();
+        var writer = objectMapper.writer();
+        var sequentialService = newService(false);
+        var expected = writer.writeValueAsBytes(sequentialService.getOpenApiDoc(content, ParserEngine.JSON_PATH));
+
+        var parallelService = newService(true);
+        parallelService.init();
+        try {
+            for (int run = 0; run < 20; run++) {
+                assertArrayEquals(expected, writer.writeValueAsBytes(parallelService.getOpenApiDoc(content, ParserEngine.JSON_PATH)));
+            }
+        } finally {
+            parallelService.destroy();
+        }
+    }
+
+    @Test
+    void fingerprintsFollowTransitiveRefsWithoutResolving() throws IOException {
+        var generator = SpecGeneratorOption.builder().operations(30).depth(3).schemas(9).build();
+        var base = new OpenApiSpecGenerator(generator).generate();
+        // 修改最深一層的 schema，只有遞移參照到它的 API 會改變
+        var target = objectMapper.readValue(objectMapper.writeValueAsBytes(base), Map.class);
+        var schemas = (Map<String, Map<String, Map<String, Map<String, Object>>>>) ((Map<String, ?>) target.get("components")).get("schemas");
+        schemas.get("Schema2_0").get("properties").get("field0").put("description", "changed");
+
+        var baseDoc = getOpenApiDoc(base, fingerprint -> false);
+        var targetDoc = getOpenApiDoc(target, fingerprint -> false);
+        var skipped = getOpenApiDoc(target, fingerprint -> true);
+
+        var baseApis = findApis(baseDoc);
+        var targetApis = findApis(targetDoc);
+        var skippedApis = findApis(skipped);
+        int changed = 0;
+        for (int i = 0; i < targetApis.size(); i++) {
+            var targetApi = targetApis.get(i);
+            var fingerprintChanged = !baseApis.get(i).getFingerprint().equals(targetApi.getFingerprint());
+            // 沿用的 API 不展開，fingerprint 相同
+            assertEquals(targetApi.getFingerprint(), skippedApis.get(i).getFingerprint());
+            assertNull(skippedApis.get(i).getResponsePayloads());
+            // fingerprint 不列入比較，只比較展開後的內容
+            assertEquals(!baseApis.get(i).equals(targetApi), fingerprintChanged, targetApi.getPath());
+            changed += fingerprintChanged ? 1 : 0;
+        }
+        assertTrue(changed > 0 && changed < targetApis.size(), "changed: " + changed);
+    }
+
+    @Test
+    void indirectCyclesAreCutAtAncestor() {
+        var option = SpecGeneratorOption.builder().operations(40).indirectCycles(2).directCycles(2).build();
+        var openApiDoc = openApiSpecService.getOpenApiDoc(OpenApiSpecGenerator.generate(option, SpecFormat.JSON));
+
+        var parameters = findResponseParameters(openApiDoc, "#/components/schemas/CycleA0");
+
+        // CycleA0 -> next (CycleB0) -> previous / siblings (CycleA0) 不再展開
+        assertEquals(List.of("1", "2", "2.1", "2.2", "2.3"), parameters.stream().map(parameter -> parameter.getPath().toString()).toList());
+        assertEquals(List.of("id", "next", "id", "previous", "siblings"), parameters.stream().map(Parameter::getName).toList());
+    }
+
+    @Test
+    void cyclicRefClosedAtItselfIsCached() throws IOException {
+        var components = (Map<String, ?>) objectMapper.readValue("""
+            {"schemas": {
+              "First": {"properties": {"node": {"$ref": "#/components/schemas/Node"}}},
+              "Second": {"properties": {"node": {"$ref": "#/components/schemas/Node"}}},
+              "Node": {"properties": {"id": {"type": "string"}, "next": {"$ref": "#/components/schemas/Next"}}},
+              "Next": {"properties": {"previous": {"$ref": "#/components/schemas/Node"}}}
+            }}
+            """, Map.class);
+        var schemaResolver = new SchemaResolver(ComponentIndex.of(components), new StringPool(), 0, 0);
+
+        var first = schemaResolver.getPayloadParameter("#/components/schemas/First");
+        var resolvedRefs = schemaResolver.getResolvedRefCount();
+        var second = schemaResolver.getPayloadParameter("#/components/schemas/Second");
+
+        // Node -> Next -> Node 截斷在 Node 自己，第二次只展開 Second 並直接使用 Node 的模板
+        assertEquals(2, schemaResolver.getResolvedRefCount() - resolvedRefs);
+        assertEquals(List.of("node", "id", "next", "previous"), first.stream().map(Parameter::getName).toList());
+        assertEquals(
+            first.stream().map(parameter -> parameter.getPath().toString()).toList(),
+            second.stream().map(parameter -> parameter.getPath().toString()).toList());
+    }
+
+    @Test
+    void cachedCyclicRefIsNotReusedUnderItsOwnMember() throws IOException {
+        var components = (Map<String, ?>) objectMapper.readValue("""
+            {"schemas": {
+              "Node": {"properties": {"next": {"$ref": "#/components/schemas/Next"}}},
+              "Next": {"properties": {"previous": {"$ref": "#/components/schemas/Node"}}}
+            }}
+            """, Map.class);
+        var cached = new SchemaResolver(ComponentIndex.of(components), new StringPool(), 0, 0);
+        cached.getPayloadParameter("#/components/schemas/Node");
+
+        // Next -> Node -> Next 在 Next 截斷，與先展開 Node 無關
+        var expected = new SchemaResolver(ComponentIndex.of(components), new StringPool(), 0, 0)
+            .getPayloadParameter("#/components/schemas/Next");
+        var actual = cached.getPayloadParameter("#/components/schemas/Next");
+        assertEquals(List.of("previous", "next"), actual.stream().map(Parameter::getName).toList());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void expansionIsTruncatedByBudgets() {
+        var content = OpenApiSpecGenerator.generate(SpecGeneratorOption.builder().operations(40).build(), SpecFormat.JSON);
+        var limitedService = new OpenApiSpecService();
+        limitedService.maxDepth = 2;
+        limitedService.maxParameters = 20;
+
+        var payloads = limitedService.getOpenApiDoc(content).getGroups().stream()
+            .flatMap(group -> group.getApis().stream())
+            .flatMap(api -> api.getResponsePayloads().stream())
+            .map(ResponsePayload::getParameters)
+            .filter(parameters -> parameters != null && !parameters.isEmpty())
+            .toList();
+
+        assertFalse(payloads.isEmpty());
+        for (List<Parameter> parameters : payloads) {
+            assertTrue(parameters.size() <= 20);
+            parameters.forEach(parameter -> assertTrue(parameter.getPath().getDepth() <= 2));
+        }
+        assertTrue(payloads.stream().flatMap(List::stream)
+            .anyMatch(parameter -> hasMarker(parameter, "(truncated: max depth 2)")));
+        assertTrue(payloads.stream()
+            .anyMatch(parameters -> hasMarker(parameters.get(parameters.size() - 1), "(truncated: max 20 parameters)")));
+    }
+
+    @Test
+    void pathsAreLinkedToParentRows() {
+        var content = OpenApiSpecGenerator.generate(SpecGeneratorOption.builder().operations(40).build(), SpecFormat.JSON);
+        var payloads = openApiSpecService.getOpenApiDoc(content).getGroups().stream()
+            .flatMap(group -> group.getApis().stream())
+            .flatMap(api -> api.getResponsePayloads().stream())
+            .map(ResponsePayload::getParameters)
+            .filter(parameters -> parameters != null && !parameters.isEmpty())
+            .toList();
+
+        assertTrue(payloads.stream().flatMap(List::stream).anyMatch(parameter -> parameter.getPath().getDepth() > 2));
+        for (List<Parameter> parameters : payloads) {
+            // 依先序排列，父節點為前面最後一個上一層的欄位
+            var lastPaths = new ArrayList<ParameterPath>();
+            for (Parameter parameter : parameters) {
+                var path = parameter.getPath();
+                var depth = path.getDepth();
+                if (depth == 1) {
+                    assertNull(path.getParent());
+                } else {
+                    assertSame(lastPaths.get(depth - 2), path.getParent());
+                }
+                assertEquals(depth, path.toString().split("\\.").length);
+                lastPaths.subList(depth - 1, lastPaths.size()).clear();
+                lastPaths.add(path);
+            }
+        }
+    }
+
+    @Test
+    void payloadsOfSameRefShareParameters() {
+        var content = OpenApiSpecGenerator.generate(SpecGeneratorOption.builder().operations(40).build(), SpecFormat.JSON);
+        var payloads = openApiSpecService.getOpenApiDoc(content).getGroups().stream()
+            .flatMap(group -> group.getApis().stream())
+            .flatMap(api -> api.getResponsePayloads().stream())
+            .filter(responsePayload -> responsePayload.getRef() != null)
+            .collect(Collectors.groupingBy(ResponsePayload::getRef));
+
+        assertTrue(payloads.values().stream().anyMatch(sameRef -> sameRef.size() > 1));
+        payloads.values().forEach(sameRef -> {
+            var first = sameRef.get(0);
+            sameRef.forEach(responsePayload -> {
+                assertSame(first.getParameters(), responsePayload.getParameters());
+                assertSame(first.getMediaType(), responsePayload.getMediaType());
+            });
+        });
+        // 相同的型別只保留一份字串
+        var types = payloads.values().stream()
+            .flatMap(sameRef -> sameRef.get(0).getParameters().stream())
+            .map(Parameter::getType)
+            .filter(type -> type.contains("($"))
+            .toList();
+        assertFalse(types.isEmpty());
+        types.forEach(type -> assertSame(types.stream().filter(type::equals).findFirst().orElseThrow(), type));
+    }
+
+    private boolean hasMarker(Parameter parameter, String marker) {
+        return parameter.getDescription() != null && parameter.getDescription().contains(marker);
+    }
+
+    // 循環參照的成員與包著它們的 schema 被不同的 API 以不同的順序參照，並以較小的層數與參數數量上限截斷
+    private static OpenApiSpecService newService(boolean parallel) {
+        var service = new OpenApiSpecService();
+        service.parallelEnabled = parallel;
+        service.parallelPoolSize = 4;
+        service.parallelThreshold = 1;
+        service.maxDepth = 6;
+        service.maxParameters = 40;
+        service.exampleMaxDepth = 6;
+        service.exampleMaxProperties = 40;
+        service.exampleArrayItems = 2;
+        return service;
+    }
+
+    private static String cyclicSpec() {
+        var members = List.of("A", "B", "C");
+        var schemas = new ArrayList<String>();
+        for (int i = 0; i < members.size(); i++) {
+            var next = members.get((i + 1) % members.size());
+            var previous = members.get((i + members.size() - 1) % members.size());
+            schemas.add("""
+                "%s": {"type": "object", "properties": {"id": {"type": "string"},
+                  "next": {"$ref": "#/components/schemas/%s"},
+                  "previous": {"type": "array", "items": {"$ref": "#/components/schemas/%s"}}}}"""
+                .formatted(members.get(i), next, previous));
+        }
+        for (String member : members) {
+            schemas.add("""
+                "Wrap%s": {"type": "object", "properties": {"value": {"$ref": "#/components/schemas/%s"},
+                  "other": {"$ref": "#/components/schemas/Wrap%s"}}}"""
+                .formatted(member, member, members.get((members.indexOf(member) + 1) % members.size())));
+        }
+        var paths = new ArrayList<String>();
+        for (int i = 0; i < 60; i++) {
+            var target = (i % 2 == 0 ? "Wrap" : "") + members.get(i * 7 % members.size());
+            paths.add("""
+                "/items/%d": {"post": {"tags": ["tag%d"],
+                  "requestBody": {"content": {"application/json": {"schema": {"$ref": "#/components/schemas/%s"}}}},
+                  "responses": {"200": {"description": "ok", "content": {"application/json": {"schema": {"$ref": "#/components/schemas/%s"}}}}}}}"""
+                .formatted(i, i % 4, target, members.get(i * 5 % members.size())));
+        }
+        return """
+            {"openapi": "3.0.3", "paths": {%s}, "components": {"schemas": {%s}}}
+            """.formatted(String.join(",", paths), String.join(",", schemas));
+    }
+
+    private OpenApiDoc getOpenApiDoc(Map<?, ?> spec, Predicate<String> reusable) throws IOException {
+        var content = objectMapper.writeValueAsBytes(spec);
+        return openApiSpecService.getOpenApiDoc(
+            new PreparedSpec(new SpecContent(content, "hash")), ConversionMetrics.Recorder.NOOP, reusable);
+    }
+
+    private static List<Api> findApis(OpenApiDoc openApiDoc) {
+        return openApiDoc.getGroups().stream()
+            .flatMap(group -> group.getApis().stream())
+            .toList();
+    }
+
+    private List<ResponsePayload> findResponsePayloads(OpenApiDoc openApiDoc) {
+        return openApiDoc.getGroups().stream()
+            .flatMap(group -> group.getApis().stream())
+            .flatMap(api -> api.getResponsePayloads().stream())
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private List<Parameter> findResponseParameters(OpenApiDoc openApiDoc, String ref) {
+        return openApiDoc.getGroups().stream()
+            .flatMap(group -> group.getApis().stream())
+            .map(Api::getResponsePayloads)
+            .filter(Objects::nonNull)
+            .flatMap(List::stream)
+            .filter(responsePayload -> ref.equals(responsePayload.getRef()))
+            .findFirst()
+            .orElseThrow()
+            .getParameters();
+    }
+
+    private String readTestFile(String path) throws IOException {
+        try (var inputStream = new ClassPathResource(path).getInputStream()) {
+            return StreamUtils.copyToString(inputStream, StandardCharsets.UTF_8);
+        }
+    }
+
+}
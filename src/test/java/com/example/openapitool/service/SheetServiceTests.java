@@ -0,0 +1,206 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.constant.RenderEngine;
+import com.example.openapitool.constant.SpecFormat;
+import com.example.openapitool.constant.XlsxCompression;
+import com.example.openapitool.generator.OpenApiSpecGenerator;
+import com.example.openapitool.model.ConvertOption;
+import com.example.openapitool.model.SpecGeneratorOption;
+import com.example.openapitool.model.open_api.OpenApiDoc;
+import com.example.openapitool.model.open_api.Parameter;
+import com.example.openapitool.model.open_api.ResponsePayload;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 關閉快取，確保每個 API 都在同一次轉換中產生
+@SpringBootTest(properties = "open-api-tool.cache.enabled=false")
+class SheetServiceTests {
+
+    @Autowired
+    private SheetService sheetService;
+
+    @Autowired
+    private OpenApiSpecService openApiSpecService;
+
+    @Autowired
+    private SheetParameterCache sheetParameterCache;
+
+    @Test
+    void sharesConvertedParametersOfSameSchema() {
+        var spec = OpenApiSpecGenerator.generate(SpecGeneratorOption.builder().operations(40).build(), SpecFormat.JSON);
+        var openApiDoc = openApiSpecService.getOpenApiDoc(spec);
+
+        var sheetParameters = sheetService.convertToSheetParameter(openApiDoc);
+        List<List<Parameter>> responseParameters = openApiDoc.getGroups().stream()
+            .flatMap(group -> group.getApis().stream())
+            .map(api -> api.getResponsePayloads().stream()
+                .filter(responsePayload -> "200".equals(responsePayload.getHttpCode()))
+                .map(ResponsePayload::getParameters)
+                .findFirst()
+                .orElse(null))
+            .toList();
+
+        // 參照同一個 schema 的 API 共用同一份轉換結果
+        int shared = 0;
+        for (int i = 0; i < responseParameters.size(); i++) {
+            for (int j = i + 1; j < responseParameters.size(); j++) {
+                if (responseParameters.get(i) != null && responseParameters.get(i) == responseParameters.get(j)) {
+                    assertSame(
+                        sheetParameters.get(i).getResponseParameters(),
+                        sheetParameters.get(j).getResponseParameters());
+                    shared++;
+                }
+            }
+        }
+        assertTrue(shared > 0);
+    }
+
+    @Test
+    void reusesSheetParametersOfUnchangedOperations() {
+        var content = OpenApiSpecGenerator.generate(SpecGeneratorOption.builder().seed(7).operations(20).build(), SpecFormat.JSON);
+        var openApiDoc = openApiSpecService.getOpenApiDoc(content);
+
+        sheetParameterCache.enabled = true;
+        try {
+            var first = sheetService.convertToSheetParameter(openApiDoc);
+            var second = sheetService.convertToSheetParameter(openApiDoc);
+
+            assertEquals(first, second);
+            for (int i = 0; i < first.size(); i++) {
+                assertEquals(i + 1, second.get(i).getIndex());
+                assertSame(first.get(i).getOtherParameters(), second.get(i).getOtherParameters());
+            }
+        } finally {
+            sheetParameterCache.enabled = false;
+        }
+    }
+
+    @Test
+    void skipsResolvingCachedOperationsWithSameOutput() throws Exception {
+        var spec = sheetService.readSpec(new ByteArrayInputStream(
+            OpenApiSpecGenerator.generate(SpecGeneratorOption.builder().seed(11).operations(20).build(), SpecFormat.JSON).getBytes(StandardCharsets.UTF_8)));
+        var option = ConvertOption.builder().renderEngine(RenderEngine.STREAMING).cacheDisabled(true).build();
+
+        sheetParameterCache.enabled = true;
+        try {
+            var first = new ByteArrayOutputStream();
+            sheetService.convertOpenApiToSheet(option, new PreparedSpec(spec), first);
+            // 第二次轉換的 API 都已快取，不展開 $ref 也要得到相同的結果
+            var second = new ByteArrayOutputStream();
+            sheetService.convertOpenApiToSheet(option, new PreparedSpec(spec), second);
+
+            assertEquals(cellTexts(first.toByteArray()), cellTexts(second.toByteArray()));
+        } finally {
+            sheetParameterCache.enabled = false;
+        }
+    }
+
+    @Test
+    void boundsSheetParameterCacheBySize() {
+        var content = OpenApiSpecGenerator.generate(SpecGeneratorOption.builder().operations(40).build(), SpecFormat.JSON);
+        var sheetParameters = sheetService.convertToSheetParameter(openApiSpecService.getOpenApiDoc(content));
+        var cache = new SheetParameterCache();
+        cache.enabled = true;
+        cache.maxEntries = Integer.MAX_VALUE;
+        var sizes = sheetParameters.stream().mapToLong(SheetParameterCache::estimate).summaryStatistics();
+        cache.maxSize = DataSize.ofBytes(Math.max(sizes.getMax(), sizes.getSum() / 4));
+
+        for (int i = 0; i < sheetParameters.size(); i++) {
+            cache.put(String.valueOf(i), sheetParameters.get(i));
+            assertTrue(cache.size() <= cache.maxSize.toBytes());
+        }
+        // 最近放入的保留，最早的已移除
+        assertSame(sheetParameters.get(sheetParameters.size() - 1), cache.get(String.valueOf(sheetParameters.size() - 1)));
+        assertNull(cache.get("0"));
+    }
+
+    @Test
+    void appliesXlsxCompressionToBothEngines() throws Exception {
+        var content = OpenApiSpecGenerator.generate(SpecGeneratorOption.builder().operations(20).build(), SpecFormat.JSON);
+        var openApiDoc = openApiSpecService.getOpenApiDoc(content);
+
+        for (RenderEngine renderEngine : new RenderEngine[]{RenderEngine.JXLS, RenderEngine.STREAMING}) {
+            var stored = convert(openApiDoc, renderEngine, XlsxCompression.STORE);
+            var compressed = convert(openApiDoc, renderEngine, XlsxCompression.MAX);
+
+            assertTrue(stored.length > compressed.length * 2, renderEngine.name());
+            // 不同壓縮等級的內容相同
+            assertEquals(lastRowNum(stored), lastRowNum(compressed), renderEngine.name());
+        }
+    }
+
+    @Test
+    void concurrentRendersOfCachedTemplateMatch() throws Exception {
+        var content = OpenApiSpecGenerator.generate(SpecGeneratorOption.builder().operations(20).build(), SpecFormat.JSON);
+        var openApiDoc = openApiSpecService.getOpenApiDoc(content);
+        var expected = convert(openApiDoc, RenderEngine.JXLS, XlsxCompression.FAST);
+
+        // 同時輸出時各自建立 Transformer 與 Area，結果與單獨輸出相同
+        var futures = IntStream.range(0, 4)
+            .mapToObj(i -> CompletableFuture.supplyAsync(() -> convert(openApiDoc, RenderEngine.JXLS, XlsxCompression.FAST)))
+            .toList();
+        for (CompletableFuture<byte[]> future : futures) {
+            assertEquals(cellTexts(expected), cellTexts(future.join()));
+        }
+        try (var jxls = new XSSFWorkbook(new ByteArrayInputStream(expected));
+             var streaming = new XSSFWorkbook(new ByteArrayInputStream(
+                 convert(openApiDoc, RenderEngine.STREAMING, XlsxCompression.FAST)))) {
+            // 指令註解不會輸出
+            assertTrue(jxls.getSheetAt(0).getCellComments().isEmpty());
+            // 串流輸出複製模板的樣式
+            for (Cell cell : jxls.getSheetAt(0).getRow(0)) {
+                var streamingStyle = streaming.getSheetAt(0).getRow(0).getCell(cell.getColumnIndex()).getCellStyle();
+                assertEquals(cell.getCellStyle().getFillPattern(), streamingStyle.getFillPattern());
+                assertEquals(cell.getCellStyle().getBorderBottom(), streamingStyle.getBorderBottom());
+                assertEquals(jxls.getFontAt(cell.getCellStyle().getFontIndex()).getBold(),
+                    streaming.getFontAt(streamingStyle.getFontIndex()).getBold());
+            }
+        }
+    }
+
+    private byte[] convert(OpenApiDoc openApiDoc, RenderEngine renderEngine, XlsxCompression compression) {
+        var option = ConvertOption.builder().renderEngine(renderEngine).compression(compression).build();
+        var outputStream = new ByteArrayOutputStream();
+        sheetService.convertOpenApiToSheet(option, openApiDoc, outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private static List<String> cellTexts(byte[] xlsx) throws Exception {
+        var formatter = new DataFormatter();
+        var texts = new ArrayList<String>();
+        try (var workbook = new XSSFWorkbook(new ByteArrayInputStream(xlsx))) {
+            for (Row row : workbook.getSheetAt(0)) {
+                for (Cell cell : row) {
+                    texts.add(cell.getAddress() + "=" + formatter.formatCellValue(cell));
+                }
+            }
+        }
+        return texts;
+    }
+
+    private static int lastRowNum(byte[] xlsx) throws Exception {
+        try (var workbook = new XSSFWorkbook(new ByteArrayInputStream(xlsx))) {
+            return workbook.getSheetAt(0).getLastRowNum();
+        }
+    }
+
+}
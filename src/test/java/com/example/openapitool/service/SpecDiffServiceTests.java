@@ -0,0 +1,52 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.generator.OpenApiSpecGenerator;
+import com.example.openapitool.model.SpecContent;
+import com.example.openapitool.model.SpecGeneratorOption;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@SuppressWarnings("unchecked")
+class SpecDiffServiceTests {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private SpecDiffService specDiffService;
+
+    @Autowired
+    private SheetService sheetService;
+
+    @Test
+    void listsAddedRemovedAndChangedOperations() throws Exception {
+        var base = new OpenApiSpecGenerator(SpecGeneratorOption.builder().operations(20).build()).generate();
+        // 以 json 複製一份可修改的文件
+        var target = objectMapper.readValue(objectMapper.writeValueAsBytes(base), Map.class);
+        var paths = (Map<String, Map<String, Object>>) target.get("paths");
+        var listPath = paths.get("/api/v1/resource0");
+        ((Map<String, Object>) listPath.get("get")).put("summary", "changed summary");
+        paths.get("/api/v1/resource0/{id}").remove("delete");
+        paths.put("/api/v2/resource", Map.of("get", listPath.get("post")));
+
+        var diff = specDiffService.diff(toSpec(base), toSpec(target));
+
+        assertEquals(List.of("GET /api/v2/resource"), diff.getAdded());
+        assertEquals(List.of("DELETE /api/v1/resource0/{id}"), diff.getRemoved());
+        assertEquals(List.of("GET /api/v1/resource0"), diff.getChanged());
+        assertEquals(18, diff.getUnchanged());
+    }
+
+    private SpecContent toSpec(Map<?, ?> spec) throws Exception {
+        return sheetService.readSpec(new ByteArrayInputStream(objectMapper.writeValueAsBytes(spec)));
+    }
+
+}
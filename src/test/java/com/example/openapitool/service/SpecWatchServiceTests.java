@@ -0,0 +1,172 @@
+package com.example.openapitool.service;
+
+import com.example.openapitool.constant.SpecFormat;
+import com.example.openapitool.exception.BadRequestException;
+import com.example.openapitool.exception.NotFoundException;
+import com.example.openapitool.generator.OpenApiSpecGenerator;
+import com.example.openapitool.model.SpecContent;
+import com.example.openapitool.model.SpecGeneratorOption;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 測試的是監看與排程，以 STREAMING 輸出縮短轉換時間
+@SpringBootTest(properties = "open-api-tool.render.engine=STREAMING")
+class SpecWatchServiceTests {
+
+    @TempDir
+    Path tempDir;
+
+    @Autowired
+    private SheetService sheetService;
+
+    @Autowired
+    private ConversionCache conversionCache;
+
+    @Autowired
+    private ConversionAdmission conversionAdmission;
+
+    private SpecWatchService specWatchService;
+
+    @BeforeEach
+    void setUp() {
+        specWatchService = new SpecWatchService(sheetService);
+        specWatchService.watchDir = tempDir.toString();
+        specWatchService.templates = List.of("DEFAULT", "SIMPLE");
+        specWatchService.debounce = Duration.ofMillis(100);
+        specWatchService.poolSize = 1;
+        specWatchService.retryDelay = Duration.ofMillis(100);
+        specWatchService.shutdownTimeout = Duration.ofMinutes(2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        specWatchService.destroy();
+    }
+
+    @Test
+    void rendersChangedSpecForEachTemplate() throws Exception {
+        specWatchService.init();
+        var spec = tempDir.resolve("pets.json");
+        Files.writeString(spec, generate(5));
+
+        var rendered = tempDir.resolve("pets.json.SIMPLE.xlsx");
+        await(() -> specWatchService.getRenderedSpecs().containsKey("pets.json"));
+        assertEquals(Map.of("pets.json", Set.of("DEFAULT", "SIMPLE")), specWatchService.getRenderedSpecs());
+        assertEquals(rendered, specWatchService.getRenderedFile("pets.json", "SIMPLE"));
+        assertEquals(tempDir.resolve("pets.json.DEFAULT.xlsx"), specWatchService.getRenderedFile("pets", null));
+        var size = Files.size(rendered);
+        try (var workbook = new XSSFWorkbook(Files.newInputStream(rendered))) {
+            assertTrue(workbook.getNumberOfSheets() > 0);
+        }
+
+        Files.writeString(spec, generate(50));
+        await(() -> sizeOf(rendered) > size);
+        try (var stream = Files.list(tempDir)) {
+            // 暫存檔在轉換完成後移除
+            assertEquals(Set.of("pets.json", "pets.json.DEFAULT.xlsx", "pets.json.SIMPLE.xlsx"),
+                Set.copyOf(stream.map(path -> path.getFileName().toString()).toList()));
+        }
+
+        Files.delete(spec);
+        await(() -> !Files.exists(rendered));
+        assertThrows(NotFoundException.class, () -> specWatchService.getRenderedFile("pets", "SIMPLE"));
+    }
+
+    @Test
+    void reusesUpToDateFilesOnStartup() throws Exception {
+        var spec = tempDir.resolve("pets.yaml");
+        Files.writeString(spec, generate(5));
+        var rendered = Files.writeString(tempDir.resolve("pets.yaml.DEFAULT.xlsx"), "rendered");
+        Files.writeString(tempDir.resolve("pets.yaml.SIMPLE.xlsx"), "rendered");
+        Files.setLastModifiedTime(spec, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+
+        specWatchService.init();
+
+        await(() -> specWatchService.getRenderedSpecs().containsKey("pets.yaml"));
+        assertEquals("rendered", Files.readString(rendered));
+        assertThrows(NotFoundException.class, () -> specWatchService.getRenderedFile("pets", "OTHER"));
+        assertThrows(NotFoundException.class, () -> specWatchService.getRenderedFile("../pets", "DEFAULT"));
+    }
+
+    @Test
+    void rendersSpecsWithSameBaseNameSeparately() throws Exception {
+        Files.writeString(tempDir.resolve("pets.json"), generate(5));
+        Files.writeString(tempDir.resolve("pets.yaml"), generate(50));
+        var misses = conversionCache.getStats().misses();
+
+        specWatchService.init();
+
+        await(() -> specWatchService.getRenderedSpecs().keySet().equals(Set.of("pets.json", "pets.yaml")));
+        var json = specWatchService.getRenderedFile("pets.json", "DEFAULT");
+        var yaml = specWatchService.getRenderedFile("pets.yaml", "DEFAULT");
+        assertTrue(Files.size(json) < Files.size(yaml));
+        assertThrows(BadRequestException.class, () -> specWatchService.getRenderedFile("pets", "DEFAULT"));
+        // 結果已寫成檔案，不經過轉換結果快取
+        assertEquals(misses, conversionCache.getStats().misses());
+    }
+
+    @Test
+    void retriesRenderRejectedByAdmission() throws Exception {
+        // 佔用所有轉換名額，背景轉換排隊逾時
+        var permits = new ArrayList<ConversionAdmission.Permit>();
+        var queueTimeout = conversionAdmission.queueTimeout;
+        conversionAdmission.queueTimeout = Duration.ofMillis(100);
+        try {
+            var spec = new SpecContent(new byte[0], "");
+            for (int i = 0; i < conversionAdmission.getStats().maxConcurrent(); i++) {
+                permits.add(conversionAdmission.acquire(spec));
+            }
+            var rejected = conversionAdmission.getStats().rejected();
+            Files.writeString(tempDir.resolve("pets.json"), generate(5));
+            specWatchService.init();
+
+            await(() -> conversionAdmission.getStats().rejected() > rejected);
+            assertTrue(specWatchService.getRenderedSpecs().isEmpty());
+        } finally {
+            permits.forEach(ConversionAdmission.Permit::close);
+            conversionAdmission.queueTimeout = queueTimeout;
+        }
+        // 名額釋放後重試成功
+        await(() -> specWatchService.getRenderedSpecs().containsKey("pets.json"));
+        assertTrue(Files.exists(specWatchService.getRenderedFile("pets.json", "SIMPLE")));
+    }
+
+    private static String generate(int operations) {
+        return OpenApiSpecGenerator.generate(SpecGeneratorOption.builder().operations(operations).build(), SpecFormat.JSON);
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timeout");
+            Thread.sleep(50);
+        }
+    }
+
+}
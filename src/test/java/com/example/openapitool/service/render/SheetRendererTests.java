@@ -0,0 +1,90 @@
+package com.example.openapitool.service.render;
+
+import com.example.openapitool.model.open_api.ParameterPath;
+import com.example.openapitool.model.sheet.OtherParameter;
+import com.example.openapitool.model.sheet.RequestParameter;
+import com.example.openapitool.model.sheet.SheetParameter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SheetRendererTests {
+
+    @Test
+    void csvQuotesSpecialCharacters() {
+        var lines = render(new CsvSheetRenderer()).split("\r\n");
+
+        assertEquals("\uFEFFindex,method,path,summary,section,in,sequence,name,type,required,maxLength,description", lines[0]);
+        assertEquals("1,post,/pets,\"create, \"\"pet\"\"\",parameter,header,,X-Id,string,N,,", lines[1]);
+        assertEquals("1,post,/pets,\"create, \"\"pet\"\"\",request,,1,name,string,Y,20,\"a|b\nc\"", lines[2]);
+        assertEquals(3, lines.length);
+    }
+
+    @Test
+    void markdownEscapesTableCells() {
+        var markdown = render(new MarkdownSheetRenderer());
+
+        assertTrue(markdown.startsWith("## 1. POST /pets\n\ncreate, \"pet\"\n\n"));
+        assertTrue(markdown.contains("| 1 | name | string | Y | 20 | a\\|b<br>c |\n"));
+        assertTrue(markdown.contains("```json\n{\"name\":\"<cat>\"}\n```"));
+    }
+
+    @Test
+    void markdownEscapesHtmlAndLengthensFence() {
+        var sheetParameter = sheetParameter();
+        sheetParameter.setSummary("<script>alert(1)</script>");
+        sheetParameter.setRequestExample("{\"note\":\"```\"}");
+        var outputStream = new ByteArrayOutputStream();
+        new MarkdownSheetRenderer().render(List.of(sheetParameter), outputStream);
+        var markdown = outputStream.toString(StandardCharsets.UTF_8);
+
+        assertTrue(markdown.contains("\n&lt;script&gt;alert(1)&lt;/script&gt;\n"));
+        assertTrue(markdown.contains("````json\n{\"note\":\"```\"}\n````\n"));
+    }
+
+    @Test
+    void htmlEscapesValues() {
+        var html = render(new HtmlSheetRenderer());
+
+        assertTrue(html.contains("<h2>1. POST /pets</h2>"));
+        assertTrue(html.contains("<pre>{&quot;name&quot;:&quot;&lt;cat&gt;&quot;}</pre>"));
+        assertTrue(html.trim().endsWith("</html>"));
+    }
+
+    private static String render(SheetRenderer sheetRenderer) {
+        var outputStream = new ByteArrayOutputStream();
+        sheetRenderer.render(List.of(sheetParameter()), outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    private static SheetParameter sheetParameter() {
+        var header = new OtherParameter("header", "X-Id", "string", null, "N", null);
+        var name = new RequestParameter();
+        name.setPath(ParameterPath.root(1));
+        name.setName("name");
+        name.setType("string");
+        name.setMaxLength(20);
+        name.setRequired("Y");
+        name.setDescription("a|b\nc");
+        return SheetParameter.builder()
+            .index(1)
+            .path("/pets")
+            .summary("create, \"pet\"")
+            .httpMethod("post")
+            .otherParameters(List.of(header))
+            .requestParameters(List.of(name))
+            .requestExample("{\"name\":\"<cat>\"}")
+            .showOtherParameters(true)
+            .showRequestParameters(true)
+            .showRequestExample(true)
+            .showResponseParameters(false)
+            .showResponseExample(false)
+            .build();
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.example.openapitool.service.render;
+
+import com.example.openapitool.constant.XlsxCompression;
+import com.example.openapitool.model.open_api.ParameterPath;
+import com.example.openapitool.model.sheet.RequestParameter;
+import com.example.openapitool.model.sheet.SheetParameter;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingSheetWriterTests {
+
+    @Test
+    void parsesNestedCommandsOfTemplate() throws Exception {
+        try (var workbook = createTemplate()) {
+            var template = XlsxTemplate.parse(workbook.getSheetAt(0));
+
+            var area = template.getRoot().getChildren().get(0);
+            assertEquals("area", area.getCommand());
+            var apis = area.getChildren().get(0);
+            assertEquals("each", apis.getCommand());
+            assertEquals("api", apis.getVar());
+            assertEquals(1, apis.getFirstRow());
+            assertEquals(3, apis.getLastRow());
+            var condition = apis.getChildren().get(0);
+            assertEquals("if", condition.getCommand());
+            assertEquals(2, condition.getFirstRow());
+            var parameters = condition.getChildren().get(0);
+            assertEquals("each", parameters.getCommand());
+            assertEquals(3, parameters.getFirstRow());
+            assertEquals(3, parameters.getLastRow());
+        }
+    }
+
+    @Test
+    void writesEachAndIfBlocks() throws Exception {
+        var visible = SheetParameter.builder()
+            .index(1)
+            .httpMethod("post")
+            .path("/pets")
+            .requestParameters(List.of(requestParameter("name", 20), requestParameter("tag", null)))
+            .showRequestParameters(true)
+            .build();
+        // 條件不成立時整個區塊 (含內層的 jx:each) 都不輸出
+        var hidden = SheetParameter.builder()
+            .index(2)
+            .httpMethod("get")
+            .path("/pets/{id}")
+            .requestParameters(List.of(requestParameter("id", null)))
+            .showRequestParameters(false)
+            .build();
+
+        var xlsx = write(List.of(visible, hidden));
+
+        try (var workbook = new XSSFWorkbook(new ByteArrayInputStream(xlsx))) {
+            var sheet = workbook.getSheetAt(0);
+            assertEquals("APIs", sheet.getSheetName());
+            assertEquals(List.of(
+                List.of("Title"),
+                List.of("1. post", "/pets"),
+                List.of("Request"),
+                List.of("name", "20"),
+                List.of("tag", ""),
+                List.of("2. get", "/pets/{id}")), texts(sheet));
+            // 單一運算式保留數字型別
+            assertEquals(CellType.NUMERIC, sheet.getRow(3).getCell(1).getCellType());
+            // 合併儲存格隨每一筆輸出的列移動
+            assertEquals(List.of("B2:C2", "B6:C6"), sheet.getMergedRegions().stream()
+                .map(CellRangeAddress::formatAsString)
+                .sorted()
+                .toList());
+            assertEquals(5000, sheet.getColumnWidth(1));
+        }
+    }
+
+    @Test
+    void writesOnlyStaticRowsWithoutItems() throws Exception {
+        try (var workbook = new XSSFWorkbook(new ByteArrayInputStream(write(List.of())))) {
+            assertEquals(List.of(List.of("Title")), texts(workbook.getSheetAt(0)));
+        }
+    }
+
+    private static byte[] write(List<SheetParameter> sheetParameters) throws Exception {
+        try (var workbook = createTemplate()) {
+            var template = new SheetTemplate("TEST", null, XlsxTemplate.parse(workbook.getSheetAt(0)), 0, "hash");
+            var writer = new StreamingSheetWriter();
+            writer.windowSize = 2;
+            var outputStream = new ByteArrayOutputStream();
+            writer.write(template, sheetParameters, XlsxCompression.FAST, outputStream);
+            return outputStream.toByteArray();
+        }
+    }
+
+    // 與 resources/templates 內的模板相同，指令寫在儲存格的註解中
+    private static XSSFWorkbook createTemplate() {
+        var workbook = new XSSFWorkbook();
+        var sheet = workbook.createSheet("APIs");
+        sheet.setColumnWidth(1, 5000);
+        setCell(sheet, 0, 0, "Title", "jx:area(lastCell=\"C4\")");
+        setCell(sheet, 1, 0, "${api.index}. ${api.httpMethod}",
+            "jx:each(items=\"sheetParameters\" var=\"api\" lastCell=\"C4\")");
+        setCell(sheet, 1, 1, "${api.path}", null);
+        sheet.addMergedRegion(new CellRangeAddress(1, 1, 1, 2));
+        setCell(sheet, 2, 0, "Request", "jx:if(condition=\"api.showRequestParameters\" lastCell=\"C4\")");
+        setCell(sheet, 3, 0, "${parameter.name}",
+            "jx:each(items=\"api.requestParameters\" var=\"parameter\" lastCell=\"C4\")");
+        setCell(sheet, 3, 1, "${parameter.maxLength}", null);
+        return workbook;
+    }
+
+    private static void setCell(Sheet sheet, int rowIndex, int columnIndex, String value, String command) {
+        var row = sheet.getRow(rowIndex) == null ? sheet.createRow(rowIndex) : sheet.getRow(rowIndex);
+        var cell = row.createCell(columnIndex);
+        cell.setCellValue(value);
+        if (command != null) {
+            var helper = sheet.getWorkbook().getCreationHelper();
+            var anchor = helper.createClientAnchor();
+            anchor.setRow1(rowIndex);
+            anchor.setCol1(columnIndex);
+            anchor.setRow2(rowIndex + 2);
+            anchor.setCol2(columnIndex + 2);
+            var comment = sheet.createDrawingPatriarch().createCellComment(anchor);
+            comment.setString(helper.createRichTextString(command));
+            cell.setCellComment(comment);
+        }
+    }
+
+    private static RequestParameter requestParameter(String name, Integer maxLength) {
+        var parameter = new RequestParameter();
+        parameter.setPath(ParameterPath.root(1));
+        parameter.setName(name);
+        parameter.setMaxLength(maxLength);
+        return parameter;
+    }
+
+    private static List<List<String>> texts(Sheet sheet) {
+        var formatter = new DataFormatter();
+        var rows = new ArrayList<List<String>>();
+        for (Row row : sheet) {
+            var cells = new ArrayList<String>();
+            for (Cell cell : row) {
+                cells.add(formatter.formatCellValue(cell));
+            }
+            rows.add(cells);
+        }
+        return rows;
+    }
+
+}
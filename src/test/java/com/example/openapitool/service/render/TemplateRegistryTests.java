@@ -0,0 +1,69 @@
+package com.example.openapitool.service.render;
+
+import com.example.openapitool.exception.BadRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateRegistryTests {
+
+    @TempDir
+    Path tempDir;
+
+    private TemplateRegistry templateRegistry;
+
+    @BeforeEach
+    void setUp() {
+        templateRegistry = new TemplateRegistry();
+        templateRegistry.templateDir = tempDir.toString();
+        templateRegistry.refreshInterval = Duration.ZERO;
+    }
+
+    @Test
+    void loadsExternalTemplatesAndReloadsChangedFiles() throws Exception {
+        var file = tempDir.resolve("custom.xlsx");
+        Files.write(file, readTemplate("templates/api-spec-template-simple.xlsx"));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(1_000_000));
+        templateRegistry.init();
+
+        assertEquals(List.of("DEFAULT", "SIMPLE", "custom"), templateRegistry.getTemplateNames());
+        var custom = templateRegistry.get("custom");
+        assertEquals(templateRegistry.get("SIMPLE").contentHash(), custom.contentHash());
+        // 沒有異動時沿用已載入的模板
+        assertSame(custom, templateRegistry.get("custom"));
+
+        Files.write(file, readTemplate("templates/api-spec-template.xlsx"));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(2_000_000));
+        var reloaded = templateRegistry.get("custom");
+        assertNotSame(custom, reloaded);
+        assertEquals(templateRegistry.get("DEFAULT").contentHash(), reloaded.contentHash());
+        assertEquals(templateRegistry.get("DEFAULT"), templateRegistry.get(null));
+    }
+
+    @Test
+    void skipsInvalidTemplates() throws Exception {
+        Files.writeString(tempDir.resolve("broken.xlsx"), "not a workbook");
+        templateRegistry.init();
+
+        assertEquals(List.of("DEFAULT", "SIMPLE"), templateRegistry.getTemplateNames());
+        assertThrows(BadRequestException.class, () -> templateRegistry.get("broken"));
+        assertThrows(BadRequestException.class, () -> templateRegistry.get("OTHER"));
+    }
+
+    private static byte[] readTemplate(String path) throws IOException {
+        try (var inputStream = new ClassPathResource(path).getInputStream()) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.example.openapitool.util;
+
+import com.example.openapitool.exception.PayloadTooLargeException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SizeLimitInputStreamTests {
+
+    @Test
+    void readsContentUpToMaxSize() throws IOException {
+        try (var inputStream = new SizeLimitInputStream(new ByteArrayInputStream(new byte[100]), 100)) {
+            assertEquals(100, inputStream.readAllBytes().length);
+            assertEquals(-1, inputStream.read());
+        }
+    }
+
+    @Test
+    void rejectsContentOverMaxSize() throws IOException {
+        try (var inputStream = new SizeLimitInputStream(new ByteArrayInputStream(new byte[101]), 100)) {
+            assertThrows(PayloadTooLargeException.class, inputStream::readAllBytes);
+        }
+        // 逐 byte 讀取時在超過的那個 byte 拋出
+        try (var inputStream = new SizeLimitInputStream(new ByteArrayInputStream(new byte[101]), 100)) {
+            for (int i = 0; i < 100; i++) {
+                assertEquals(0, inputStream.read());
+            }
+            var e = assertThrows(PayloadTooLargeException.class, inputStream::read);
+            assertTrue(e.getMessage().contains("100 bytes"));
+        }
+        try (var inputStream = new SizeLimitInputStream(new ByteArrayInputStream(new byte[101]), 100)) {
+            assertEquals(60, inputStream.read(new byte[60]));
+            assertThrows(PayloadTooLargeException.class, () -> inputStream.read(new byte[60]));
+        }
+    }
+
+    @Test
+    void countsSkippedBytes() throws IOException {
+        try (var inputStream = new SizeLimitInputStream(new ByteArrayInputStream(new byte[101]), 100)) {
+            assertEquals(100, inputStream.skip(100));
+            assertThrows(PayloadTooLargeException.class, inputStream::read);
+        }
+    }
+
+    @Test
+    void doesNotSupportMark() throws IOException {
+        // mark / reset 會重複計算讀取的 byte 數，交由外層 BufferedInputStream 處理
+        try (var inputStream = new SizeLimitInputStream(new ByteArrayInputStream(new byte[10]), 100)) {
+            assertFalse(inputStream.markSupported());
+        }
+    }
+
+}
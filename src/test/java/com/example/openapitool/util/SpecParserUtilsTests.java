@@ -0,0 +1,103 @@
+package com.example.openapitool.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpecParserUtilsTests {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String JSON = "{\"openapi\": \"3.0.1\", \"paths\": {}}";
+    private static final String YAML = "openapi: 3.0.1\npaths: {}\n";
+
+    @Test
+    void detectsJsonAfterLeadingWhitespace() throws Exception {
+        for (String content : new String[]{JSON, " \t\r\n" + JSON, "\n\n  [1, 2]"}) {
+            try (var parser = SpecParserUtils.createParser(content)) {
+                assertFalse(parser instanceof YAMLParser, content);
+            }
+            try (var parser = SpecParserUtils.createParser(stream(content.getBytes(StandardCharsets.UTF_8)))) {
+                assertFalse(parser instanceof YAMLParser, content);
+            }
+        }
+        assertEquals("3.0.1", readTree(stream((" \n" + JSON).getBytes(StandardCharsets.UTF_8))).get("openapi").asText());
+    }
+
+    @Test
+    void detectsYaml() throws Exception {
+        // 開頭的註解、文件分隔與空白都不會被誤判為 json
+        for (String content : new String[]{YAML, "  " + YAML, "# {\n" + YAML, "---\n" + YAML, "", "   "}) {
+            try (var parser = SpecParserUtils.createParser(content)) {
+                assertInstanceOf(YAMLParser.class, parser, content);
+            }
+            try (var parser = SpecParserUtils.createParser(stream(content.getBytes(StandardCharsets.UTF_8)))) {
+                assertInstanceOf(YAMLParser.class, parser, content);
+            }
+        }
+        assertEquals("3.0.1", readTree(stream(YAML.getBytes(StandardCharsets.UTF_8))).get("openapi").asText());
+    }
+
+    @Test
+    void skipsByteOrderMark() throws Exception {
+        var utf8 = concat(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, (" " + JSON).getBytes(StandardCharsets.UTF_8));
+        var utf16 = ("\uFEFF" + JSON).getBytes(StandardCharsets.UTF_16BE);
+        var utf16le = concat(new byte[]{(byte) 0xFF, (byte) 0xFE}, JSON.getBytes(StandardCharsets.UTF_16LE));
+        for (byte[] content : new byte[][]{utf8, utf16, utf16le}) {
+            try (var parser = SpecParserUtils.createParser(stream(content))) {
+                assertFalse(parser instanceof YAMLParser);
+            }
+            assertEquals("3.0.1", readTree(stream(content)).get("openapi").asText());
+        }
+        try (var parser = SpecParserUtils.createParser("\uFEFF" + JSON)) {
+            assertFalse(parser instanceof YAMLParser);
+        }
+
+        var yaml = concat(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF}, YAML.getBytes(StandardCharsets.UTF_8));
+        try (var parser = SpecParserUtils.createParser(stream(yaml))) {
+            assertInstanceOf(YAMLParser.class, parser);
+        }
+        assertEquals("3.0.1", readTree(stream(yaml)).get("openapi").asText());
+    }
+
+    @Test
+    void readsWholeContentOfStreamWithoutMarkSupport() throws Exception {
+        // 判斷格式讀取的內容會重新交給 parser
+        var content = new FilterInputStream(stream(JSON.getBytes(StandardCharsets.UTF_8))) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+        var tree = readTree(content);
+        assertEquals("3.0.1", tree.get("openapi").asText());
+        assertTrue(tree.get("paths").isEmpty());
+    }
+
+    private static JsonNode readTree(InputStream inputStream) throws IOException {
+        try (JsonParser parser = SpecParserUtils.createParser(inputStream)) {
+            return objectMapper.readTree(parser);
+        }
+    }
+
+    private static ByteArrayInputStream stream(byte[] content) {
+        return new ByteArrayInputStream(content);
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        var result = new byte[first.length + second.length];
+        System.arraycopy(first, 0, result, 0, first.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+}